@@ -0,0 +1,93 @@
+package com.shannontheoret.machikoro.benchmark;
+
+import com.shannontheoret.machikoro.Card;
+import com.shannontheoret.machikoro.CardCategory;
+import com.shannontheoret.machikoro.utilities.PlayerStockUtilities;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+//per-roll activation lookups: the original stream filters against the precomputed Card tables
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CardActivationBenchmark {
+
+    private Map<Card, Integer> stock;
+
+    @Setup
+    public void setUp() {
+        stock = new EnumMap<>(Card.class);
+        for (Card card : Card.values()) {
+            stock.put(card, card.ordinal() % 3);
+        }
+    }
+
+    @Benchmark
+    public void streams(Blackhole blackhole) {
+        for (int roll = 1; roll <= Card.MAX_ROLL; roll++) {
+            blackhole.consume(streamRedCardsForRoll(stock, roll));
+            blackhole.consume(streamBlueCardsForRoll(stock, roll));
+            blackhole.consume(streamGreenAndBlueCardsForPlayerRoll(stock, roll));
+        }
+        blackhole.consume(streamCountOfCardsInCategory(stock, CardCategory.GRAIN));
+    }
+
+    @Benchmark
+    public void activationTables(Blackhole blackhole) {
+        for (int roll = 1; roll <= Card.MAX_ROLL; roll++) {
+            blackhole.consume(PlayerStockUtilities.getRedCardsForRoll(stock, roll));
+            blackhole.consume(PlayerStockUtilities.getBlueCardsForRoll(stock, roll));
+            blackhole.consume(PlayerStockUtilities.getGreenAndBlueCardsForPlayerRoll(stock, roll));
+        }
+        blackhole.consume(PlayerStockUtilities.getCountOfCardsInCategory(stock, CardCategory.GRAIN));
+    }
+
+    @Benchmark
+    public void activationMasks(Blackhole blackhole) {
+        for (int roll = 1; roll <= Card.MAX_ROLL; roll++) {
+            blackhole.consume(Card.redCardsForRoll(roll));
+            blackhole.consume(Card.blueCardsForRoll(roll));
+            blackhole.consume(Card.greenCardsForRoll(roll) | Card.blueCardsForRoll(roll));
+        }
+        blackhole.consume(Card.cardsInCategory(CardCategory.GRAIN));
+    }
+
+    //the filters PlayerStockUtilities used before the tables existed
+    private static Set<Card> streamRedCardsForRoll(Map<Card, Integer> stock, Integer roll) {
+        return stock.keySet()
+                .stream()
+                .filter(card -> card.getRolls().contains(roll) && card.isSteals())
+                .collect(Collectors.toSet());
+    }
+
+    private static Set<Card> streamBlueCardsForRoll(Map<Card, Integer> stock, Integer roll) {
+        return stock.keySet()
+                .stream()
+                .filter(card -> card.getRolls().contains(roll) && card.isOnAnyonesTurn())
+                .collect(Collectors.toSet());
+    }
+
+    private static Set<Card> streamGreenAndBlueCardsForPlayerRoll(Map<Card, Integer> stock, Integer roll) {
+        return stock.keySet()
+                .stream()
+                .filter(card -> card.getRolls().contains(roll) && card.isOnPlayersTurn() && card.getCategory() != CardCategory.PURPLE)
+                .collect(Collectors.toSet());
+    }
+
+    private static Integer streamCountOfCardsInCategory(Map<Card, Integer> stock, CardCategory category) {
+        return stock.keySet()
+                .stream()
+                .filter(card -> card.getCategory() == category)
+                .mapToInt(stock::get)
+                .sum();
+    }
+}
@@ -0,0 +1,54 @@
+package com.shannontheoret.machikoro.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shannontheoret.machikoro.entity.Game;
+import com.shannontheoret.machikoro.exception.GameMechanicException;
+import com.shannontheoret.machikoro.exception.InvalidMoveException;
+import com.shannontheoret.machikoro.state.GameCodec;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+//the binary codec against the jackson json a client gets, and decoding against an in-memory deep copy
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameCodecBenchmark {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Param
+    public GamePhase phase;
+
+    private Game game;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() throws GameMechanicException, InvalidMoveException {
+        game = GameFixtures.gameAt(phase);
+        encoded = GameCodec.encode(game);
+    }
+
+    @Benchmark
+    public byte[] codecEncode() {
+        return GameCodec.encode(game);
+    }
+
+    @Benchmark
+    public Game codecDecode() {
+        return GameCodec.decode(encoded);
+    }
+
+    @Benchmark
+    public byte[] jsonWrite() throws JsonProcessingException {
+        return MAPPER.writeValueAsBytes(game);
+    }
+
+    @Benchmark
+    public Game deepCopy() throws GameMechanicException {
+        return game.deepCopy();
+    }
+}
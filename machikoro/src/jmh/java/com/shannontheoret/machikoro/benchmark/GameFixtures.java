@@ -0,0 +1,96 @@
+package com.shannontheoret.machikoro.benchmark;
+
+import com.shannontheoret.machikoro.BuyingDecision;
+import com.shannontheoret.machikoro.Card;
+import com.shannontheoret.machikoro.Landmark;
+import com.shannontheoret.machikoro.StrategyName;
+import com.shannontheoret.machikoro.entity.Game;
+import com.shannontheoret.machikoro.entity.Player;
+import com.shannontheoret.machikoro.exception.GameMechanicException;
+import com.shannontheoret.machikoro.exception.InvalidMoveException;
+import com.shannontheoret.machikoro.simulation.GameSimulator;
+import com.shannontheoret.machikoro.simulation.RandomDieSource;
+import com.shannontheoret.machikoro.simulation.SimulationResult;
+
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+//seeded games captured part way through, so every benchmark sees the same representative states
+public class GameFixtures {
+    public static final long SEED = 20240229L;
+
+    private static final List<Map<StrategyName, Integer>> STRATEGIES = List.of(
+            strategy(1, 1, 1, null),
+            strategy(3, 0, 1, StrategyName.CHEESE_FOCUSED),
+            strategy(0, 2, 3, StrategyName.FACTORY_FOCUSED),
+            strategy(2, 3, 0, StrategyName.FRUIT_AND_VEG_FOCUSED));
+
+    public static List<Map<StrategyName, Integer>> strategies() {
+        return STRATEGIES;
+    }
+
+    public static Game gameAt(GamePhase phase) throws GameMechanicException, InvalidMoveException {
+        SimulationResult fullGame = new GameSimulator(new RandomDieSource(new SplittableRandom(SEED))).play(STRATEGIES);
+        int targetTurn = Math.max(1, (int) (fullGame.getTurns() * phase.getFractionOfGame()));
+
+        Game[] snapshot = new Game[1];
+        GameSimulator replay = new GameSimulator(new RandomDieSource(new SplittableRandom(SEED)), targetTurn);
+        replay.setTurnListener((game, playerNumber, turn) -> {
+            if (turn == targetTurn) {
+                snapshot[0] = game.deepCopy();
+            }
+        });
+        replay.play(STRATEGIES);
+        return snapshot[0];
+    }
+
+    //the candidate set the decision engine would hand to Strategy, with benefits shaped by the current stock
+    public static Set<BuyingDecision> buyingCandidates(Game game) throws GameMechanicException {
+        Player currentPlayer = game.getCurrentPlayer();
+        Set<BuyingDecision> candidates = new LinkedHashSet<>();
+        for (Card card : Card.values()) {
+            if (game.getGameStock().getOrDefault(card, 0) > 0) {
+                BuyingDecision decision = BuyingDecision.buyCard(card);
+                decision.setAverageBenefitPerRound(card.getAmountGained() * card.getRolls().size() / 36.0
+                        + currentPlayer.getStock().getOrDefault(card, 0) * 0.1);
+                decision.setStrategicValue(strategicValue(card.ordinal()));
+                candidates.add(decision);
+            }
+        }
+        for (Landmark landmark : Landmark.values()) {
+            if (!currentPlayer.hasLandmark(landmark)) {
+                BuyingDecision decision = BuyingDecision.buyLandmark(landmark);
+                decision.setAverageBenefitPerRound(landmark.ordinal() * 0.25 + 0.5);
+                decision.setStrategicValue(strategicValue(landmark.ordinal() + Card.values().length));
+                candidates.add(decision);
+            }
+        }
+        return candidates;
+    }
+
+    private static Map<StrategyName, Double> strategicValue(int salt) {
+        Map<StrategyName, Double> value = new EnumMap<>(StrategyName.class);
+        for (StrategyName strategyName : StrategyName.values()) {
+            value.put(strategyName, ((salt * 31 + strategyName.ordinal() * 17) % 10) / 10.0);
+        }
+        return value;
+    }
+
+    private static Map<StrategyName, Integer> strategy(int saver, int optimist, int attackFocused, StrategyName focus) {
+        Map<StrategyName, Integer> strategy = new EnumMap<>(StrategyName.class);
+        strategy.put(StrategyName.SAVER, saver);
+        strategy.put(StrategyName.OPTIMIST, optimist);
+        strategy.put(StrategyName.ATTACK_FOCUSED, attackFocused);
+        strategy.put(StrategyName.CHEESE_FOCUSED, 0);
+        strategy.put(StrategyName.FACTORY_FOCUSED, 0);
+        strategy.put(StrategyName.FRUIT_AND_VEG_FOCUSED, 0);
+        if (focus != null) {
+            strategy.put(focus, 1);
+        }
+        return strategy;
+    }
+}
@@ -0,0 +1,18 @@
+package com.shannontheoret.machikoro.benchmark;
+
+//how far through a full game a fixture is captured
+public enum GamePhase {
+    EARLY(0.1),
+    MID(0.5),
+    LATE(0.9);
+
+    private final double fractionOfGame;
+
+    GamePhase(double fractionOfGame) {
+        this.fractionOfGame = fractionOfGame;
+    }
+
+    public double getFractionOfGame() {
+        return fractionOfGame;
+    }
+}
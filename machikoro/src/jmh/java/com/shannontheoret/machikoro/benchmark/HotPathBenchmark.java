@@ -0,0 +1,104 @@
+package com.shannontheoret.machikoro.benchmark;
+
+import com.shannontheoret.machikoro.BuyingDecision;
+import com.shannontheoret.machikoro.Card;
+import com.shannontheoret.machikoro.StrategicTurnDecisionEngine;
+import com.shannontheoret.machikoro.Strategy;
+import com.shannontheoret.machikoro.StrategyName;
+import com.shannontheoret.machikoro.entity.Game;
+import com.shannontheoret.machikoro.exception.GameMechanicException;
+import com.shannontheoret.machikoro.exception.InvalidMoveException;
+import com.shannontheoret.machikoro.simulation.GameSimulator;
+import com.shannontheoret.machikoro.simulation.RandomDieSource;
+import com.shannontheoret.machikoro.simulation.SimulationResult;
+import com.shannontheoret.machikoro.state.GameState;
+import com.shannontheoret.machikoro.utilities.RollEffectCalculator;
+import com.shannontheoret.machikoro.utilities.RollEffectTable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+//rules and AI hot paths on early, mid and late game states; run with -prof gc (the jmh profile default) for allocation rates
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class HotPathBenchmark {
+
+    @Param
+    public GamePhase phase;
+
+    private Game game;
+    private Map<StrategyName, Integer> strategyDegrees;
+    private Strategy strategy;
+    private Set<BuyingDecision> buyingCandidates;
+    private int coinsAvailable;
+    private SplittableRandom dice;
+    private GameState state;
+    private GameState stateAfterPurchase; //the current player bought a wheat field
+    private int[][] rollEffects;
+    private RollEffectTable rollEffectTable;
+    private boolean purchased;
+
+    @Setup(Level.Trial)
+    public void setUp() throws GameMechanicException, InvalidMoveException {
+        game = GameFixtures.gameAt(phase);
+        strategyDegrees = game.getCurrentPlayer().getStrategy();
+        strategy = new Strategy(strategyDegrees);
+        buyingCandidates = GameFixtures.buyingCandidates(game);
+        coinsAvailable = game.getCurrentPlayer().getCoins();
+        dice = new SplittableRandom(GameFixtures.SEED);
+        state = GameState.fromGame(game);
+        stateAfterPurchase = state.copy();
+        stateAfterPurchase.addCard(state.getCurrentPlayerNumber(), Card.WHEAT);
+        stateAfterPurchase.addCoins(state.getCurrentPlayerNumber(), -Math.min(1, state.getCoins(state.getCurrentPlayerNumber())));
+        rollEffects = RollEffectCalculator.newRollEffectsBuffer();
+        rollEffectTable = new RollEffectTable(state.getPlayerCount());
+    }
+
+    @Benchmark
+    public Map<Integer, Map<Integer, Integer>> calculateAllPossibleRollEffects() throws GameMechanicException {
+        return RollEffectCalculator.calculateAllPossibleRollEffects(game);
+    }
+
+    @Benchmark
+    public int[][] calculateAllPossibleRollEffectsFromState() {
+        RollEffectCalculator.calculateAllPossibleRollEffects(purchased ? stateAfterPurchase : state, rollEffects);
+        purchased = !purchased;
+        return rollEffects;
+    }
+
+    //the same states in turn, so every sync sees one card and a coin change
+    @Benchmark
+    public int[][] rollEffectTableSync() {
+        int[][] synced = rollEffectTable.sync(purchased ? stateAfterPurchase : state);
+        purchased = !purchased;
+        return synced;
+    }
+
+    @Benchmark
+    public BuyingDecision makeBuyingDecision() throws GameMechanicException {
+        return new StrategicTurnDecisionEngine(strategyDegrees, game).makeBuyingDecision();
+    }
+
+    @Benchmark
+    public BuyingDecision strategyMakeBuyingDecisions() {
+        return strategy.makeBuyingDecisions(buyingCandidates, coinsAvailable);
+    }
+
+    @Benchmark
+    public Game deepCopy() throws GameMechanicException {
+        return game.deepCopy();
+    }
+
+    //plays the fixture out to the end, so EARLY is close to a whole game
+    @Benchmark
+    public SimulationResult simulateRestOfGame() throws GameMechanicException, InvalidMoveException {
+        return new GameSimulator(new RandomDieSource(dice.split())).play(game.deepCopy());
+    }
+}
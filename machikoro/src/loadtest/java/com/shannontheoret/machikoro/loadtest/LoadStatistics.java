@@ -0,0 +1,93 @@
+package com.shannontheoret.machikoro.loadtest;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.search.RequiredSearch;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+//client side latencies per endpoint, finished games and the heap of the whole process, server and clients together
+class LoadStatistics {
+    private static final double MEGABYTE = 1024 * 1024;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final Duration runLength;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> failures = new ConcurrentHashMap<>();
+    private final LongAdder gamesFinished = new LongAdder();
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private final AtomicLong peakHeapBytes = new AtomicLong();
+
+    //percentiles are kept over the whole run rather than micrometer's default two minute window
+    LoadStatistics(Duration runLength) {
+        this.runLength = runLength;
+    }
+
+    void record(String endpoint, long nanos, boolean ok) {
+        timers.computeIfAbsent(endpoint, key -> Timer.builder("loadtest.request")
+                .tag("endpoint", key)
+                .publishPercentiles(0.5, 0.99)
+                .distributionStatisticExpiry(runLength.multipliedBy(2))
+                .distributionStatisticBufferLength(1)
+                .register(registry)).record(nanos, TimeUnit.NANOSECONDS);
+        if (!ok) {
+            failures.computeIfAbsent(endpoint, key -> Counter.builder("loadtest.failures").tag("endpoint", key).register(registry)).increment();
+        }
+    }
+
+    void gameFinished() {
+        gamesFinished.increment();
+    }
+
+    void sampleHeap() {
+        peakHeapBytes.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+    }
+
+    void print(PrintStream out, int clients, Duration elapsed) {
+        double seconds = elapsed.toMillis() / 1000.0;
+        out.printf("%d clients for %.1f s%n%n", clients, seconds);
+        out.printf("%-18s %10s %10s %10s %10s %10s%n", "endpoint", "requests", "per sec", "failed", "p50 ms", "p99 ms");
+        long totalRequests = 0;
+        for (Map.Entry<String, Timer> entry : new TreeMap<>(timers).entrySet()) {
+            Timer timer = entry.getValue();
+            Counter failed = failures.get(entry.getKey());
+            out.printf("%-18s %10d %10.1f %10d %10.2f %10.2f%n", entry.getKey(), timer.count(), timer.count() / seconds,
+                    failed == null ? 0 : (long) failed.count(), percentile(timer, 0.5), percentile(timer, 0.99));
+            totalRequests += timer.count();
+        }
+        out.printf("%-18s %10d %10.1f%n%n", "all", totalRequests, totalRequests / seconds);
+        out.printf("games finished     %d (%.1f per sec)%n", gamesFinished.sum(), gamesFinished.sum() / seconds);
+        out.printf("games in memory    %.0f%n", activeGames());
+        out.printf("heap max           %.0f MB%n", memory.getHeapMemoryUsage().getMax() / MEGABYTE);
+        out.printf("heap peak used     %.0f MB%n", peakHeapBytes.get() / MEGABYTE);
+        System.gc();
+        out.printf("heap after gc      %.0f MB%n", memory.getHeapMemoryUsage().getUsed() / MEGABYTE);
+    }
+
+    private static double percentile(Timer timer, double percentile) {
+        for (ValueAtPercentile value : timer.takeSnapshot().percentileValues()) {
+            if (value.percentile() == percentile) {
+                return value.value(TimeUnit.MILLISECONDS);
+            }
+        }
+        return Double.NaN;
+    }
+
+    //the server's own gauge
+    private static double activeGames() {
+        RequiredSearch search = Metrics.globalRegistry.get("machikoro.games.active");
+        return search.gauge().value();
+    }
+}
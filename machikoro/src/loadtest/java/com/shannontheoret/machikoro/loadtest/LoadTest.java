@@ -0,0 +1,74 @@
+package com.shannontheoret.machikoro.loadtest;
+
+import com.shannontheoret.machikoro.MachikoroApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+//starts the app on a random port against in-memory H2 and has simulated clients play it over HTTP, one virtual thread each;
+//arguments are key=value: clients (1000), seconds (60), ramp-seconds (10), players (4), seed (1)
+public class LoadTest {
+
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] keyAndValue = arg.split("=", 2);
+            if (keyAndValue.length != 2) {
+                throw new IllegalArgumentException("Expected key=value but got " + arg);
+            }
+            options.put(keyAndValue[0], keyAndValue[1]);
+        }
+        int clients = Integer.parseInt(options.getOrDefault("clients", "1000"));
+        int seconds = Integer.parseInt(options.getOrDefault("seconds", "60"));
+        int rampSeconds = Integer.parseInt(options.getOrDefault("ramp-seconds", "10"));
+        int players = Integer.parseInt(options.getOrDefault("players", "4"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "1"));
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(MachikoroApplication.class).profiles("loadtest").run();
+        URI baseUri = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port"));
+        LoadStatistics statistics = new LoadStatistics(Duration.ofSeconds(seconds));
+        SplittableRandom random = new SplittableRandom(seed);
+
+        try (ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient httpClient = HttpClient.newBuilder().executor(clientThreads).build()) {
+            Thread heapSampler = Thread.ofVirtual().start(() -> {
+                while (!Thread.currentThread().isInterrupted()) {
+                    statistics.sampleHeap();
+                    try {
+                        Thread.sleep(250);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            });
+            long start = System.nanoTime();
+            long deadline = start + TimeUnit.SECONDS.toNanos(seconds);
+            ExecutorService clientRunners = Executors.newVirtualThreadPerTaskExecutor();
+            for (int i = 0; i < clients; i++) {
+                long startAfterNanos = TimeUnit.SECONDS.toNanos(rampSeconds) * i / clients; //clients join evenly over the ramp
+                SimulatedClient client = new SimulatedClient(httpClient, baseUri, statistics, players, deadline, random.split());
+                clientRunners.submit(() -> {
+                    TimeUnit.NANOSECONDS.sleep(startAfterNanos);
+                    client.run();
+                    return null;
+                });
+            }
+            clientRunners.shutdown();
+            clientRunners.awaitTermination(seconds + rampSeconds + 60L, TimeUnit.SECONDS);
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+            heapSampler.interrupt();
+            statistics.print(System.out, clients, elapsed);
+        } finally {
+            context.close();
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.shannontheoret.machikoro.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shannontheoret.machikoro.Card;
+import com.shannontheoret.machikoro.CardCategory;
+import com.shannontheoret.machikoro.Landmark;
+import com.shannontheoret.machikoro.Step;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.*;
+
+//one person at a browser: starts a game against NPCs, plays their own turns and asks for each NPC move, game after game until the deadline;
+//a refused or failed request abandons the game, as a user would reload the page
+class SimulatedClient implements Runnable {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final HttpClient httpClient;
+    private final URI baseUri;
+    private final LoadStatistics statistics;
+    private final int playerCount;
+    private final long deadlineNanos;
+    private final SplittableRandom random;
+
+    SimulatedClient(HttpClient httpClient, URI baseUri, LoadStatistics statistics, int playerCount, long deadlineNanos, SplittableRandom random) {
+        this.httpClient = httpClient;
+        this.baseUri = baseUri;
+        this.statistics = statistics;
+        this.playerCount = playerCount;
+        this.deadlineNanos = deadlineNanos;
+        this.random = random;
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (System.nanoTime() < deadlineNanos) {
+                playGame();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void playGame() throws InterruptedException {
+        JsonNode game = post("newGame", "/newGame", newGamePlayers());
+        if (game == null) {
+            return;
+        }
+        String code = game.get("code").asText();
+        while (game != null && System.nanoTime() < deadlineNanos) {
+            if (Step.valueOf(game.get("step").asText()) == Step.WON) {
+                statistics.gameFinished();
+                return;
+            }
+            game = takeTurn(code, game);
+        }
+    }
+
+    //the human is player one, the rest are NPCs choosing their own strategy
+    private List<Map<String, Object>> newGamePlayers() {
+        List<Map<String, Object>> players = new ArrayList<>();
+        for (int playerNumber = 1; playerNumber <= playerCount; playerNumber++) {
+            Map<String, Object> player = new HashMap<>();
+            player.put("playerNumber", playerNumber);
+            player.put("playerName", "Load " + playerNumber);
+            player.put("isNPC", playerNumber > 1);
+            player.put("chooseStrategy", false);
+            players.add(player);
+        }
+        return players;
+    }
+
+    private JsonNode takeTurn(String code, JsonNode game) throws InterruptedException {
+        JsonNode currentPlayer = player(game, game.get("currentPlayerNumber").asInt());
+        if (currentPlayer.get("npc").asBoolean()) {
+            return post("makeNPCMove", "/makeNPCMove?gameCode=" + code, null);
+        }
+        switch (Step.valueOf(game.get("step").asText())) {
+            case ROLL:
+                if (hasLandmark(currentPlayer, Landmark.TRAIN_STATION) && random.nextBoolean()) {
+                    return post("rollTwoDice", "/rollTwoDice?gameCode=" + code, null);
+                }
+                return post("roll", "/roll?gameCode=" + code, null);
+            case CONFIRM_ROLL:
+                return post("confirmRoll", "/confirmRoll?gameCode=" + code, null);
+            case STEAL:
+                return post("steal", "/steal?gameCode=" + code + "&playerNumber=" + richestOpponent(game, currentPlayer), null);
+            case BUY:
+                return buy(code, game, currentPlayer);
+            default:
+                throw new IllegalStateException("Game " + code + " is at step " + game.get("step").asText());
+        }
+    }
+
+    //the cheapest landmark left if affordable, otherwise usually some card, sometimes nothing
+    private JsonNode buy(String code, JsonNode game, JsonNode currentPlayer) throws InterruptedException {
+        int coins = currentPlayer.get("coins").asInt();
+        Landmark cheapestLandmark = null;
+        for (Landmark landmark : Landmark.values()) {
+            if (!hasLandmark(currentPlayer, landmark) && landmark.getCost() <= coins
+                    && (cheapestLandmark == null || landmark.getCost() < cheapestLandmark.getCost())) {
+                cheapestLandmark = landmark;
+            }
+        }
+        if (cheapestLandmark != null) {
+            return post("purchaseLandmark", "/purchaseLandmark?gameCode=" + code + "&landmark=" + cheapestLandmark, null);
+        }
+        List<Card> affordable = new ArrayList<>();
+        for (Card card : Card.values()) {
+            boolean ownsPurple = card.getCategory() == CardCategory.PURPLE && currentPlayer.get("stock").has(card.name());
+            if (card.getCost() <= coins && game.get("gameStock").get(card.name()).asInt() > 0 && !ownsPurple) {
+                affordable.add(card);
+            }
+        }
+        if (!affordable.isEmpty() && random.nextInt(4) != 0) {
+            return post("purchaseCard", "/purchaseCard?gameCode=" + code + "&card=" + affordable.get(random.nextInt(affordable.size())), null);
+        }
+        return post("completeTurn", "/completeTurn?gameCode=" + code, null);
+    }
+
+    private int richestOpponent(JsonNode game, JsonNode currentPlayer) {
+        JsonNode richest = null;
+        for (JsonNode player : game.get("players")) {
+            if (player.get("number").asInt() != currentPlayer.get("number").asInt()
+                    && (richest == null || player.get("coins").asInt() > richest.get("coins").asInt())) {
+                richest = player;
+            }
+        }
+        return richest.get("number").asInt();
+    }
+
+    private static JsonNode player(JsonNode game, int playerNumber) {
+        for (JsonNode player : game.get("players")) {
+            if (player.get("number").asInt() == playerNumber) {
+                return player;
+            }
+        }
+        throw new IllegalStateException("Game " + game.get("code").asText() + " has no player " + playerNumber);
+    }
+
+    private static boolean hasLandmark(JsonNode player, Landmark landmark) {
+        for (JsonNode owned : player.get("landmarks")) {
+            if (owned.asText().equals(landmark.name())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //times the exchange up to the last byte of the response; null for anything but a 200
+    private JsonNode post(String endpoint, String pathAndQuery, Object body) throws InterruptedException {
+        long start = System.nanoTime();
+        try {
+            HttpRequest request = HttpRequest.newBuilder(baseUri.resolve(pathAndQuery))
+                    .header("Content-Type", "application/json")
+                    .POST(body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofByteArray(MAPPER.writeValueAsBytes(body)))
+                    .build();
+            HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            boolean ok = response.statusCode() == 200;
+            statistics.record(endpoint, System.nanoTime() - start, ok);
+            return ok ? MAPPER.readTree(response.body()) : null;
+        } catch (IOException e) {
+            statistics.record(endpoint, System.nanoTime() - start, false);
+            return null;
+        }
+    }
+}
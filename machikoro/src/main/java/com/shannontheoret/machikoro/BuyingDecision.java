@@ -37,6 +37,14 @@ public class BuyingDecision {
         return new BuyingDecision(null, card);
     }
 
+    public BuyingDecision copy() {
+        BuyingDecision copy = new BuyingDecision(landmarkToPurchase, cardToPurchase);
+        copy.setAverageBenefitPerRound(averageBenefitPerRound);
+        copy.strategicValue.putAll(strategicValue);
+        copy.setCompositeScore(compositeScore);
+        return copy;
+    }
+
     public Landmark getLandmarkToPurchase() {
         return landmarkToPurchase;
     }
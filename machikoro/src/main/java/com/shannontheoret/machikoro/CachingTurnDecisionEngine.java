@@ -0,0 +1,110 @@
+package com.shannontheoret.machikoro;
+
+import com.shannontheoret.machikoro.entity.Game;
+import com.shannontheoret.machikoro.exception.GameMechanicException;
+import com.shannontheoret.machikoro.state.GameState;
+
+import java.util.Arrays;
+import java.util.Map;
+
+//answers from the application's decision cache, building the heuristic engine and its roll distribution only on a miss
+public class CachingTurnDecisionEngine implements TurnDecisionEngine {
+    private static final StrategyName[] STRATEGY_NAMES = StrategyName.values();
+
+    private final Map<StrategyName, Integer> strategyDegrees;
+    private final Game game;
+    private final DecisionCache cache;
+    private final int[] degrees;
+    private StrategicTurnDecisionEngine engine;
+
+    public CachingTurnDecisionEngine(Map<StrategyName, Integer> strategyDegrees, Game game, DecisionCache cache) {
+        this.strategyDegrees = strategyDegrees;
+        this.game = game;
+        this.cache = cache;
+        this.degrees = new int[STRATEGY_NAMES.length];
+        for (StrategyName name : STRATEGY_NAMES) {
+            Integer degree = strategyDegrees == null ? null : strategyDegrees.get(name);
+            degrees[name.ordinal()] = degree == null ? -1 : degree;
+        }
+    }
+
+    @Override
+    public boolean rollSingleDice() throws GameMechanicException {
+        return cache.get(key(Question.ROLL_SINGLE_DICE), () -> engine().rollSingleDice());
+    }
+
+    @Override
+    public boolean reroll() throws GameMechanicException {
+        return cache.get(key(Question.REROLL), () -> engine().reroll());
+    }
+
+    @Override
+    public Integer choosePlayerToStealFrom() throws GameMechanicException {
+        return cache.get(key(Question.STEAL_TARGET), () -> engine().choosePlayerToStealFrom());
+    }
+
+    //the cached decision is shared with other games, so each caller gets its own copy
+    @Override
+    public BuyingDecision makeBuyingDecision() throws GameMechanicException {
+        BuyingDecision cached = cache.get(key(Question.BUYING_DECISION), () -> engine().makeBuyingDecision());
+        return cached.copy();
+    }
+
+    private StrategicTurnDecisionEngine engine() throws GameMechanicException {
+        if (engine == null) {
+            engine = new StrategicTurnDecisionEngine(strategyDegrees, game);
+        }
+        return engine;
+    }
+
+    //only the reroll reads the dice; no decision reads the step, so positions differing only there share an entry
+    private DecisionKey key(Question question) {
+        GameState state = GameState.fromGame(game);
+        state.setStep(null);
+        if (question != Question.REROLL) {
+            state.setDice(0, 0);
+            state.setRolledOnce(false);
+        }
+        return new DecisionKey(question, state, degrees);
+    }
+
+    private enum Question {
+        ROLL_SINGLE_DICE,
+        REROLL,
+        STEAL_TARGET,
+        BUYING_DECISION
+    }
+
+    private static final class DecisionKey {
+        private final Question question;
+        private final GameState state;
+        private final int[] degrees;
+        private final int hash;
+
+        DecisionKey(Question question, GameState state, int[] degrees) {
+            this.question = question;
+            this.state = state;
+            this.degrees = degrees;
+            this.hash = 31 * (31 * question.hashCode() + state.hashCode()) + Arrays.hashCode(degrees);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof DecisionKey other)) {
+                return false;
+            }
+            return hash == other.hash
+                    && question == other.question
+                    && Arrays.equals(degrees, other.degrees)
+                    && state.equals(other.state);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -22,6 +22,7 @@ public enum Card {
     FRUIT_AND_VEGETABLE_GARDEN(new HashSet<>(Arrays.asList(11, 12)), true, false, false, CardCategory.OTHER, false, 2, 2);
 
     private final Set<Integer> rolls;
+    private final int rollMask; //bit n set if the card activates on a roll of n
     private final boolean onPlayersTurn;
     private final boolean onAnyonesTurn;
     private final boolean steals;
@@ -30,10 +31,41 @@ public enum Card {
     private final int amountGained;
     private final int cost;
     public final static Integer ALL_PURPLE_ROLL = 6;
+    public final static int MAX_ROLL = 12;
+
+    private static final Card[] CARDS = values();
+    private static final int[] RED_CARDS_BY_ROLL = new int[MAX_ROLL + 1];
+    private static final int[] BLUE_CARDS_BY_ROLL = new int[MAX_ROLL + 1];
+    private static final int[] GREEN_CARDS_BY_ROLL = new int[MAX_ROLL + 1];
+    private static final int[] PURPLE_CARDS_BY_ROLL = new int[MAX_ROLL + 1];
+    private static final int[] CARDS_BY_CATEGORY = new int[CardCategory.values().length];
+
+    //bitmasks of card ordinals, built once so roll handling only visits the cards that can fire
+    static {
+        for (Card card : CARDS) {
+            int cardBit = 1 << card.ordinal();
+            CARDS_BY_CATEGORY[card.category.ordinal()] |= cardBit;
+            for (int roll = 1; roll <= MAX_ROLL; roll++) {
+                if (!card.rollApplies(roll)) {
+                    continue;
+                }
+                if (card.category == CardCategory.PURPLE) {
+                    PURPLE_CARDS_BY_ROLL[roll] |= cardBit;
+                } else if (card.steals) {
+                    RED_CARDS_BY_ROLL[roll] |= cardBit;
+                } else if (card.onAnyonesTurn) {
+                    BLUE_CARDS_BY_ROLL[roll] |= cardBit;
+                } else if (card.onPlayersTurn) {
+                    GREEN_CARDS_BY_ROLL[roll] |= cardBit;
+                }
+            }
+        }
+    }
 
     Card(int roll, boolean onPlayersTurn, boolean onAnyonesTurn, boolean steals, CardCategory category, boolean isBasic, int amountGained, int cost) {
         this.rolls = new HashSet<>();
         this.rolls.add(roll);
+        this.rollMask = 1 << roll;
         this.onPlayersTurn = onPlayersTurn;
         this.onAnyonesTurn = onAnyonesTurn;
         this.steals = steals;
@@ -45,6 +77,11 @@ public enum Card {
 
     Card(Set<Integer> rolls, boolean onPlayersTurn, boolean onAnyonesTurn, boolean steals, CardCategory category, boolean isBasic, int amountGained, int cost) {
         this.rolls = rolls;
+        int mask = 0;
+        for (int roll : rolls) {
+            mask |= 1 << roll;
+        }
+        this.rollMask = mask;
         this.onPlayersTurn = onPlayersTurn;
         this.onAnyonesTurn = onAnyonesTurn;
         this.steals = steals;
@@ -54,8 +91,12 @@ public enum Card {
         this.cost = cost;
     }
 
-    public boolean rollApplies(Integer roll) {
-        return rolls.contains(roll);
+    public boolean rollApplies(int roll) {
+        return roll > 0 && roll <= MAX_ROLL && (rollMask & (1 << roll)) != 0;
+    }
+
+    public int getRollMask() {
+        return rollMask;
     }
 
     public boolean isOnPlayersTurn() {
@@ -88,6 +129,30 @@ public enum Card {
 
     public Set<Integer> getRolls() { return rolls; }
 
+    public static Card fromOrdinal(int ordinal) {
+        return CARDS[ordinal];
+    }
+
+    public static int redCardsForRoll(int roll) {
+        return roll > 0 && roll <= MAX_ROLL ? RED_CARDS_BY_ROLL[roll] : 0;
+    }
+
+    public static int blueCardsForRoll(int roll) {
+        return roll > 0 && roll <= MAX_ROLL ? BLUE_CARDS_BY_ROLL[roll] : 0;
+    }
+
+    public static int greenCardsForRoll(int roll) {
+        return roll > 0 && roll <= MAX_ROLL ? GREEN_CARDS_BY_ROLL[roll] : 0;
+    }
+
+    public static int purpleCardsForRoll(int roll) {
+        return roll > 0 && roll <= MAX_ROLL ? PURPLE_CARDS_BY_ROLL[roll] : 0;
+    }
+
+    public static int cardsInCategory(CardCategory category) {
+        return CARDS_BY_CATEGORY[category.ordinal()];
+    }
+
     public static Set<Card> firstHalfOfGameCards() {
         return EnumSet.range(WHEAT, TV_STATION);
     }
@@ -0,0 +1,117 @@
+package com.shannontheoret.machikoro;
+
+import com.shannontheoret.machikoro.exception.GameMechanicException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+//bounded least recently used cache of heuristic decisions, split into segments so parallel games rarely share a lock
+public class DecisionCache {
+    public static final int SEGMENT_COUNT = 16;
+    public static final int APPROXIMATE_BYTES_PER_ENTRY = 400; //compact state, key and map entry
+    public static final int DEFAULT_MAX_ENTRIES = 50000;
+
+    private final int maxEntries;
+    private final Segment[] segments = new Segment[SEGMENT_COUNT];
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public DecisionCache(int maxEntries) {
+        this.maxEntries = Math.max(0, maxEntries);
+        int maxPerSegment = (this.maxEntries + SEGMENT_COUNT - 1) / SEGMENT_COUNT;
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment(maxPerSegment);
+        }
+    }
+
+    //decisions are computed outside the segment lock; two threads missing on one key both compute the same answer
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Loader<T> loader) throws GameMechanicException {
+        if (maxEntries == 0) {
+            misses.increment();
+            return loader.load();
+        }
+        Segment segment = segmentFor(key);
+        Object cached;
+        synchronized (segment) {
+            cached = segment.get(key);
+        }
+        if (cached != null) {
+            hits.increment();
+            return (T) cached;
+        }
+        misses.increment();
+        T loaded = loader.load();
+        synchronized (segment) {
+            segment.put(key, loaded);
+        }
+        return loaded;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public double getHitRate() {
+        long hitCount = getHits();
+        long total = hitCount + getMisses();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public long getApproximateBytes() {
+        return (long) size() * APPROXIMATE_BYTES_PER_ENTRY;
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+        hits.reset();
+        misses.reset();
+    }
+
+    private Segment segmentFor(Object key) {
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        return segments[hash & (SEGMENT_COUNT - 1)];
+    }
+
+    public interface Loader<T> {
+        T load() throws GameMechanicException;
+    }
+
+    private static class Segment extends LinkedHashMap<Object, Object> {
+        private final int maxEntries;
+
+        Segment(int maxEntries) {
+            super(16, 0.75f, true);
+            this.maxEntries = maxEntries;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Object, Object> eldest) {
+            return size() > maxEntries;
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package com.shannontheoret.machikoro;
+
+@FunctionalInterface
+public interface DieSource {
+    int roll(); //value between 1 and 6
+}
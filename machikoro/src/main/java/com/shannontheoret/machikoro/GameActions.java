@@ -0,0 +1,278 @@
+package com.shannontheoret.machikoro;
+
+import com.shannontheoret.machikoro.entity.Game;
+import com.shannontheoret.machikoro.entity.GameMove;
+import com.shannontheoret.machikoro.entity.Player;
+import com.shannontheoret.machikoro.exception.GameMechanicException;
+import com.shannontheoret.machikoro.exception.InvalidMoveException;
+import com.shannontheoret.machikoro.utilities.RollEffectCalculator;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+//game rules applied to an in-memory game, shared by GameService and the simulation engine
+public class GameActions {
+
+    public static Game createGame(Integer numberOfPlayers) throws GameMechanicException {
+        if (numberOfPlayers < GameRules.MIN_PLAYERS || numberOfPlayers > GameRules.MAX_PLAYERS) {
+            throw new IllegalArgumentException("Number of players must be between " + GameRules.MIN_PLAYERS + " and " + GameRules.MAX_PLAYERS);
+        }
+        Game game = new Game();
+        Set<Player> players = new LinkedHashSet<>();
+        for (int i = 1; i <= numberOfPlayers; i++) {
+            Player player = new Player();
+            player.setNumber(i);
+            player.setName("Player " + i);
+            players.add(player);
+        }
+        game.setPlayers(players);
+        Map<Card, Integer> gameStock = game.getGameStock();
+        for (Card card : Card.values()) {
+            if (card.getCategory() == CardCategory.PURPLE) {
+                gameStock.put(card, numberOfPlayers);
+            } else {
+                gameStock.put(card, GameRules.STARTING_STOCK);
+            }
+        }
+        game.setStep(Step.SETUP);
+        return game;
+    }
+
+    public static void roll(Game game, boolean rollTwo, DieSource dieSource) throws GameMechanicException, InvalidMoveException {
+        if (game.getStep() != Step.ROLL && game.getStep() != Step.CONFIRM_ROLL) {
+            throw new InvalidMoveException("Cannot roll dice at this time.");
+        }
+        Player currentPlayer = game.getCurrentPlayer();
+        if (rollTwo && !currentPlayer.hasTrainStation()) {
+            throw new InvalidMoveException("Player cannot roll two dice because player does not have a train station.");
+        }
+        game.setDie1(dieSource.roll());
+        if (rollTwo) {
+            game.setDie2(dieSource.roll());
+        } else {
+            game.setDie2(0);
+        }
+        game.recordMove(MoveType.ROLL, currentPlayer.getNumber(), game.getDie1(), game.getDie2(), null, null, null);
+        if (currentPlayer.hasRadioTower() && !game.getRolledOnce()) {
+            game.setRolledOnce(true);
+            game.setStep(Step.CONFIRM_ROLL);
+        } else {
+            acceptRoll(game);
+        }
+    }
+
+    public static void confirmRoll(Game game) throws GameMechanicException, InvalidMoveException {
+        if (game.getStep() != Step.CONFIRM_ROLL) {
+            throw new InvalidMoveException("Cannot confirm roll at this time.");
+        }
+        game.recordMove(MoveType.CONFIRM_ROLL, game.getCurrentPlayerNumber(), null, null, null, null, null);
+        acceptRoll(game);
+    }
+
+    public static void steal(Game game, Integer playerNumberToStealFrom) throws GameMechanicException, InvalidMoveException {
+        Player currentPlayer = game.getCurrentPlayer();
+        if (game.getStep() != Step.STEAL || currentPlayer.getStock().getOrDefault(Card.TV_STATION, 0) == 0) {
+            throw new InvalidMoveException("Cannot steal at this time.");
+        }
+        Player playerToStealFrom = game.getPlayerByNumber(playerNumberToStealFrom);
+        Integer amountToSteal = 0;
+        if (playerToStealFrom.getCoins() < Card.TV_STATION.getAmountGained()) {
+            amountToSteal = playerToStealFrom.getCoins();
+        } else {
+            amountToSteal = Card.TV_STATION.getAmountGained();
+        }
+        playerToStealFrom.decreaseCoinCount(amountToSteal);
+        currentPlayer.increaseCoinCount(amountToSteal);
+        game.recordMove(MoveType.STEAL, currentPlayer.getNumber(), null, null, null, null, playerNumberToStealFrom);
+        game.setStep(Step.BUY);
+    }
+
+    public static void purchaseCard(Game game, Card card) throws GameMechanicException, InvalidMoveException {
+        if (game.getStep() != Step.BUY) {
+            throw new InvalidMoveException("Cannot purchase card at this time.");
+        }
+        if (game.getGameStock().get(card) == 0) {
+            throw new InvalidMoveException("Card not in stock.");
+        }
+        Player currentPlayer = game.getCurrentPlayer();
+        if (currentPlayer.getCoins() < card.getCost()) {
+            throw new InvalidMoveException("Player does not have enough coins to purchase card.");
+        }
+        if (card.getCategory() == CardCategory.PURPLE && currentPlayer.getStock().getOrDefault(card, 0) == 1) {
+            throw new InvalidMoveException("Player cannot purchase the same purple card twice.");
+        }
+        currentPlayer.purchaseCard(card);
+        Integer stockQuantity = game.getGameStock().get(card);
+        stockQuantity--;
+        game.getGameStock().put(card, stockQuantity);
+        game.recordMove(MoveType.PURCHASE_CARD, currentPlayer.getNumber(), null, null, card, null, null);
+        endTurn(game);
+    }
+
+    public static void purchaseLandmark(Game game, Landmark landmark) throws GameMechanicException, InvalidMoveException {
+        if (game.getStep() != Step.BUY) {
+            throw new InvalidMoveException("Cannot purchase landmark at this time.");
+        }
+        Player currentPlayer = game.getCurrentPlayer();
+        if (currentPlayer.getCoins() < landmark.getCost()) {
+            throw new InvalidMoveException("Player does not have enough coins to purchase landmark.");
+        }
+        if (currentPlayer.hasLandmark(landmark)) {
+            throw new InvalidMoveException("Player cannot purchase the same landmark twice.");
+        }
+        currentPlayer.purchaseLandmark(landmark);
+        game.recordMove(MoveType.PURCHASE_LANDMARK, currentPlayer.getNumber(), null, null, null, landmark, null);
+        endTurn(game);
+    }
+
+    public static void completeTurn(Game game) throws GameMechanicException, InvalidMoveException {
+        if (game.getStep() != Step.BUY) {
+            throw new InvalidMoveException("Cannot complete turn at this time.");
+        }
+        game.recordMove(MoveType.COMPLETE_TURN, game.getCurrentPlayerNumber(), null, null, null, null, null);
+        endTurn(game);
+    }
+
+    public static void makeNPCMove(Game game, DieSource dieSource, TurnDecisionEngineFactory decisionEngines) throws GameMechanicException, InvalidMoveException {
+        if (!game.getCurrentPlayer().isNpc()) {
+            throw new InvalidMoveException("Current player is not an NPC");
+        }
+        TurnDecisionEngine decisionEngine = decisionEngines.forCurrentPlayer(game);
+        switch (game.getStep()) {
+            case ROLL:
+                roll(game, !decisionEngine.rollSingleDice(), dieSource);
+                break;
+            case CONFIRM_ROLL:
+                if (decisionEngine.reroll()) {
+                    roll(game, !decisionEngine.rollSingleDice(), dieSource);
+                } else {
+                    confirmRoll(game);
+                }
+                break;
+            case STEAL:
+                steal(game, decisionEngine.choosePlayerToStealFrom());
+                break;
+            case BUY:
+                BuyingDecision buyingDecision = decisionEngine.makeBuyingDecision();
+                if (buyingDecision.isBuyingCard()) {
+                    purchaseCard(game, buyingDecision.getCardToPurchase());
+                } else if (buyingDecision.isBuyingLandmark()) {
+                    purchaseLandmark(game, buyingDecision.getLandmarkToPurchase());
+                } else {
+                    completeTurn(game);
+                }
+                break;
+            case SETUP:
+            case WON:
+                throw new InvalidMoveException("Game step is " + game.getStep() + " and does not require an npc decision.");
+            default:
+                throw new IllegalStateException("Unexpected step: " + game.getStep());
+        }
+    }
+
+    //the position every game starts from once its players are set up, before any move is made
+    public static Game startingPosition(Game game) throws GameMechanicException {
+        Game start = createGame(game.getPlayers().size());
+        start.setCode(game.getCode());
+        for (Player player : game.getPlayers()) {
+            Player startPlayer = start.getPlayerByNumber(player.getNumber());
+            startPlayer.setId(player.getId());
+            startPlayer.setName(player.getName());
+            startPlayer.setNpc(player.isNpc());
+            startPlayer.setStrategy(player.getStrategy());
+        }
+        start.setStep(Step.ROLL);
+        start.setCurrentPlayerNumber(1);
+        return start;
+    }
+
+    public static void replay(Game game, List<GameMove> moves) throws GameMechanicException, InvalidMoveException {
+        for (GameMove move : moves) {
+            replayMove(game, move);
+        }
+    }
+
+    //the move must be the next one in the game's sequence and made by its current player
+    public static void replayMove(Game game, GameMove move) throws GameMechanicException, InvalidMoveException {
+        if (move.getSequence() != game.getMoveCount() + 1 || move.getPlayerNumber() != game.getCurrentPlayerNumber()) {
+            throw new GameMechanicException("Move " + move.getSequence() + " does not follow move " + game.getMoveCount() + " of game " + game.getCode() + ".");
+        }
+        switch (move.getType()) {
+            case ROLL:
+                roll(game, move.isRollTwo(), move.recordedDice());
+                break;
+            case CONFIRM_ROLL:
+                confirmRoll(game);
+                break;
+            case STEAL:
+                steal(game, move.getTargetPlayerNumber());
+                break;
+            case PURCHASE_CARD:
+                purchaseCard(game, move.getCard());
+                break;
+            case PURCHASE_LANDMARK:
+                purchaseLandmark(game, move.getLandmark());
+                break;
+            case COMPLETE_TURN:
+                completeTurn(game);
+                break;
+            default:
+                throw new IllegalStateException("Unexpected move type: " + move.getType());
+        }
+    }
+
+    private static void acceptRoll(Game game) throws GameMechanicException {
+        handleRoll(game);
+        if (game.getStep() != Step.STEAL) {
+            game.setStep(Step.BUY);
+        }
+    }
+
+    private static void handleRoll(Game game) throws GameMechanicException {
+        Integer roll = game.getDieTotal();
+        Player currentPlayer = game.getCurrentPlayer();
+
+        Map<Integer, Integer> playerRollEffects = RollEffectCalculator.calculateRedCardEffects(game, roll);
+        applyPlayerEffects(game, playerRollEffects);
+
+        currentPlayer.increaseCoinCount(RollEffectCalculator.calculateGreenAndBlueEffectsForCurrentPlayer(game, roll));
+
+        playerRollEffects = RollEffectCalculator.calculateOtherPlayersBlueEffects(game, roll);
+        applyPlayerEffects(game, playerRollEffects);
+
+        playerRollEffects = RollEffectCalculator.calculateStadiumEffects(game, roll);
+        applyPlayerEffects(game, playerRollEffects);
+
+        if (currentPlayer.getStock().getOrDefault(Card.TV_STATION, 0) != 0 && Card.TV_STATION.rollApplies(roll)) {
+            game.setStep(Step.STEAL);
+        }
+    }
+
+    private static void applyPlayerEffects(Game game, Map<Integer, Integer> playerRollEffects) throws GameMechanicException {
+        for (Map.Entry<Integer, Integer> entry : playerRollEffects.entrySet()) {
+            Player player = game.getPlayerByNumber(entry.getKey());
+            int coinChange = entry.getValue();
+            if (coinChange > 0) {
+                player.increaseCoinCount(coinChange);
+            } else {
+                player.decreaseCoinCount(-coinChange);
+            }
+        }
+    }
+
+    private static void endTurn(Game game) throws GameMechanicException {
+        if (game.getCurrentPlayer().hasWon()) {
+            game.setStep(Step.WON);
+        } else if (game.getCurrentPlayer().hasAmusementPark() && game.isDoubles()) {
+            game.setStep(Step.ROLL);
+        } else {
+            game.incrementCurrentPlayerNumber();
+            game.setStep(Step.ROLL);
+            game.setRolledOnce(false);
+            game.setDie1(0);
+            game.setDie2(0);
+        }
+    }
+}
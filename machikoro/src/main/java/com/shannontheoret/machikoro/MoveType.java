@@ -0,0 +1,10 @@
+package com.shannontheoret.machikoro;
+
+public enum MoveType {
+    ROLL,
+    CONFIRM_ROLL,
+    STEAL,
+    PURCHASE_CARD,
+    PURCHASE_LANDMARK,
+    COMPLETE_TURN;
+}
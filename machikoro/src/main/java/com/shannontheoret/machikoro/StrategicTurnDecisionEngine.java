@@ -3,19 +3,21 @@ package com.shannontheoret.machikoro;
 import com.shannontheoret.machikoro.entity.Game;
 import com.shannontheoret.machikoro.entity.Player;
 import com.shannontheoret.machikoro.exception.GameMechanicException;
+import com.shannontheoret.machikoro.metrics.GameMetrics;
 import com.shannontheoret.machikoro.utilities.PlayerStockUtilities;
 import com.shannontheoret.machikoro.utilities.RollBenefitAnalyzer;
+import com.shannontheoret.machikoro.utilities.RollDistribution;
 import com.shannontheoret.machikoro.utilities.RollEffectCalculator;
 
 import java.util.Comparator;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 
-public class StrategicTurnDecisionEngine {
+public class StrategicTurnDecisionEngine implements TurnDecisionEngine {
     private Strategy strategy;
     private Game game;
-    private Map<Integer, Map<Integer, Integer>> allRollEffects;
+    private RollDistribution rollDistribution;
     private final Double RED_COMPETITION_FACTOR = 0.5;
     private final Double RED_FACTOR = 0.7;
     private final Double PERCENTAGE_ROLL_TWO_FUTURE_WITH_NO_TRAIN_STATION = 0.1;
@@ -30,44 +32,72 @@ public class StrategicTurnDecisionEngine {
     public StrategicTurnDecisionEngine(Map<StrategyName, Integer> strategyDegrees, Game game) throws GameMechanicException {
         this.strategy = new Strategy(strategyDegrees);
         this.game = game;
-        this.allRollEffects = RollEffectCalculator.calculateAllPossibleRollEffects(game);
+        this.rollDistribution = RollDistribution.fromGame(game);
     }
 
+    @Override
     public boolean rollSingleDice() {
+        long start = GameMetrics.start();
+        try {
+            return decideRollSingleDice();
+        } finally {
+            GameMetrics.recordDecision("rollSingleDice", game.getPlayers().size(), start);
+        }
+    }
+
+    @Override
+    public boolean reroll() throws GameMechanicException {
+        long start = GameMetrics.start();
+        try {
+            return decideReroll();
+        } finally {
+            GameMetrics.recordDecision("reroll", game.getPlayers().size(), start);
+        }
+    }
+
+    @Override
+    public Integer choosePlayerToStealFrom() throws GameMechanicException {
+        long start = GameMetrics.start();
+        try {
+            return decidePlayerToStealFrom();
+        } finally {
+            GameMetrics.recordDecision("choosePlayerToStealFrom", game.getPlayers().size(), start);
+        }
+    }
+
+    @Override
+    public BuyingDecision makeBuyingDecision() throws GameMechanicException {
+        long start = GameMetrics.start();
+        try {
+            return decideBuying();
+        } finally {
+            GameMetrics.recordDecision("makeBuyingDecision", game.getPlayers().size(), start);
+        }
+    }
+
+    private boolean decideRollSingleDice() {
         if (!game.getCurrentPlayer().hasTrainStation()) {
             return true;
         }
         return worthRollingSingleDice();
     }
 
-    public boolean reroll() throws GameMechanicException {
-        Map<Integer, Integer> rollEffects = allRollEffects.get(game.getDieTotal());
+    private boolean decideReroll() throws GameMechanicException {
         if (isBenefitialDoublesRollWithAmusementPark()) {
             return false;
         }
-        Integer currentBenefit = rollEffects.getOrDefault(game.getCurrentPlayerNumber(), 0);
-        Integer otherPlayerBenefit = 0;
-        for (Map.Entry<Integer, Integer> playerEffect : rollEffects.entrySet()) {
-            if (playerEffect.getKey() != game.getCurrentPlayerNumber()) {
-                otherPlayerBenefit += playerEffect.getValue();
-            }
-        }
-        Double averageBenefit;
-        Integer bestCaseBenefit;
-        if (game.didRollTwoDice()) { //player will make the same decision on number of dice rolled upon reroll
-            averageBenefit = RollBenefitAnalyzer.calculateAverageGainForTwoDiceRolled(allRollEffects, game.getCurrentPlayerNumber());
-            bestCaseBenefit = RollBenefitAnalyzer.calculateBestCaseScenarioForTwoDiceRolled(allRollEffects, game.getCurrentPlayerNumber());
-        } else {
-            averageBenefit = RollBenefitAnalyzer.calculateAverageGainForOneDieRolled(allRollEffects, game.getCurrentPlayerNumber());
-            bestCaseBenefit = RollBenefitAnalyzer.calculateBestCaseScenarioForOneDieRolled(allRollEffects, game.getCurrentPlayerNumber());
-        }
+        Integer currentBenefit = rollDistribution.getRollEffect(game.getDieTotal(), game.getCurrentPlayerNumber());
+        Integer otherPlayerBenefit = rollDistribution.getOtherPlayersRollEffect(game.getDieTotal(), game.getCurrentPlayerNumber());
+        boolean twoDice = game.didRollTwoDice(); //player will make the same decision on number of dice rolled upon reroll
+        Double averageBenefit = rollDistribution.getExpectedGain(twoDice, game.getCurrentPlayerNumber());
+        Integer bestCaseBenefit = rollDistribution.getBestCase(twoDice, game.getCurrentPlayerNumber());
         return strategy.reroll(currentBenefit, otherPlayerBenefit, bestCaseBenefit, averageBenefit);
     }
 
-    public Integer choosePlayerToStealFrom() throws GameMechanicException {
+    private Integer decidePlayerToStealFrom() throws GameMechanicException {
         Integer otherPlayerNumberWithMostMoney = game.getNextPlayer(game.getCurrentPlayerNumber()).getNumber();
         Integer mostMoneyAmount = 0;
-        Set<Player> playersWithAllCoins = new HashSet<>();
+        Set<Player> playersWithAllCoins = new LinkedHashSet<>();
         for (Player player : game.getPlayers()) {
             if (player.getNumber() != game.getCurrentPlayerNumber()) {
                 if (player.getCoins() > mostMoneyAmount) {
@@ -89,8 +119,8 @@ public class StrategicTurnDecisionEngine {
         }
     }
 
-    public BuyingDecision makeBuyingDecision() throws GameMechanicException {
-        Set<BuyingDecision> allBuyingDecisions = new HashSet<>();
+    private BuyingDecision decideBuying() throws GameMechanicException {
+        Set<BuyingDecision> allBuyingDecisions = new LinkedHashSet<>();
         for (Card card : Card.values()) {
             if (considerPurchase(card)) {
                 allBuyingDecisions.add(evaluateCard(card));
@@ -112,18 +142,21 @@ public class StrategicTurnDecisionEngine {
             return BuyingDecision.endTurn();
         }
         if (allBuyingDecisions.size() == 1) {
-            return allBuyingDecisions.iterator().next();
+            BuyingDecision onlyDecision = allBuyingDecisions.iterator().next();
+            if (onlyDecision.getCost() <= game.getCurrentPlayer().getCoins()) { //a saver may only be considering a purchase they cannot afford yet
+                return onlyDecision;
+            }
         }
         return strategy.makeBuyingDecisions(allBuyingDecisions, game.getCurrentPlayer().getCoins());
     }
 
     private BuyingDecision evaluateTrainStation() {
         BuyingDecision buyingDecision = new BuyingDecision(Landmark.TRAIN_STATION);
-        Double averageGainOneDie = RollBenefitAnalyzer.calculateAverageGainForOneDieRolled(allRollEffects, game.getCurrentPlayerNumber());
-        Double averageGainTwoDice = RollBenefitAnalyzer.calculateAverageGainForTwoDiceRolled(allRollEffects, game.getCurrentPlayerNumber());
-        Integer bestCoinTwoDice = RollBenefitAnalyzer.calculateBestCaseScenarioForTwoDiceRolled(allRollEffects, game.getCurrentPlayerNumber());
-        Double otherAverageGainOneDie = RollBenefitAnalyzer.calculateAverageGainForOtherPlayersForOneDieRolled(allRollEffects, game.getCurrentPlayerNumber());
-        Double otherAverageGainTwoDie = RollBenefitAnalyzer.calculateAverageGainForOtherPlayersForTwoDiceRolled(allRollEffects, game.getCurrentPlayerNumber());
+        Double averageGainOneDie = rollDistribution.getExpectedGain(false, game.getCurrentPlayerNumber());
+        Double averageGainTwoDice = rollDistribution.getExpectedGain(true, game.getCurrentPlayerNumber());
+        Integer bestCoinTwoDice = rollDistribution.getBestCase(true, game.getCurrentPlayerNumber());
+        Double otherAverageGainOneDie = rollDistribution.getOtherPlayersExpectedGain(false, game.getCurrentPlayerNumber());
+        Double otherAverageGainTwoDie = rollDistribution.getOtherPlayersExpectedGain(true, game.getCurrentPlayerNumber());
         if (!strategy.rollSingle(averageGainOneDie, averageGainTwoDice, bestCoinTwoDice, otherAverageGainOneDie, otherAverageGainTwoDie)) {
             buyingDecision.setAverageBenefitPerRound(averageGainTwoDice - averageGainOneDie);
             buyingDecision.getStrategicValue().put(StrategyName.ATTACK_FOCUSED, otherAverageGainOneDie - otherAverageGainTwoDie);
@@ -164,7 +197,7 @@ public class StrategicTurnDecisionEngine {
     private BuyingDecision evaluateAmusementPark() throws GameMechanicException {
         BuyingDecision buyingDecision = new BuyingDecision(Landmark.AMUSEMENT_PARK);
         if (game.getCurrentPlayer().hasTrainStation()) {
-            Double averageGainTwoDice = RollBenefitAnalyzer.calculateAverageGainForTwoDiceRolled(allRollEffects, game.getCurrentPlayerNumber());
+            Double averageGainTwoDice = rollDistribution.getExpectedGain(true, game.getCurrentPlayerNumber());
             buyingDecision.setAverageBenefitPerRound(averageGainTwoDice * RollBenefitAnalyzer.DOUBLES_PROBABILITY);
         } else {
             buyingDecision.setAverageBenefitPerRound(0.0);
@@ -174,8 +207,8 @@ public class StrategicTurnDecisionEngine {
 
     private BuyingDecision evaluateRadioTower() throws GameMechanicException {
         BuyingDecision buyingDecision = new BuyingDecision(Landmark.RADIO_TOWER);
-        Integer bestCoins = RollBenefitAnalyzer.calculateBestCaseScenarioForTwoDiceRolled(allRollEffects, game.getCurrentPlayerNumber());
-        Double bestCoinsProbability = RollBenefitAnalyzer.calculateBestCaseScenarioProbabilityForTwoDiceRolled(allRollEffects, game.getCurrentPlayerNumber());
+        Integer bestCoins = rollDistribution.getBestCase(true, game.getCurrentPlayerNumber());
+        Double bestCoinsProbability = rollDistribution.getBestCaseProbability(true, game.getCurrentPlayerNumber());
         buyingDecision.setAverageBenefitPerRound(bestCoins * bestCoinsProbability * 2);
         buyingDecision.getStrategicValue().put(StrategyName.CHEESE_FOCUSED, GREEN_STRATEGY_RADIO_FACTOR);
         buyingDecision.getStrategicValue().put(StrategyName.FRUIT_AND_VEG_FOCUSED, GREEN_STRATEGY_RADIO_FACTOR);
@@ -295,17 +328,16 @@ public class StrategicTurnDecisionEngine {
     }
 
     private boolean worthRollingSingleDice() {
-        Double averageGainOneDie = RollBenefitAnalyzer.calculateAverageGainForOneDieRolled(allRollEffects, game.getCurrentPlayerNumber());
-        Double averageGainTwoDice = RollBenefitAnalyzer.calculateAverageGainForTwoDiceRolled(allRollEffects, game.getCurrentPlayerNumber());
-        Integer bestCoinTwoDice = RollBenefitAnalyzer.calculateBestCaseScenarioForTwoDiceRolled(allRollEffects, game.getCurrentPlayerNumber());
-        Double otherAverageGainOneDie = RollBenefitAnalyzer.calculateAverageGainForOneDieRolled(allRollEffects, game.getCurrentPlayerNumber());
-        Double otherAverageGainTwoDie = RollBenefitAnalyzer.calculateAverageGainForTwoDiceRolled(allRollEffects, game.getCurrentPlayerNumber());
+        Double averageGainOneDie = rollDistribution.getExpectedGain(false, game.getCurrentPlayerNumber());
+        Double averageGainTwoDice = rollDistribution.getExpectedGain(true, game.getCurrentPlayerNumber());
+        Integer bestCoinTwoDice = rollDistribution.getBestCase(true, game.getCurrentPlayerNumber());
+        Double otherAverageGainOneDie = rollDistribution.getExpectedGain(false, game.getCurrentPlayerNumber());
+        Double otherAverageGainTwoDie = rollDistribution.getExpectedGain(true, game.getCurrentPlayerNumber());
         return strategy.rollSingle(averageGainOneDie,averageGainTwoDice,bestCoinTwoDice,otherAverageGainOneDie, otherAverageGainTwoDie);
     }
 
     private boolean isBenefitialDoublesRollWithAmusementPark() throws GameMechanicException {
-        Map<Integer, Integer> rollBenefits = allRollEffects.get(game.getDieTotal());
-        if (game.isDoubles() && game.getCurrentPlayer().hasAmusementPark() && ((game.getCurrentPlayer().getCoins() > 0) || rollBenefits.getOrDefault(game.getCurrentPlayerNumber(), 0) > 0)) {
+        if (game.isDoubles() && game.getCurrentPlayer().hasAmusementPark() && ((game.getCurrentPlayer().getCoins() > 0) || rollDistribution.getRollEffect(game.getDieTotal(), game.getCurrentPlayerNumber()) > 0)) {
             return true;
         } else {
             return false;
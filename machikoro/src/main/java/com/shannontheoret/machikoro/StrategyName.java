@@ -6,5 +6,7 @@ public enum StrategyName {
     ATTACK_FOCUSED, //prioritizes hurting other players
     FRUIT_AND_VEG_FOCUSED, //boolean, long term goal of gaining a big windfall from fruit and vegetable market
     CHEESE_FOCUSED, //boolean, long term goal of gaining a big windfall from cheese factory
-    FACTORY_FOCUSED //boolean, long term goal of gaining a big windfall from furniture factory
+    FACTORY_FOCUSED, //boolean, long term goal of gaining a big windfall from furniture factory
+    MONTE_CARLO, //boolean, choose purchases by simulating the rest of the game instead of by heuristics
+    EXPECTIMAX //boolean, choose the number of dice and rerolls by searching the rolls and purchases ahead instead of by heuristics
 }
\ No newline at end of file
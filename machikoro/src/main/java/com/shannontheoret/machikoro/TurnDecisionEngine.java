@@ -0,0 +1,13 @@
+package com.shannontheoret.machikoro;
+
+import com.shannontheoret.machikoro.exception.GameMechanicException;
+
+public interface TurnDecisionEngine {
+    boolean rollSingleDice() throws GameMechanicException;
+
+    boolean reroll() throws GameMechanicException;
+
+    Integer choosePlayerToStealFrom() throws GameMechanicException;
+
+    BuyingDecision makeBuyingDecision() throws GameMechanicException;
+}
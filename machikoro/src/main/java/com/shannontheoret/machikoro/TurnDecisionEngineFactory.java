@@ -0,0 +1,44 @@
+package com.shannontheoret.machikoro;
+
+import com.shannontheoret.machikoro.entity.Game;
+import com.shannontheoret.machikoro.exception.GameMechanicException;
+import com.shannontheoret.machikoro.expectimax.ExpectimaxSettings;
+import com.shannontheoret.machikoro.expectimax.ExpectimaxTurnDecisionEngine;
+import com.shannontheoret.machikoro.montecarlo.MonteCarloSettings;
+import com.shannontheoret.machikoro.montecarlo.MonteCarloTurnDecisionEngine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+//builds the engine for the player to move, with the settings of the application context it belongs to
+@Component
+public class TurnDecisionEngineFactory {
+    private final DecisionCache decisionCache;
+    private final MonteCarloSettings monteCarloSettings;
+    private final ExpectimaxSettings expectimaxSettings;
+
+    @Autowired
+    public TurnDecisionEngineFactory(DecisionCache decisionCache, MonteCarloSettings monteCarloSettings, ExpectimaxSettings expectimaxSettings) {
+        this.decisionCache = decisionCache;
+        this.monteCarloSettings = monteCarloSettings;
+        this.expectimaxSettings = expectimaxSettings;
+    }
+
+    //for simulations and tests running outside spring; the games played through one factory share its cache
+    public static TurnDecisionEngineFactory standalone() {
+        return new TurnDecisionEngineFactory(new DecisionCache(DecisionCache.DEFAULT_MAX_ENTRIES), MonteCarloSettings.DEFAULT, ExpectimaxSettings.DEFAULT);
+    }
+
+    //the engine is chosen through the current player's strategy settings
+    public TurnDecisionEngine forCurrentPlayer(Game game) throws GameMechanicException {
+        Map<StrategyName, Integer> strategy = game.getCurrentPlayer().getStrategy();
+        if (strategy != null && strategy.getOrDefault(StrategyName.MONTE_CARLO, 0) > 0) {
+            return new MonteCarloTurnDecisionEngine(strategy, game, monteCarloSettings);
+        }
+        if (strategy != null && strategy.getOrDefault(StrategyName.EXPECTIMAX, 0) > 0) {
+            return new ExpectimaxTurnDecisionEngine(strategy, game, expectimaxSettings);
+        }
+        return new CachingTurnDecisionEngine(strategy, game, decisionCache);
+    }
+}
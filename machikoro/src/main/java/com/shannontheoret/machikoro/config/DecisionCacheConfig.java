@@ -0,0 +1,19 @@
+package com.shannontheoret.machikoro.config;
+
+import com.shannontheoret.machikoro.DecisionCache;
+import com.shannontheoret.machikoro.metrics.GameMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class DecisionCacheConfig {
+
+    //about 400 bytes per entry, so the default holds the cache near 20MB
+    @Bean
+    public DecisionCache decisionCache(@Value("${machikoro.npc.decision-cache.max-entries:50000}") int maxEntries) {
+        DecisionCache decisionCache = new DecisionCache(maxEntries);
+        GameMetrics.registerDecisionCache(decisionCache);
+        return decisionCache;
+    }
+}
@@ -0,0 +1,16 @@
+package com.shannontheoret.machikoro.config;
+
+import com.shannontheoret.machikoro.expectimax.ExpectimaxSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ExpectimaxConfig {
+
+    @Bean
+    public ExpectimaxSettings expectimaxSettings(@Value("${machikoro.npc.expectimax.max-depth:4}") int maxDepth,
+                                                 @Value("${machikoro.npc.expectimax.time-budget-ms:50}") long timeBudgetMillis) {
+        return new ExpectimaxSettings(maxDepth, timeBudgetMillis);
+    }
+}
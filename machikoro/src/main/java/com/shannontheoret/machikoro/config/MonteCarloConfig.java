@@ -0,0 +1,17 @@
+package com.shannontheoret.machikoro.config;
+
+import com.shannontheoret.machikoro.montecarlo.MonteCarloSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MonteCarloConfig {
+
+    @Bean
+    public MonteCarloSettings monteCarloSettings(@Value("${machikoro.npc.monte-carlo.rollouts:2000}") int rolloutBudget,
+                                                 @Value("${machikoro.npc.monte-carlo.time-budget-ms:150}") long timeBudgetMillis,
+                                                 @Value("${machikoro.npc.monte-carlo.max-rollout-turns:200}") int maxRolloutTurns) {
+        return new MonteCarloSettings(rolloutBudget, timeBudgetMillis, maxRolloutTurns);
+    }
+}
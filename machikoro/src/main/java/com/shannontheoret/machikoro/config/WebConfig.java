@@ -0,0 +1,18 @@
+package com.shannontheoret.machikoro.config;
+
+import com.shannontheoret.machikoro.controller.GameBinaryMessageConverter;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    //added after the defaults, so a request accepting anything still gets json
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new GameBinaryMessageConverter());
+    }
+}
@@ -0,0 +1,46 @@
+package com.shannontheoret.machikoro.controller;
+
+import com.shannontheoret.machikoro.entity.Game;
+import com.shannontheoret.machikoro.state.GameCodec;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+
+//writes games with the binary codec for clients that ask for it in their Accept header; json stays the default
+public class GameBinaryMessageConverter extends AbstractHttpMessageConverter<Game> {
+    public static final String MEDIA_TYPE_VALUE = "application/x-machikoro-game";
+    public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(MEDIA_TYPE_VALUE);
+
+    public GameBinaryMessageConverter() {
+        super(MEDIA_TYPE);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return Game.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected Game readInternal(Class<? extends Game> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Games are not accepted in the binary format", inputMessage);
+    }
+
+    @Override
+    protected Long getContentLength(Game game, MediaType contentType) {
+        return null;
+    }
+
+    @Override
+    protected void writeInternal(Game game, HttpOutputMessage outputMessage) throws IOException {
+        outputMessage.getBody().write(GameCodec.encode(game));
+    }
+}
@@ -2,15 +2,20 @@ package com.shannontheoret.machikoro.controller;
 
 import com.shannontheoret.machikoro.Card;
 import com.shannontheoret.machikoro.Landmark;
+import com.shannontheoret.machikoro.dto.GameDeltaDTO;
 import com.shannontheoret.machikoro.dto.PlayerDTO;
 import com.shannontheoret.machikoro.entity.Game;
+import com.shannontheoret.machikoro.event.GameEventBroadcaster;
 import com.shannontheoret.machikoro.exception.GameException;
 import com.shannontheoret.machikoro.service.GameService;
+import com.shannontheoret.machikoro.service.NpcAutoPlayer;
 import com.shannontheoret.machikoro.utilities.ResponseUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -22,16 +27,20 @@ import java.util.List;
 @RestController
 public class GameController {
     private GameService gameService;
+    private GameEventBroadcaster gameEventBroadcaster;
+    private NpcAutoPlayer npcAutoPlayer;
 
     @Autowired
-    public GameController(GameService gameService) {
+    public GameController(GameService gameService, GameEventBroadcaster gameEventBroadcaster, NpcAutoPlayer npcAutoPlayer) {
         this.gameService = gameService;
+        this.gameEventBroadcaster = gameEventBroadcaster;
+        this.npcAutoPlayer = npcAutoPlayer;
     }
 
     @GetMapping
-    public ResponseEntity<Object> getGame(@RequestParam String gameCode) {
+    public ResponseEntity<Object> getGame(@RequestParam String gameCode, @RequestParam(required = false) Integer knownMoveCount) {
         try {
-            return ResponseEntity.ok(gameService.findByCode(gameCode));
+            return ResponseEntity.ok(changesSince(gameService.snapshot(gameCode), knownMoveCount));
         } catch (GameException e) {
             return ResponseUtil.errorResponse(e.getMessage(), HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
@@ -39,10 +48,22 @@ public class GameController {
         }
     }
 
+    //sends the full game once, then a delta after every committed change
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamGame(@RequestParam String gameCode) {
+        try {
+            return ResponseEntity.ok(gameService.subscribe(gameCode, gameEventBroadcaster::subscribe));
+        } catch (GameException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     @PostMapping("/newGame")
     public ResponseEntity<Object> newGame(@RequestBody List<PlayerDTO> players) {
         try {
-            return ResponseEntity.ok(gameService.beginGame(players));
+            return ResponseEntity.ok(playNpcTurns(gameService.beginGame(players)));
         } catch (GameException e) {
             return ResponseUtil.errorResponse(e.getMessage(), HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
@@ -51,9 +72,9 @@ public class GameController {
     }
 
     @PostMapping("/roll")
-    public ResponseEntity<Object> roll(@RequestParam String gameCode) {
+    public ResponseEntity<Object> roll(@RequestParam String gameCode, @RequestParam(required = false) Integer knownMoveCount) {
         try {
-            return ResponseEntity.ok(gameService.roll(gameCode, false));
+            return ResponseEntity.ok(changesSince(playNpcTurns(gameService.withGameLock(gameCode, () -> gameService.roll(gameCode, false))), knownMoveCount));
         } catch (GameException e) {
             return ResponseUtil.errorResponse(e.getMessage(), HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
@@ -62,9 +83,9 @@ public class GameController {
     }
 
     @PostMapping("/rollTwoDice")
-    public ResponseEntity<Object> rollTwoDice(@RequestParam String gameCode) {
+    public ResponseEntity<Object> rollTwoDice(@RequestParam String gameCode, @RequestParam(required = false) Integer knownMoveCount) {
         try {
-            return ResponseEntity.ok(gameService.roll(gameCode, true));
+            return ResponseEntity.ok(changesSince(playNpcTurns(gameService.withGameLock(gameCode, () -> gameService.roll(gameCode, true))), knownMoveCount));
         } catch (GameException e) {
             return ResponseUtil.errorResponse(e.getMessage(), HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
@@ -73,9 +94,9 @@ public class GameController {
     }
 
     @PostMapping("/confirmRoll")
-    public ResponseEntity<Object> confirmRoll(@RequestParam String gameCode) {
+    public ResponseEntity<Object> confirmRoll(@RequestParam String gameCode, @RequestParam(required = false) Integer knownMoveCount) {
         try {
-            return ResponseEntity.ok(gameService.confirmRoll(gameCode));
+            return ResponseEntity.ok(changesSince(playNpcTurns(gameService.withGameLock(gameCode, () -> gameService.confirmRoll(gameCode))), knownMoveCount));
         } catch (GameException e) {
             return ResponseUtil.errorResponse(e.getMessage(), HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
@@ -84,9 +105,9 @@ public class GameController {
     }
 
     @PostMapping("/steal")
-    public ResponseEntity<Object> steal(@RequestParam String gameCode, @RequestParam Integer playerNumber) {
+    public ResponseEntity<Object> steal(@RequestParam String gameCode, @RequestParam Integer playerNumber, @RequestParam(required = false) Integer knownMoveCount) {
         try {
-            return ResponseEntity.ok(gameService.steal(gameCode, playerNumber));
+            return ResponseEntity.ok(changesSince(playNpcTurns(gameService.withGameLock(gameCode, () -> gameService.steal(gameCode, playerNumber))), knownMoveCount));
         } catch (GameException e) {
             return ResponseUtil.errorResponse(e.getMessage(), HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
@@ -95,9 +116,9 @@ public class GameController {
     }
 
     @PostMapping("/purchaseCard")
-    public ResponseEntity<Object> purchaseCard(@RequestParam String gameCode, @RequestParam Card card) {
+    public ResponseEntity<Object> purchaseCard(@RequestParam String gameCode, @RequestParam Card card, @RequestParam(required = false) Integer knownMoveCount) {
         try {
-            return ResponseEntity.ok(gameService.purchaseCard(gameCode, card));
+            return ResponseEntity.ok(changesSince(playNpcTurns(gameService.withGameLock(gameCode, () -> gameService.purchaseCard(gameCode, card))), knownMoveCount));
         } catch (GameException e) {
             return ResponseUtil.errorResponse(e.getMessage(), HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
@@ -106,9 +127,9 @@ public class GameController {
     }
 
     @PostMapping("/purchaseLandmark")
-    public ResponseEntity<Object> purchaseLandmark(@RequestParam String gameCode, @RequestParam Landmark landmark) {
+    public ResponseEntity<Object> purchaseLandmark(@RequestParam String gameCode, @RequestParam Landmark landmark, @RequestParam(required = false) Integer knownMoveCount) {
         try {
-            return ResponseEntity.ok(gameService.purchaseLandmark(gameCode, landmark));
+            return ResponseEntity.ok(changesSince(playNpcTurns(gameService.withGameLock(gameCode, () -> gameService.purchaseLandmark(gameCode, landmark))), knownMoveCount));
         } catch (GameException e) {
             return ResponseUtil.errorResponse(e.getMessage(), HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
@@ -117,9 +138,9 @@ public class GameController {
     }
 
     @PostMapping("/completeTurn")
-    public ResponseEntity<Object> completeTurn(@RequestParam String gameCode) {
+    public ResponseEntity<Object> completeTurn(@RequestParam String gameCode, @RequestParam(required = false) Integer knownMoveCount) {
         try {
-            return ResponseEntity.ok(gameService.completeTurn(gameCode));
+            return ResponseEntity.ok(changesSince(playNpcTurns(gameService.withGameLock(gameCode, () -> gameService.completeTurn(gameCode))), knownMoveCount));
         } catch (GameException e) {
             return ResponseUtil.errorResponse(e.getMessage(), HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
@@ -128,9 +149,21 @@ public class GameController {
     }
 
     @PostMapping("/makeNPCMove")
-    public ResponseEntity<Object> makeNPCMove(@RequestParam String gameCode) {
+    public ResponseEntity<Object> makeNPCMove(@RequestParam String gameCode, @RequestParam(required = false) Integer knownMoveCount) {
+        try {
+            return ResponseEntity.ok(changesSince(playNpcTurns(gameService.withGameLock(gameCode, () -> gameService.makeNPCMove(gameCode))), knownMoveCount));
+        } catch (GameException e) {
+            return ResponseUtil.errorResponse(e.getMessage(), HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            return ResponseUtil.errorResponse(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    //plays the NPC turns of many games at once, e.g. bot-only lobbies; returns each game or its error, in request order
+    @PostMapping("/makeNPCMoves")
+    public ResponseEntity<Object> makeNPCMoves(@RequestBody List<String> gameCodes) {
         try {
-            return ResponseEntity.ok(gameService.makeNPCMove(gameCode));
+            return ResponseEntity.ok(npcAutoPlayer.playAll(gameCodes));
         } catch (GameException e) {
             return ResponseUtil.errorResponse(e.getMessage(), HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
@@ -138,4 +171,18 @@ public class GameController {
         }
     }
 
+    //a client that sends the move count of the game it holds gets only what changed since, while that state is still remembered
+    private Object changesSince(Game game, Integer knownMoveCount) {
+        if (knownMoveCount == null) {
+            return game;
+        }
+        GameDeltaDTO delta = gameService.deltaSince(game, knownMoveCount);
+        return delta == null ? game : delta;
+    }
+
+    //the response shows the move just made, the NPC steps after it arrive over the stream
+    private Game playNpcTurns(Game game) {
+        npcAutoPlayer.schedule(game);
+        return game;
+    }
 }
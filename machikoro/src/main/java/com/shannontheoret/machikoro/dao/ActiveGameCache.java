@@ -0,0 +1,132 @@
+package com.shannontheoret.machikoro.dao;
+
+import com.shannontheoret.machikoro.entity.Game;
+import com.shannontheoret.machikoro.metrics.GameMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+//bounded, access ordered set of active games; GameDao decides when they are written and evicted
+@Component
+public class ActiveGameCache {
+    private final int maxGames;
+    private final long timeToLiveMillis;
+    private final LongSupplier clock;
+    private final LinkedHashMap<String, CachedGame> games = new LinkedHashMap<>(16, 0.75f, true);
+
+    @Autowired
+    public ActiveGameCache(@Value("${machikoro.cache.max-games:1000}") int maxGames,
+                           @Value("${machikoro.cache.ttl-ms:1800000}") long timeToLiveMillis) {
+        this(maxGames, timeToLiveMillis, System::currentTimeMillis);
+        GameMetrics.registerActiveGames(this);
+    }
+
+    ActiveGameCache(int maxGames, long timeToLiveMillis, LongSupplier clock) {
+        this.maxGames = maxGames;
+        this.timeToLiveMillis = timeToLiveMillis;
+        this.clock = clock;
+    }
+
+    public synchronized CachedGame get(String code) {
+        CachedGame cachedGame = games.get(code);
+        if (cachedGame != null) {
+            cachedGame.touch(clock.getAsLong());
+        }
+        return cachedGame;
+    }
+
+    public CachedGame putIfAbsent(Game game, boolean persisted) {
+        return putIfAbsent(game, persisted, game.getMoveCount());
+    }
+
+    //returns the entry already cached for the game's code if another thread got there first
+    public synchronized CachedGame putIfAbsent(Game game, boolean persisted, int snapshotMoveCount) {
+        CachedGame cachedGame = games.get(game.getCode());
+        if (cachedGame == null) {
+            cachedGame = new CachedGame(game, clock.getAsLong(), persisted, snapshotMoveCount);
+            games.put(game.getCode(), cachedGame);
+        } else {
+            cachedGame.touch(clock.getAsLong());
+        }
+        return cachedGame;
+    }
+
+    //a game that has never been written is locked before any other thread can see it, so nothing else writes it first
+    public CachedGame putNewLocked(Game game) {
+        CachedGame cachedGame = new CachedGame(game, clock.getAsLong(), false, game.getMoveCount());
+        cachedGame.getLock().lock();
+        synchronized (this) {
+            if (games.putIfAbsent(game.getCode(), cachedGame) != null) {
+                cachedGame.getLock().unlock();
+                throw new IllegalStateException("Game " + game.getCode() + " is already cached.");
+            }
+        }
+        return cachedGame;
+    }
+
+    //a game whose last flush has not committed yet is left for the next sweep
+    public synchronized List<CachedGame> getDirtyGames() {
+        List<CachedGame> dirtyGames = new ArrayList<>();
+        for (CachedGame cachedGame : games.values()) {
+            if (cachedGame.needsFlush()) {
+                dirtyGames.add(cachedGame);
+            }
+        }
+        return dirtyGames;
+    }
+
+    //least recently used games beyond the size limit, then any idle past the time to live
+    public synchronized List<CachedGame> getEvictionCandidates() {
+        List<CachedGame> candidates = new ArrayList<>();
+        long expiredBefore = clock.getAsLong() - timeToLiveMillis;
+        int overflow = games.size() - maxGames;
+        Iterator<CachedGame> leastRecentlyUsed = games.values().iterator();
+        while (leastRecentlyUsed.hasNext()) {
+            CachedGame cachedGame = leastRecentlyUsed.next();
+            if (overflow > 0) {
+                candidates.add(cachedGame);
+                overflow--;
+            } else if (cachedGame.getLastAccessMillis() < expiredBefore) {
+                candidates.add(cachedGame);
+            }
+        }
+        return candidates;
+    }
+
+    //only clean games nobody is using are evicted; the caller retries the rest on the next sweep
+    public boolean evict(CachedGame cachedGame) {
+        if (!cachedGame.getLock().tryLock()) {
+            return false;
+        }
+        try {
+            if (cachedGame.isDirty()) {
+                return false;
+            }
+            synchronized (this) {
+                games.remove(cachedGame.getGame().getCode(), cachedGame);
+            }
+            cachedGame.setEvicted();
+            return true;
+        } finally {
+            cachedGame.getLock().unlock();
+        }
+    }
+
+    //drops a copy another writer has overtaken, dirty or not; the caller must hold the game's lock
+    public void discard(CachedGame cachedGame) {
+        synchronized (this) {
+            games.remove(cachedGame.getGame().getCode(), cachedGame);
+        }
+        cachedGame.setEvicted();
+    }
+
+    public synchronized int size() {
+        return games.size();
+    }
+}
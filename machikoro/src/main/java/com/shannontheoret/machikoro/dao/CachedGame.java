@@ -0,0 +1,158 @@
+package com.shannontheoret.machikoro.dao;
+
+import com.shannontheoret.machikoro.entity.Game;
+import com.shannontheoret.machikoro.entity.GameMove;
+import com.shannontheoret.machikoro.state.GameState;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+
+//an active game held in memory; the lock serializes every mutation of the game
+public class CachedGame {
+    static final int RECENT_STATES = 64; //a few rounds of NPC steps in a four player game
+    private final Game game;
+    private final ReentrantLock lock = new ReentrantLock();
+    private long lastAccessMillis;
+    private long modifications;
+    private long flushedModifications;
+    private Integer flushedPlayerNumber; //current player when last written, null if never written
+    private long snapshotRequiredAt; //modification that changed more than moves can describe
+    private int snapshotMoveCount; //moves already contained in the game row
+    private final List<GameMove> pendingMoves = new ArrayList<>();
+    private int openFlushes; //flushes written whose transaction has not completed yet
+    private boolean evicted;
+    private final Deque<RecentState> recentStates = new ArrayDeque<>();
+    private int recentStatesAfter = -1; //move count of the last change made without moves; states up to it are ambiguous
+
+    CachedGame(Game game, long now, boolean persisted, int snapshotMoveCount) {
+        this.game = game;
+        this.lastAccessMillis = now;
+        this.flushedPlayerNumber = persisted ? game.getCurrentPlayerNumber() : null;
+        this.snapshotMoveCount = snapshotMoveCount;
+    }
+
+    public Game getGame() {
+        return game;
+    }
+
+    public ReentrantLock getLock() {
+        return lock;
+    }
+
+    synchronized void touch(long now) {
+        lastAccessMillis = now;
+    }
+
+    synchronized long getLastAccessMillis() {
+        return lastAccessMillis;
+    }
+
+    //a save without moves (setup, or a change the log cannot express) needs the whole row rewritten
+    synchronized void markModified(List<GameMove> moves) {
+        modifications++;
+        if (moves.isEmpty()) {
+            snapshotRequiredAt = modifications;
+            recentStates.clear();
+            recentStatesAfter = game.getMoveCount();
+        } else {
+            pendingMoves.addAll(moves);
+        }
+    }
+
+    //the states clients were last shown, keyed by move count so a client can ask for what changed since its copy
+    synchronized void recordState(int moveCount, GameState state) {
+        if (moveCount <= recentStatesAfter) {
+            return;
+        }
+        if (!recentStates.isEmpty() && recentStates.peekLast().moveCount() == moveCount) {
+            recentStates.pollLast();
+        }
+        recentStates.addLast(new RecentState(moveCount, state));
+        if (recentStates.size() > RECENT_STATES) {
+            recentStates.pollFirst();
+        }
+    }
+
+    synchronized GameState getRecentState(int moveCount) {
+        Iterator<RecentState> newestFirst = recentStates.descendingIterator();
+        while (newestFirst.hasNext()) {
+            RecentState recentState = newestFirst.next();
+            if (recentState.moveCount() == moveCount) {
+                return recentState.state();
+            }
+        }
+        return null;
+    }
+
+    synchronized boolean isSnapshotRequired() {
+        return snapshotRequiredAt > flushedModifications;
+    }
+
+    synchronized int getSnapshotMoveCount() {
+        return snapshotMoveCount;
+    }
+
+    synchronized List<GameMove> getPendingMoves() {
+        return new ArrayList<>(pendingMoves);
+    }
+
+    public synchronized boolean isDirty() {
+        return modifications != flushedModifications;
+    }
+
+    synchronized long getModifications() {
+        return modifications;
+    }
+
+    //only clears changes made up to the flushed modification, so a save racing a flush stays dirty
+    synchronized void markFlushed(long flushed, Integer playerNumber, int flushedMoves, Integer flushedSnapshotMoveCount) {
+        flushedModifications = Math.max(flushedModifications, flushed);
+        flushedPlayerNumber = playerNumber;
+        pendingMoves.subList(0, flushedMoves).clear();
+        if (flushedSnapshotMoveCount != null) {
+            snapshotMoveCount = flushedSnapshotMoveCount;
+        }
+    }
+
+    synchronized void startFlush() {
+        openFlushes++;
+    }
+
+    //called once the flush's transaction has committed or rolled back
+    synchronized void endFlush() {
+        openFlushes--;
+    }
+
+    synchronized boolean isFlushing() {
+        return openFlushes > 0;
+    }
+
+    //dirty and not already being written by a transaction that is still open, which a second writer would conflict with
+    public synchronized boolean needsFlush() {
+        return isDirty() && openFlushes == 0;
+    }
+
+    synchronized boolean isPersisted() {
+        return flushedPlayerNumber != null;
+    }
+
+    synchronized boolean isTurnEnded() {
+        return !Objects.equals(game.getCurrentPlayerNumber(), flushedPlayerNumber);
+    }
+
+    synchronized boolean isEvicted() {
+        return evicted;
+    }
+
+    synchronized void setEvicted() {
+        evicted = true;
+    }
+
+    private record RecentState(int moveCount, GameState state) {
+    }
+}
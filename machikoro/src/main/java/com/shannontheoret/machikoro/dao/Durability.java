@@ -0,0 +1,8 @@
+package com.shannontheoret.machikoro.dao;
+
+//when cached game changes are written to the database; MOVE is the default, the others can lose the latest moves on a crash
+public enum Durability {
+    MOVE, //every save, inside the request's transaction
+    INTERVAL, //in batches, every machikoro.cache.flush-interval-ms
+    TURN_END //when the turn passes to another player or the game is won
+}
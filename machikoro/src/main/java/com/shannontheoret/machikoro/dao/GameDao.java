@@ -1,29 +1,499 @@
 package com.shannontheoret.machikoro.dao;
 
+import com.shannontheoret.machikoro.GameActions;
+import com.shannontheoret.machikoro.Step;
 import com.shannontheoret.machikoro.entity.Game;
+import com.shannontheoret.machikoro.entity.GameMove;
+import com.shannontheoret.machikoro.entity.GameRecord;
+import com.shannontheoret.machikoro.entity.Player;
+import com.shannontheoret.machikoro.event.GameSavedEvent;
+import com.shannontheoret.machikoro.exception.GameCodeNotFoundException;
+import com.shannontheoret.machikoro.exception.GameException;
+import com.shannontheoret.machikoro.metrics.GameMetrics;
+import com.shannontheoret.machikoro.state.GameState;
+import jakarta.annotation.PreDestroy;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
 import jakarta.transaction.Transactional;
+import org.hibernate.Hibernate;
 import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
 
 @Repository
 public class  GameDao {
+    private static final Logger LOGGER = LoggerFactory.getLogger(GameDao.class);
+    private static final int MAX_ATTEMPTS = 3;
+    private static final int UNMIGRATED = -1; //snapshot move count of a game whose row is not yet in the persistence mode's format
 
     private EntityManager entityManager;
+    private ApplicationEventPublisher eventPublisher;
+    private ActiveGameCache activeGameCache;
+    private TransactionTemplate transactionTemplate;
+    private Durability durability;
+    private int snapshotInterval;
+    private PersistenceMode persistenceMode;
 
     @Autowired
-    public GameDao(EntityManager entityManager) {
+    public GameDao(EntityManager entityManager, ApplicationEventPublisher eventPublisher, ActiveGameCache activeGameCache,
+                   PlatformTransactionManager transactionManager, @Value("${machikoro.cache.durability:MOVE}") Durability durability,
+                   @Value("${machikoro.move-log.snapshot-interval:20}") int snapshotInterval,
+                   @Value("${machikoro.persistence.mode:TABLES}") PersistenceMode persistenceMode) {
         this.entityManager = entityManager;
+        this.eventPublisher = eventPublisher;
+        this.activeGameCache = activeGameCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.durability = durability;
+        this.snapshotInterval = snapshotInterval;
+        this.persistenceMode = persistenceMode;
     }
 
     public Game findByCode(String code) {
-        Session currentSession = entityManager.unwrap(Session.class);
-        return currentSession.get(Game.class, code);
+        CachedGame cachedGame = activeGameCache.get(code);
+        if (cachedGame != null) {
+            return cachedGame.getGame();
+        }
+        LoadedGame loaded = GameMetrics.timeDatabase("load", () -> transactionTemplate.execute(status -> load(code)));
+        if (loaded == null) {
+            return null;
+        }
+        return activeGameCache.putIfAbsent(loaded.game(), true, loaded.snapshotMoveCount()).getGame();
+    }
+
+    //cached games come from memory, the rest are read with one query for the games and one for their unreplayed moves;
+    //unknown codes are left out of the result
+    public Map<String, Game> findByCodes(Collection<String> codes) {
+        Map<String, Game> games = new HashMap<>();
+        List<String> uncachedCodes = new ArrayList<>();
+        for (String code : new LinkedHashSet<>(codes)) {
+            CachedGame cachedGame = activeGameCache.get(code);
+            if (cachedGame != null) {
+                games.put(code, cachedGame.getGame());
+            } else {
+                uncachedCodes.add(code);
+            }
+        }
+        if (!uncachedCodes.isEmpty()) {
+            for (LoadedGame loaded : GameMetrics.timeDatabase("loadBatch", () -> transactionTemplate.execute(status -> loadAll(uncachedCodes)))) {
+                games.put(loaded.game().getCode(), activeGameCache.putIfAbsent(loaded.game(), true, loaded.snapshotMoveCount()).getGame());
+            }
+        }
+        Map<String, Game> gamesInOrder = new LinkedHashMap<>();
+        for (String code : codes) {
+            if (games.containsKey(code)) {
+                gamesInOrder.put(code, games.get(code));
+            }
+        }
+        return gamesInOrder;
     }
 
+    //the game as it was before its first move, with the whole move log replayed onto it
+    public Game replayFromStart(String code) throws GameException {
+        LoadedGame loaded = transactionTemplate.execute(status -> load(code));
+        if (loaded == null) {
+            throw new GameCodeNotFoundException(code);
+        }
+        Game game = GameActions.startingPosition(loaded.game());
+        GameActions.replay(game, transactionTemplate.execute(status -> findMoves(code, 0)));
+        return game;
+    }
+
+    //moves recorded on the game are appended to the log; a save without moves rewrites the whole game
     @Transactional
     public void save(Game game) {
-        entityManager.merge(game);
+        CachedGame cachedGame = markSaved(game);
+        if (durability == Durability.MOVE || !cachedGame.isPersisted()
+                || (durability == Durability.TURN_END && (cachedGame.isTurnEnded() || game.getStep() == Step.WON))) {
+            GameMetrics.timeDatabase("write", () -> flush(cachedGame));
+        }
+        publish(game);
+    }
+
+    //a save that leaves the write to flush(codes), so a caller changing many games writes them in one batch
+    public void saveWithoutFlush(Game game) {
+        markSaved(game);
+        publish(game);
+    }
+
+    //writes whichever of the games have unwritten changes in one transaction, whatever the durability
+    public void flush(Collection<String> codes) {
+        List<CachedGame> dirtyGames = new ArrayList<>();
+        for (String code : codes) {
+            CachedGame cachedGame = activeGameCache.get(code);
+            if (cachedGame != null && cachedGame.needsFlush()) {
+                dirtyGames.add(cachedGame);
+            }
+        }
+        flushAll(dirtyGames);
+    }
+
+    //rewrites games still kept in the player and stock tables into the state column, a batch per transaction
+    public int migrateToStateColumn(int batchSize) {
+        if (persistenceMode != PersistenceMode.STATE_COLUMN) {
+            return 0;
+        }
+        List<String> codes = transactionTemplate.execute(status -> entityManager
+                .createQuery("select r.code from GameRecord r where r.state is null order by r.code", String.class)
+                .getResultList());
+        int migrated = 0;
+        for (int start = 0; start < codes.size(); start += batchSize) {
+            List<String> batch = codes.subList(start, Math.min(codes.size(), start + batchSize));
+            for (String code : batch) {
+                try {
+                    withGameLock(code, () -> markSaved(findByCode(code)));
+                } catch (GameException e) {
+                    LOGGER.warn("Game {} could not be migrated to the state column", code, e);
+                }
+            }
+            flush(batch);
+            migrated += batch.size();
+        }
+        return migrated;
+    }
+
+    private CachedGame markSaved(Game game) {
+        CachedGame cachedGame = activeGameCache.putIfAbsent(game, false);
+        cachedGame.markModified(game.drainRecordedMoves());
+        game.startRecordingMoves();
+        return cachedGame;
+    }
+
+    //pushes a state that will only be written by a later save, e.g. each step of an NPC turn
+    public void publish(Game game) {
+        GameState state = GameState.fromGame(game);
+        CachedGame cachedGame = activeGameCache.get(game.getCode());
+        if (cachedGame != null) {
+            cachedGame.recordState(game.getMoveCount(), state);
+        }
+        eventPublisher.publishEvent(new GameSavedEvent(game.getCode(), state));
+    }
+
+    //the game as last published at the given move count, null once it has left the cache's short history
+    public GameState findRecentState(String code, int moveCount) {
+        CachedGame cachedGame = activeGameCache.get(code);
+        return cachedGame == null ? null : cachedGame.getRecentState(moveCount);
+    }
+
+    //holds the game's lock for the whole action, so its transaction commits before the next mutation starts;
+    //if another writer updated the row since it was cached, the stale copy is dropped and the action rerun on a fresh one
+    public <T> T withGameLock(String code, GameAction<T> action) throws GameException {
+        int attempt = 1;
+        while (true) {
+            if (findByCode(code) == null) {
+                throw new GameCodeNotFoundException(code);
+            }
+            CachedGame cachedGame = activeGameCache.get(code);
+            if (cachedGame == null) {
+                continue; //evicted between loading and locking
+            }
+            cachedGame.getLock().lock();
+            try {
+                if (!cachedGame.isEvicted()) {
+                    return action.run();
+                }
+            } catch (OptimisticLockingFailureException | DataIntegrityViolationException e) {
+                activeGameCache.discard(cachedGame);
+                if (attempt++ >= MAX_ATTEMPTS) {
+                    throw e;
+                }
+                LOGGER.warn("Game {} was changed by another writer, retrying", code);
+            } finally {
+                cachedGame.getLock().unlock();
+            }
+        }
+    }
+
+    //a new game is cached already locked, so no sweep can write it before the action's own first write has committed
+    public <T> T withNewGameLock(Game game, GameAction<T> action) throws GameException {
+        CachedGame cachedGame = activeGameCache.putNewLocked(game);
+        try {
+            return action.run();
+        } finally {
+            cachedGame.getLock().unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${machikoro.cache.flush-interval-ms:500}")
+    public void flushAndEvict() {
+        if (durability == Durability.INTERVAL) {
+            flushAll(activeGameCache.getDirtyGames());
+        }
+        List<CachedGame> evictionCandidates = activeGameCache.getEvictionCandidates();
+        flushAll(evictionCandidates.stream().filter(CachedGame::needsFlush).toList());
+        for (CachedGame cachedGame : evictionCandidates) {
+            activeGameCache.evict(cachedGame);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flushAll(activeGameCache.getDirtyGames());
+    }
+
+    //one transaction for the whole batch; each game is locked only while it is merged
+    private void flushAll(List<CachedGame> cachedGames) {
+        if (cachedGames.isEmpty()) {
+            return;
+        }
+        try {
+            GameMetrics.timeDatabase("writeBatch", () -> transactionTemplate.executeWithoutResult(status -> {
+                for (CachedGame cachedGame : cachedGames) {
+                    flushLocked(cachedGame);
+                }
+            }));
+        } catch (RuntimeException e) {
+            LOGGER.warn("Failed to flush {} cached games as a batch, flushing them one at a time", cachedGames.size(), e);
+            for (CachedGame cachedGame : cachedGames) {
+                flushAlone(cachedGame);
+            }
+        }
+    }
+
+    private void flushAlone(CachedGame cachedGame) {
+        try {
+            GameMetrics.timeDatabase("write", () -> transactionTemplate.executeWithoutResult(status -> flushLocked(cachedGame)));
+        } catch (OptimisticLockingFailureException | DataIntegrityViolationException e) {
+            //the database copy is newer, so the cached one would overwrite someone else's move
+            cachedGame.getLock().lock();
+            try {
+                activeGameCache.discard(cachedGame);
+            } finally {
+                cachedGame.getLock().unlock();
+            }
+            LOGGER.error("Game {} was changed by another writer, discarded the cached copy", cachedGame.getGame().getCode(), e);
+        } catch (RuntimeException e) {
+            LOGGER.error("Failed to flush game {}, it stays dirty for the next attempt", cachedGame.getGame().getCode(), e);
+        }
+    }
+
+    //a game written by another transaction since it was listed is left for the next sweep
+    private void flushLocked(CachedGame cachedGame) {
+        cachedGame.getLock().lock();
+        try {
+            if (cachedGame.needsFlush()) {
+                flush(cachedGame);
+            }
+        } finally {
+            cachedGame.getLock().unlock();
+        }
+    }
+
+    //must run inside a transaction; the game is only marked clean once that transaction commits, and until it completes
+    //the game counts as being flushed, so sweeps leave it alone instead of writing it a second time
+    private void flush(CachedGame cachedGame) {
+        Game game = cachedGame.getGame();
+        long modifications = cachedGame.getModifications();
+        Integer playerNumber = game.getCurrentPlayerNumber();
+        List<GameMove> moves = cachedGame.getPendingMoves();
+        cachedGame.startFlush();
+        Runnable markFlushed;
+        try {
+            for (GameMove move : moves) {
+                entityManager.persist(move);
+            }
+            //the game row doubles as the snapshot moves are replayed onto, so it is only rewritten every few moves
+            Integer snapshotMoveCount = null;
+            Runnable written = null;
+            if (!cachedGame.isPersisted() || cachedGame.isSnapshotRequired() || game.getStep() == Step.WON
+                    || cachedGame.getSnapshotMoveCount() == UNMIGRATED
+                    || game.getMoveCount() - cachedGame.getSnapshotMoveCount() >= snapshotInterval) {
+                snapshotMoveCount = game.getMoveCount();
+                written = persistenceMode == PersistenceMode.STATE_COLUMN ? writeStateColumn(cachedGame) : writeTables(game);
+            }
+            markFlushed = flushed(cachedGame, written, modifications, playerNumber, moves.size(), snapshotMoveCount);
+        } catch (RuntimeException e) {
+            cachedGame.endFlush();
+            throw e;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    markFlushed.run();
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    cachedGame.endFlush();
+                }
+            });
+        } else {
+            markFlushed.run();
+            cachedGame.endFlush();
+        }
+    }
+
+    //the version and the players' generated ids are only copied once the transaction has committed, when they are final
+    private Runnable writeTables(Game game) {
+        Game managedGame = entityManager.merge(game);
+        //player rows carry no version of their own, so every write bumps the game's
+        entityManager.lock(managedGame, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+        return () -> {
+            game.setVersion(managedGame.getVersion());
+            copyGeneratedIds(managedGame, game);
+        };
+    }
+
+    //one row written, with the version checked in the update itself instead of reading the row first
+    private Runnable writeStateColumn(CachedGame cachedGame) {
+        Game game = cachedGame.getGame();
+        String state = GameStateDocument.write(game);
+        if (!cachedGame.isPersisted()) {
+            GameRecord record = new GameRecord(game, state);
+            entityManager.persist(record);
+            return () -> game.setVersion(record.getVersion());
+        }
+        int updated = entityManager.createQuery("update GameRecord r set r.step = :step, r.die1 = :die1, r.die2 = :die2, "
+                        + "r.rolledOnce = :rolledOnce, r.currentPlayerNumber = :currentPlayerNumber, r.moveCount = :moveCount, "
+                        + "r.state = :state, r.version = r.version + 1 where r.code = :code and r.version = :version")
+                .setParameter("step", game.getStep())
+                .setParameter("die1", game.getDie1())
+                .setParameter("die2", game.getDie2())
+                .setParameter("rolledOnce", game.getRolledOnce())
+                .setParameter("currentPlayerNumber", game.getCurrentPlayerNumber())
+                .setParameter("moveCount", game.getMoveCount())
+                .setParameter("state", state)
+                .setParameter("code", game.getCode())
+                .setParameter("version", game.getVersion())
+                .executeUpdate();
+        if (updated == 0) {
+            throw new ObjectOptimisticLockingFailureException(GameRecord.class, game.getCode());
+        }
+        long version = game.getVersion() + 1;
+        return () -> game.setVersion(version);
+    }
+
+    private Runnable flushed(CachedGame cachedGame, Runnable written, long modifications, Integer playerNumber, int moveCount, Integer snapshotMoveCount) {
+        return () -> {
+            if (written != null) {
+                written.run();
+            }
+            cachedGame.markFlushed(modifications, playerNumber, moveCount, snapshotMoveCount);
+        };
+    }
+
+    //merge assigns ids to the managed copies, the cached game keeps being the one that is mutated
+    private void copyGeneratedIds(Game managedGame, Game game) {
+        for (Player managedPlayer : managedGame.getPlayers()) {
+            for (Player player : game.getPlayers()) {
+                if (player.getNumber() == managedPlayer.getNumber() && player.getId() == null) {
+                    player.setId(managedPlayer.getId());
+                }
+            }
+        }
+    }
+
+    //cached games outlive the session, so every lazy collection is loaded up front; moves made since the row was written are replayed
+    private LoadedGame load(String code) {
+        Session currentSession = entityManager.unwrap(Session.class);
+        if (persistenceMode == PersistenceMode.STATE_COLUMN) {
+            GameRecord record = currentSession.get(GameRecord.class, code);
+            if (record == null) {
+                return null;
+            }
+            if (record.getState() != null) {
+                return prepare(GameStateDocument.read(record), findMoves(code, record.getMoveCount()), false);
+            }
+        }
+        Game game = currentSession.get(Game.class, code);
+        if (game == null) {
+            return null;
+        }
+        initialize(game);
+        entityManager.detach(game);
+        return prepare(game, findMoves(code, game.getMoveCount()), persistenceMode == PersistenceMode.STATE_COLUMN);
+    }
+
+    //lazy collections are fetched in batches of hibernate.default_batch_fetch_size rather than one query per player
+    private List<LoadedGame> loadAll(List<String> codes) {
+        List<Game> games = new ArrayList<>();
+        List<String> tableCodes = codes;
+        if (persistenceMode == PersistenceMode.STATE_COLUMN) {
+            tableCodes = new ArrayList<>();
+            for (GameRecord record : entityManager.createQuery("select r from GameRecord r where r.code in :codes", GameRecord.class)
+                    .setParameter("codes", codes)
+                    .getResultList()) {
+                if (record.getState() != null) {
+                    games.add(GameStateDocument.read(record));
+                } else {
+                    tableCodes.add(record.getCode());
+                }
+            }
+        }
+        int stateColumnGames = games.size();
+        if (!tableCodes.isEmpty()) {
+            games.addAll(entityManager.createQuery("select g from Game g where g.code in :codes", Game.class)
+                    .setParameter("codes", tableCodes)
+                    .getResultList());
+        }
+        Map<String, List<GameMove>> movesByCode = new HashMap<>();
+        List<GameMove> moves = entityManager.createQuery("select m from game_move m, Game g where m.gameCode = g.code and g.code in :codes and m.sequence > g.moveCount order by m.gameCode, m.sequence", GameMove.class)
+                .setParameter("codes", codes)
+                .getResultList();
+        for (GameMove move : moves) {
+            movesByCode.computeIfAbsent(move.getGameCode(), code -> new ArrayList<>()).add(move);
+        }
+        List<LoadedGame> loaded = new ArrayList<>();
+        for (int i = 0; i < games.size(); i++) {
+            Game game = games.get(i);
+            boolean fromTables = i >= stateColumnGames;
+            if (fromTables) {
+                initialize(game);
+                entityManager.detach(game);
+            }
+            loaded.add(prepare(game, movesByCode.getOrDefault(game.getCode(), List.of()),
+                    fromTables && persistenceMode == PersistenceMode.STATE_COLUMN));
+        }
+        return loaded;
+    }
+
+    private void initialize(Game game) {
+        Hibernate.initialize(game.getGameStock());
+        for (Player player : game.getPlayers()) {
+            Hibernate.initialize(player.getStock());
+            Hibernate.initialize(player.getLandmarks());
+            Hibernate.initialize(player.getStrategy());
+        }
+    }
+
+    //games read from the tables are detached before the replay, so loading never writes the row back or bumps its version;
+    //one read from the tables in the state column mode is marked for a rewrite on its next flush
+    private LoadedGame prepare(Game game, List<GameMove> moves, boolean unmigrated) {
+        int snapshotMoveCount = unmigrated ? UNMIGRATED : game.getMoveCount();
+        try {
+            GameActions.replay(game, moves);
+        } catch (GameException e) {
+            throw new IllegalStateException("Move log of game " + game.getCode() + " cannot be replayed", e);
+        }
+        game.startRecordingMoves();
+        return new LoadedGame(game, snapshotMoveCount);
+    }
+
+    private List<GameMove> findMoves(String code, int afterSequence) {
+        return entityManager.createQuery("select m from game_move m where m.gameCode = :code and m.sequence > :sequence order by m.sequence", GameMove.class)
+                .setParameter("code", code)
+                .setParameter("sequence", afterSequence)
+                .getResultList();
+    }
+
+    private record LoadedGame(Game game, int snapshotMoveCount) {
+    }
+
+    public interface GameAction<T> {
+        T run() throws GameException;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,39 @@
+package com.shannontheoret.machikoro.dao;
+
+import com.shannontheoret.machikoro.entity.Game;
+import com.shannontheoret.machikoro.entity.GameRecord;
+import com.shannontheoret.machikoro.exception.GameMechanicException;
+import com.shannontheoret.machikoro.state.GameCodec;
+
+import java.util.Base64;
+
+//the players and stock of a game as kept in its state column, base64 of the binary game codec;
+//the scalar columns of the row win over the encoded copy. the json form the column first held never shipped, so there is no older format to read
+public final class GameStateDocument {
+
+    private GameStateDocument() {
+    }
+
+    public static String write(Game game) {
+        return Base64.getEncoder().encodeToString(GameCodec.encode(game));
+    }
+
+    public static Game read(GameRecord record) {
+        Game game;
+        try {
+            game = GameCodec.decode(Base64.getDecoder().decode(record.getState()));
+            game.setCode(record.getCode());
+            game.setStep(record.getStep());
+            game.setDie1(record.getDie1());
+            game.setDie2(record.getDie2());
+            game.setRolledOnce(record.getRolledOnce());
+            game.setCurrentPlayerNumber(record.getCurrentPlayerNumber());
+        } catch (IllegalArgumentException | GameMechanicException e) {
+            throw new IllegalStateException("Cannot read the state of game " + record.getCode(), e);
+        }
+        game.setVersion(record.getVersion());
+        game.setSeed(record.getSeed());
+        game.setMoveCount(record.getMoveCount());
+        return game;
+    }
+}
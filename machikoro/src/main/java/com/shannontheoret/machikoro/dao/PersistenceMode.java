@@ -0,0 +1,7 @@
+package com.shannontheoret.machikoro.dao;
+
+//how a game's players and stock are stored
+public enum PersistenceMode {
+    TABLES, //player, stock, landmarks, strategy and game_stock rows
+    STATE_COLUMN //one serialized state column on the game row; games still in the tables are moved over on their next write
+}
@@ -1,26 +1,33 @@
 package com.shannontheoret.machikoro.dao;
 
 import com.shannontheoret.machikoro.entity.Player;
+import com.shannontheoret.machikoro.metrics.GameMetrics;
 import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
 import org.hibernate.Session;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public class PlayerDao {
 
     private EntityManager entityManager;
+    private PersistenceMode persistenceMode;
 
     @Autowired
-    public PlayerDao(EntityManager entityManager) {
+    public PlayerDao(EntityManager entityManager, @Value("${machikoro.persistence.mode:TABLES}") PersistenceMode persistenceMode) {
         this.entityManager = entityManager;
+        this.persistenceMode = persistenceMode;
     }
 
+    //in the state column mode players are written as part of their game's row
     @Transactional
     public void save(Player player) {
+        if (persistenceMode == PersistenceMode.STATE_COLUMN) {
+            return;
+        }
         Session currentSession = entityManager.unwrap(Session.class);
-        currentSession.merge(player);
+        GameMetrics.timeDatabase("savePlayer", () -> currentSession.merge(player));
     }
 }
-
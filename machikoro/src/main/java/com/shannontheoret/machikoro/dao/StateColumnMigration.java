@@ -0,0 +1,42 @@
+package com.shannontheoret.machikoro.dao;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+//moves games left in the player and stock tables into the state column in the background, so requests never wait on it;
+//games touched before it reaches them are migrated by their own next write. off unless asked for, as there is no way back
+@Component
+public class StateColumnMigration {
+    private static final Logger LOGGER = LoggerFactory.getLogger(StateColumnMigration.class);
+    private static final int BATCH_SIZE = 100;
+
+    private final GameDao gameDao;
+    private final boolean enabled;
+
+    @Autowired
+    public StateColumnMigration(GameDao gameDao, @Value("${machikoro.persistence.migrate-on-startup:false}") boolean enabled) {
+        this.gameDao = gameDao;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        if (enabled) {
+            Thread.ofVirtual().name("state-column-migration").start(() -> {
+                try {
+                    int migrated = gameDao.migrateToStateColumn(BATCH_SIZE);
+                    if (migrated > 0) {
+                        LOGGER.info("Migrated {} games to the state column", migrated);
+                    }
+                } catch (RuntimeException e) {
+                    LOGGER.error("State column migration stopped", e);
+                }
+            });
+        }
+    }
+}
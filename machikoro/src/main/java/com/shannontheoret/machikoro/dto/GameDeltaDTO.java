@@ -0,0 +1,146 @@
+package com.shannontheoret.machikoro.dto;
+
+import com.shannontheoret.machikoro.Card;
+import com.shannontheoret.machikoro.Landmark;
+import com.shannontheoret.machikoro.Step;
+import com.shannontheoret.machikoro.state.GameState;
+
+import java.util.*;
+
+//the fields of a game that changed between two saves, with their new values. values are absolute, never differences:
+//a changed stock card carries its new count, and a changed player is sent whole, so the client replaces what it holds
+public class GameDeltaDTO {
+    private String code;
+    private Integer baseMoveCount; //the move count of the copy the delta applies to, null on the event stream
+    private Integer moveCount;
+    private Step step;
+    private Integer die1;
+    private Integer die2;
+    private Boolean rolledOnce;
+    private Integer currentPlayerNumber;
+    private Map<Card, Integer> gameStock = new EnumMap<>(Card.class);
+    private List<PlayerDelta> players = new ArrayList<>();
+
+    public static GameDeltaDTO between(String code, GameState before, GameState after) {
+        GameDeltaDTO delta = new GameDeltaDTO();
+        delta.code = code;
+        delta.step = after.getStep();
+        delta.die1 = after.getDie1();
+        delta.die2 = after.getDie2();
+        delta.rolledOnce = after.getRolledOnce();
+        delta.currentPlayerNumber = after.getCurrentPlayerNumber();
+        for (Card card : Card.values()) {
+            if (before.getStock(card) != after.getStock(card)) {
+                delta.gameStock.put(card, after.getStock(card));
+            }
+        }
+        for (int playerNumber = 1; playerNumber <= after.getPlayerCount(); playerNumber++) {
+            if (playerNumber > before.getPlayerCount() || playerChanged(before, after, playerNumber)) {
+                delta.players.add(new PlayerDelta(after, playerNumber));
+            }
+        }
+        return delta;
+    }
+
+    //the answer to a client that sent the move count of its copy, so it can check the delta applies and track the new one
+    public static GameDeltaDTO between(String code, int baseMoveCount, GameState before, int moveCount, GameState after) {
+        GameDeltaDTO delta = between(code, before, after);
+        delta.baseMoveCount = baseMoveCount;
+        delta.moveCount = moveCount;
+        return delta;
+    }
+
+    private static boolean playerChanged(GameState before, GameState after, int playerNumber) {
+        if (before.getCoins(playerNumber) != after.getCoins(playerNumber)
+                || before.getLandmarkMask(playerNumber) != after.getLandmarkMask(playerNumber)) {
+            return true;
+        }
+        for (Card card : Card.values()) {
+            if (before.getCardCount(playerNumber, card) != after.getCardCount(playerNumber, card)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public Integer getBaseMoveCount() {
+        return baseMoveCount;
+    }
+
+    public Integer getMoveCount() {
+        return moveCount;
+    }
+
+    public Step getStep() {
+        return step;
+    }
+
+    public Integer getDie1() {
+        return die1;
+    }
+
+    public Integer getDie2() {
+        return die2;
+    }
+
+    public Boolean getRolledOnce() {
+        return rolledOnce;
+    }
+
+    public Integer getCurrentPlayerNumber() {
+        return currentPlayerNumber;
+    }
+
+    public Map<Card, Integer> getGameStock() {
+        return gameStock;
+    }
+
+    public List<PlayerDelta> getPlayers() {
+        return players;
+    }
+
+    //a changed player's coins, stock and landmarks in full, shaped like the player entity's json; a player whose coins
+    //alone changed still sends its whole stock and landmarks, which is a few dozen bytes and spares the client any merging
+    public static class PlayerDelta {
+        private final int number;
+        private final int coins;
+        private final Map<Card, Integer> stock = new EnumMap<>(Card.class);
+        private final Set<Landmark> landmarks = EnumSet.noneOf(Landmark.class);
+
+        PlayerDelta(GameState state, int playerNumber) {
+            number = playerNumber;
+            coins = state.getCoins(playerNumber);
+            for (Card card : Card.values()) {
+                int count = state.getCardCount(playerNumber, card);
+                if (count > 0) {
+                    stock.put(card, count);
+                }
+            }
+            for (Landmark landmark : Landmark.values()) {
+                if (state.hasLandmark(playerNumber, landmark)) {
+                    landmarks.add(landmark);
+                }
+            }
+        }
+
+        public int getNumber() {
+            return number;
+        }
+
+        public int getCoins() {
+            return coins;
+        }
+
+        public Map<Card, Integer> getStock() {
+            return stock;
+        }
+
+        public Set<Landmark> getLandmarks() {
+            return landmarks;
+        }
+    }
+}
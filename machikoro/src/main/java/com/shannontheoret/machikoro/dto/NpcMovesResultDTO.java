@@ -0,0 +1,36 @@
+package com.shannontheoret.machikoro.dto;
+
+import com.shannontheoret.machikoro.entity.Game;
+
+//one game of a batch of NPC moves: the game as played, or why it could not be played
+public class NpcMovesResultDTO {
+    private final String code;
+    private final Game game;
+    private final String error;
+
+    private NpcMovesResultDTO(String code, Game game, String error) {
+        this.code = code;
+        this.game = game;
+        this.error = error;
+    }
+
+    public static NpcMovesResultDTO played(Game game) {
+        return new NpcMovesResultDTO(game.getCode(), game, null);
+    }
+
+    public static NpcMovesResultDTO failed(String code, String error) {
+        return new NpcMovesResultDTO(code, null, error);
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public Game getGame() {
+        return game;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -1,14 +1,15 @@
 package com.shannontheoret.machikoro.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.shannontheoret.machikoro.Card;
+import com.shannontheoret.machikoro.Landmark;
+import com.shannontheoret.machikoro.MoveType;
 import com.shannontheoret.machikoro.Step;
 import com.shannontheoret.machikoro.exception.GameMechanicException;
+import com.shannontheoret.machikoro.utilities.RollEffectTable;
 import jakarta.persistence.*;
 
-import java.util.EnumMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
 
 @Entity
 public class Game {
@@ -45,9 +46,31 @@ public class Game {
     @Column(name = "currentPlayerNumber", nullable = false)
     private Integer currentPlayerNumber = 1;
 
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    private long version;
+
+    @Column(name = "seed", nullable = false, columnDefinition = "bigint default 0")
+    private long seed; //never sent to clients, the dice would be predictable
+
+    @Column(name = "move_count", nullable = false, columnDefinition = "int default 0")
+    private int moveCount;
+
+    @Transient
+    private List<GameMove> recordedMoves; //null unless the game is tracked by GameDao, so simulations record nothing
+
     @OneToMany(fetch = FetchType.EAGER, cascade = CascadeType.ALL)
     @JoinColumn(name = "game_code", referencedColumnName = "code")
-    private Set<Player> players = new HashSet<>();
+    private Set<Player> players = new LinkedHashSet<>();
+
+    @Transient
+    private Player[] playersByNumber; //seat index, slot 0 unused; rebuilt whenever it no longer matches the players
+
+    @Transient
+    private int indexedPlayerCount;
+
+    @Transient
+    private RollEffectTable rollEffectTable; //follows the game between NPC decisions, copies start their own
 
     public String getCode() {
         return code;
@@ -126,12 +149,71 @@ public class Game {
         this.currentPlayerNumber = currentPlayerNumber;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    @JsonIgnore
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    public void setMoveCount(int moveCount) {
+        this.moveCount = moveCount;
+    }
+
+    public void startRecordingMoves() {
+        if (recordedMoves == null) {
+            recordedMoves = new ArrayList<>();
+        }
+    }
+
+    public boolean recordsMoves() {
+        return recordedMoves != null;
+    }
+
+    public void recordMove(MoveType type, int playerNumber, Integer die1, Integer die2, Card card, Landmark landmark, Integer targetPlayerNumber) {
+        moveCount++;
+        if (recordedMoves == null) {
+            return;
+        }
+        GameMove move = new GameMove(code, moveCount, playerNumber, type);
+        move.setDice(die1, die2);
+        move.setCard(card);
+        move.setLandmark(landmark);
+        move.setTargetPlayerNumber(targetPlayerNumber);
+        recordedMoves.add(move);
+    }
+
+    //moves made since the last call, oldest first
+    public List<GameMove> drainRecordedMoves() {
+        if (recordedMoves == null || recordedMoves.isEmpty()) {
+            return List.of();
+        }
+        List<GameMove> moves = new ArrayList<>(recordedMoves);
+        recordedMoves.clear();
+        return moves;
+    }
+
     public Set<Player> getPlayers() {
         return players;
     }
 
     public void setPlayers(Set<Player> players) {
         this.players = players;
+        playersByNumber = null;
     }
 
     public void incrementCurrentPlayerNumber() throws GameMechanicException {
@@ -139,10 +221,11 @@ public class Game {
     }
 
     public Player getCurrentPlayer() {
-        return players.stream()
-                .filter(player -> player.getNumber() == currentPlayerNumber)
-                .findFirst()
-                .orElseThrow(() -> new IllegalStateException("Current player not found."));
+        Player player = indexedPlayer(currentPlayerNumber);
+        if (player == null) {
+            throw new IllegalStateException("Current player not found.");
+        }
+        return player;
     }
 
     public Player getNextPlayer(Integer playerNumber) throws GameMechanicException {
@@ -154,24 +237,35 @@ public class Game {
     }
 
     public Player getPlayerByNumber(Integer playerNumber) throws GameMechanicException {
-        for (Player player : players) {
-            if (player.getNumber() == playerNumber) {
-                return player;
-            }
+        Player player = indexedPlayer(playerNumber);
+        if (player == null) {
+            throw new GameMechanicException("Player not found.");
         }
-        throw new GameMechanicException("Player not found.");
+        return player;
+    }
+
+    @JsonIgnore
+    public RollEffectTable getRollEffectTable() {
+        if (rollEffectTable == null || rollEffectTable.getPlayerCount() != players.size()) {
+            rollEffectTable = new RollEffectTable(players.size());
+        }
+        return rollEffectTable;
     }
 
     public Game deepCopy() throws GameMechanicException {
         Game copy = new Game();
 
+        copy.setCode(this.code);
+        copy.setVersion(this.version);
+        copy.setSeed(this.seed);
+        copy.setMoveCount(this.moveCount);
         copy.setStep(this.step);
         copy.setDie1(this.die1);
         copy.setDie2(this.die2);
         copy.setRolledOnce(this.rolledOnce);
         copy.setCurrentPlayerNumber(this.currentPlayerNumber);
         copy.setGameStock(new EnumMap<>(this.gameStock));
-        Set<Player> copiedPlayers = new HashSet<>();
+        Set<Player> copiedPlayers = new LinkedHashSet<>();
         for (Player player : this.players) {
             Player copiedPlayer = player.deepCopy();
             copiedPlayers.add(copiedPlayer);
@@ -181,20 +275,43 @@ public class Game {
         return copy;
     }
 
-    private Integer getNextPlayerNumber(Integer playerNumber) throws GameMechanicException {
-        Integer nextPlayerNumber = playerNumber + 1;
-        if (nextPlayerNumber > players.size()) {
-            nextPlayerNumber = 1;
+    private int getNextPlayerNumber(int playerNumber) {
+        return playerNumber == players.size() ? 1 : playerNumber + 1;
+    }
+
+    private int getPreviousPlayerNumber(int playerNumber) {
+        return playerNumber == 1 ? players.size() : playerNumber - 1;
+    }
+
+    //the index is checked on every lookup rather than kept in step with the set, which hibernate and callers may change under it
+    private Player indexedPlayer(int playerNumber) {
+        Player[] index = playersByNumber;
+        if (index == null || indexedPlayerCount != players.size() || playerNumber < 1 || playerNumber >= index.length
+                || index[playerNumber] == null || index[playerNumber].getNumber() != playerNumber) {
+            index = indexPlayers();
         }
-        return nextPlayerNumber;
+        return playerNumber >= 1 && playerNumber < index.length ? index[playerNumber] : null;
     }
 
-    private Integer getPreviousPlayerNumber(Integer playerNumber) throws GameMechanicException {
-        Integer previousPlayerNumber = playerNumber -1;
-        if (previousPlayerNumber < 1) {
-            previousPlayerNumber = players.size();
+    @PostLoad
+    private void indexLoadedPlayers() {
+        indexPlayers();
+    }
+
+    private Player[] indexPlayers() {
+        int highestNumber = 0;
+        for (Player player : players) {
+            highestNumber = Math.max(highestNumber, player.getNumber());
+        }
+        Player[] index = new Player[highestNumber + 1];
+        for (Player player : players) {
+            if (player.getNumber() >= 1) {
+                index[player.getNumber()] = player;
+            }
         }
-        return previousPlayerNumber;
+        playersByNumber = index;
+        indexedPlayerCount = players.size();
+        return index;
     }
 
     private void confirmValidDieRoll(Integer dieNumber) throws GameMechanicException {
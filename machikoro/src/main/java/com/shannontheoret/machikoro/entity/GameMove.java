@@ -0,0 +1,150 @@
+package com.shannontheoret.machikoro.entity;
+
+import com.shannontheoret.machikoro.Card;
+import com.shannontheoret.machikoro.DieSource;
+import com.shannontheoret.machikoro.Landmark;
+import com.shannontheoret.machikoro.MoveType;
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+//one row of the append-only move log; replaying a game's moves in sequence order rebuilds it exactly
+@Entity(name = "game_move")
+@IdClass(GameMove.Key.class)
+public class GameMove {
+    @Id
+    @Column(name = "game_code", nullable = false, length = 8, updatable = false)
+    private String gameCode;
+
+    @Id
+    @Column(name = "sequence", nullable = false, updatable = false)
+    private int sequence;
+
+    @Column(name = "player_number", nullable = false, updatable = false)
+    private int playerNumber;
+
+    @Column(name = "type", nullable = false, length = 20, updatable = false)
+    @Enumerated(EnumType.STRING)
+    private MoveType type;
+
+    @Column(name = "die1", updatable = false)
+    private Integer die1;
+
+    @Column(name = "die2", updatable = false)
+    private Integer die2;
+
+    @Column(name = "card", length = 30, updatable = false)
+    @Enumerated(EnumType.STRING)
+    private Card card;
+
+    @Column(name = "landmark", length = 30, updatable = false)
+    @Enumerated(EnumType.STRING)
+    private Landmark landmark;
+
+    @Column(name = "target_player_number", updatable = false)
+    private Integer targetPlayerNumber;
+
+    public GameMove() {
+    }
+
+    public GameMove(String gameCode, int sequence, int playerNumber, MoveType type) {
+        this.gameCode = gameCode;
+        this.sequence = sequence;
+        this.playerNumber = playerNumber;
+        this.type = type;
+    }
+
+    public String getGameCode() {
+        return gameCode;
+    }
+
+    public int getSequence() {
+        return sequence;
+    }
+
+    public int getPlayerNumber() {
+        return playerNumber;
+    }
+
+    public MoveType getType() {
+        return type;
+    }
+
+    public Integer getDie1() {
+        return die1;
+    }
+
+    public Integer getDie2() {
+        return die2;
+    }
+
+    public void setDice(Integer die1, Integer die2) {
+        this.die1 = die1;
+        this.die2 = die2;
+    }
+
+    public boolean isRollTwo() {
+        return die2 != null && die2 != 0;
+    }
+
+    //hands back the recorded dice in order, so a replayed roll lands on the same values
+    public DieSource recordedDice() {
+        int[] dice = isRollTwo() ? new int[]{die1, die2} : new int[]{die1};
+        int[] next = {0};
+        return () -> dice[next[0]++];
+    }
+
+    public Card getCard() {
+        return card;
+    }
+
+    public void setCard(Card card) {
+        this.card = card;
+    }
+
+    public Landmark getLandmark() {
+        return landmark;
+    }
+
+    public void setLandmark(Landmark landmark) {
+        this.landmark = landmark;
+    }
+
+    public Integer getTargetPlayerNumber() {
+        return targetPlayerNumber;
+    }
+
+    public void setTargetPlayerNumber(Integer targetPlayerNumber) {
+        this.targetPlayerNumber = targetPlayerNumber;
+    }
+
+    public static class Key implements Serializable {
+        private String gameCode;
+        private int sequence;
+
+        public Key() {
+        }
+
+        public Key(String gameCode, int sequence) {
+            this.gameCode = gameCode;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key other)) {
+                return false;
+            }
+            return sequence == other.sequence && Objects.equals(gameCode, other.gameCode);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(gameCode, sequence);
+        }
+    }
+}
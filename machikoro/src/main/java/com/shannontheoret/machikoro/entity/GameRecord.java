@@ -0,0 +1,99 @@
+package com.shannontheoret.machikoro.entity;
+
+import com.shannontheoret.machikoro.Step;
+import jakarta.persistence.*;
+
+//the game row without its player and stock tables, read and written whole in the state column mode
+@Entity(name = "GameRecord")
+@Table(name = "game")
+public class GameRecord {
+    @Id
+    @Column(nullable = false, length = 8, updatable = false)
+    private String code;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private Step step;
+
+    @Column(name = "die1", nullable = true)
+    private Integer die1;
+
+    @Column(name = "die2", nullable = true)
+    private Integer die2;
+
+    @Column(name = "rolled_once", nullable = false)
+    private Boolean rolledOnce;
+
+    @Column(name = "currentPlayerNumber", nullable = false)
+    private Integer currentPlayerNumber;
+
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    private long version;
+
+    @Column(name = "seed", nullable = false, columnDefinition = "bigint default 0")
+    private long seed;
+
+    @Column(name = "move_count", nullable = false, columnDefinition = "int default 0")
+    private int moveCount;
+
+    @Lob
+    @Column(name = "state", nullable = true)
+    private String state; //null until a game stored in the player and stock tables is first written in this mode
+
+    public GameRecord() {
+    }
+
+    public GameRecord(Game game, String state) {
+        this.code = game.getCode();
+        this.step = game.getStep();
+        this.die1 = game.getDie1();
+        this.die2 = game.getDie2();
+        this.rolledOnce = game.getRolledOnce();
+        this.currentPlayerNumber = game.getCurrentPlayerNumber();
+        this.version = game.getVersion();
+        this.seed = game.getSeed();
+        this.moveCount = game.getMoveCount();
+        this.state = state;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public Step getStep() {
+        return step;
+    }
+
+    public Integer getDie1() {
+        return die1;
+    }
+
+    public Integer getDie2() {
+        return die2;
+    }
+
+    public Boolean getRolledOnce() {
+        return rolledOnce;
+    }
+
+    public Integer getCurrentPlayerNumber() {
+        return currentPlayerNumber;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    public String getState() {
+        return state;
+    }
+}
@@ -228,6 +228,7 @@ public class Player {
     public Player deepCopy() {
         Player copy = new Player();
 
+        copy.setId(this.id);
         copy.setNumber(this.number);
         copy.setName(this.name);
         copy.setCoins(this.coins);
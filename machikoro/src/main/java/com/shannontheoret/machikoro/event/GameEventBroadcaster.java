@@ -0,0 +1,84 @@
+package com.shannontheoret.machikoro.event;
+
+import com.shannontheoret.machikoro.dto.GameDeltaDTO;
+import com.shannontheoret.machikoro.entity.Game;
+import com.shannontheoret.machikoro.state.GameState;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+//pushes committed game changes to subscribed clients, so watching a game costs no database reads
+@Component
+public class GameEventBroadcaster {
+    private static final long EMITTER_TIMEOUT_MILLIS = 30 * 60 * 1000L; //browsers reconnect on their own after this
+
+    private final Map<String, GameStream> streams = new ConcurrentHashMap<>();
+
+    //called under the game lock, so the game is the state every later delta starts from
+    public SseEmitter subscribe(Game game) {
+        String code = game.getCode();
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MILLIS);
+        streams.compute(code, (key, stream) -> {
+            GameStream gameStream = stream == null ? new GameStream(GameState.fromGame(game)) : stream;
+            gameStream.emitters.add(emitter);
+            return gameStream;
+        });
+        emitter.onCompletion(() -> unsubscribe(code, emitter));
+        emitter.onTimeout(() -> unsubscribe(code, emitter));
+        emitter.onError(error -> unsubscribe(code, emitter));
+        send(code, emitter, "game", game);
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void gameSaved(GameSavedEvent event) {
+        GameStream stream = streams.get(event.getCode());
+        if (stream == null) {
+            return;
+        }
+        GameDeltaDTO delta;
+        synchronized (stream) {
+            delta = GameDeltaDTO.between(event.getCode(), stream.lastState, event.getState());
+            stream.lastState = event.getState();
+        }
+        for (SseEmitter emitter : stream.emitters) {
+            send(event.getCode(), emitter, "delta", delta);
+        }
+    }
+
+    public int getSubscriberCount(String code) {
+        GameStream stream = streams.get(code);
+        return stream == null ? 0 : stream.emitters.size();
+    }
+
+    private void send(String code, SseEmitter emitter, String eventName, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(eventName).data(data, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) { //client went away or the emitter already completed
+            unsubscribe(code, emitter);
+        }
+    }
+
+    private void unsubscribe(String code, SseEmitter emitter) {
+        streams.computeIfPresent(code, (key, stream) -> {
+            stream.emitters.remove(emitter);
+            return stream.emitters.isEmpty() ? null : stream;
+        });
+    }
+
+    private static class GameStream {
+        private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+        private GameState lastState;
+
+        GameStream(GameState lastState) {
+            this.lastState = lastState;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.shannontheoret.machikoro.event;
+
+import com.shannontheoret.machikoro.state.GameState;
+
+//published by GameDao on every save and for every intermediate NPC step; inside a transaction listeners see it only once it commits
+public class GameSavedEvent {
+    private final String code;
+    private final GameState state;
+
+    public GameSavedEvent(String code, GameState state) {
+        this.code = code;
+        this.state = state;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public GameState getState() {
+        return state;
+    }
+}
@@ -0,0 +1,24 @@
+package com.shannontheoret.machikoro.expectimax;
+
+public class ExpectimaxSettings {
+    public static final ExpectimaxSettings DEFAULT = new ExpectimaxSettings(4, 50);
+
+    private final int maxDepth; //rolls searched ahead, rerolls included, before positions are scored
+    private final long timeBudgetMillis; //deepening stops at this deadline and keeps the last completed depth
+
+    public ExpectimaxSettings(int maxDepth, long timeBudgetMillis) {
+        if (maxDepth < 1 || timeBudgetMillis < 1) {
+            throw new IllegalArgumentException("Expectimax depth and time budget must be positive.");
+        }
+        this.maxDepth = maxDepth;
+        this.timeBudgetMillis = timeBudgetMillis;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public long getTimeBudgetMillis() {
+        return timeBudgetMillis;
+    }
+}
@@ -0,0 +1,472 @@
+package com.shannontheoret.machikoro.expectimax;
+
+import com.shannontheoret.machikoro.BuyingDecision;
+import com.shannontheoret.machikoro.Card;
+import com.shannontheoret.machikoro.CardCategory;
+import com.shannontheoret.machikoro.DieSource;
+import com.shannontheoret.machikoro.Landmark;
+import com.shannontheoret.machikoro.Step;
+import com.shannontheoret.machikoro.StrategicTurnDecisionEngine;
+import com.shannontheoret.machikoro.StrategyName;
+import com.shannontheoret.machikoro.TurnDecisionEngine;
+import com.shannontheoret.machikoro.entity.Game;
+import com.shannontheoret.machikoro.exception.GameMechanicException;
+import com.shannontheoret.machikoro.exception.InvalidMoveException;
+import com.shannontheoret.machikoro.state.GameState;
+import com.shannontheoret.machikoro.state.StateActions;
+import com.shannontheoret.machikoro.utilities.RollEffectCalculator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+//chooses the number of dice and whether to reroll by searching the rolls, rerolls, extra turns and purchases that follow;
+//purchases and steals actually made follow the heuristics, inside the search other players follow a fixed greedy policy
+public class ExpectimaxTurnDecisionEngine implements TurnDecisionEngine {
+    static final double LOWER = 0.0; //every position is scored between a certain loss and a certain win
+    static final double UPPER = 1.0;
+    private static final Card[] CARDS = Card.values();
+    private static final Landmark[] LANDMARKS = Landmark.values();
+    private static final Outcome[] ONE_DIE = oneDieOutcomes();
+    private static final Outcome[] TWO_DICE = twoDiceOutcomes();
+    private static final int INCOME_ROUNDS = 3; //rounds of expected income counted in a position's worth, so cards are not only a cost
+    private static final double COINS_TOWARDS_WORTH_FACTOR = 0.5;
+
+    private final StrategicTurnDecisionEngine heuristics;
+    private final Game game;
+    private final ExpectimaxSettings settings;
+    private final Map<ChanceKey, ChanceValue> chanceValues = new HashMap<>();
+    private final FixedDice dice = new FixedDice();
+    private int rootPlayerNumber;
+    private long deadline;
+    private boolean timedOut;
+
+    public ExpectimaxTurnDecisionEngine(Map<StrategyName, Integer> strategyDegrees, Game game, ExpectimaxSettings settings) throws GameMechanicException {
+        this.heuristics = new StrategicTurnDecisionEngine(strategyDegrees, game);
+        this.game = game;
+        this.settings = settings;
+    }
+
+    @Override
+    public boolean rollSingleDice() {
+        if (!game.getCurrentPlayer().hasTrainStation()) {
+            return true;
+        }
+        try {
+            int move = decide(GameState.fromGame(game));
+            return move < 0 ? heuristics.rollSingleDice() : move == 0;
+        } catch (InvalidMoveException e) {
+            return heuristics.rollSingleDice();
+        }
+    }
+
+    @Override
+    public boolean reroll() throws GameMechanicException {
+        try {
+            int move = decide(GameState.fromGame(game));
+            return move < 0 ? heuristics.reroll() : move == 0;
+        } catch (InvalidMoveException e) {
+            return heuristics.reroll();
+        }
+    }
+
+    @Override
+    public Integer choosePlayerToStealFrom() throws GameMechanicException {
+        return heuristics.choosePlayerToStealFrom();
+    }
+
+    @Override
+    public BuyingDecision makeBuyingDecision() throws GameMechanicException {
+        return heuristics.makeBuyingDecision();
+    }
+
+    //iterative deepening from a roll or reroll choice; the move of the deepest search finished in time, or -1 if none was.
+    //on a roll move 0 is one die and 1 is two, on a reroll move 0 is rerolling and 1 is keeping
+    int decide(GameState root) throws InvalidMoveException {
+        rootPlayerNumber = root.getCurrentPlayerNumber();
+        deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(settings.getTimeBudgetMillis());
+        timedOut = false;
+        int best = -1;
+        for (int depth = 1; depth <= settings.getMaxDepth(); depth++) {
+            int move = bestMove(root, depth);
+            if (timedOut) {
+                break;
+            }
+            best = move;
+        }
+        return best;
+    }
+
+    //one move searched to a fixed depth with the full window and no deadline, the exact value decide compares
+    double searchMove(GameState root, int move, int depth) throws InvalidMoveException {
+        rootPlayerNumber = root.getCurrentPlayerNumber();
+        deadline = System.nanoTime() + Long.MAX_VALUE / 2;
+        timedOut = false;
+        List<BuyingDecision> options = root.getStep() == Step.BUY ? buyingOptions(root) : null;
+        return moveValue(root, move, options, depth, LOWER, UPPER);
+    }
+
+    //keeping is tried first on a reroll, so a tie keeps the roll
+    private int bestMove(GameState state, int depth) throws InvalidMoveException {
+        int moves = moveCount(state, null);
+        int first = state.getStep() == Step.CONFIRM_ROLL ? 1 : 0;
+        int best = first;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < moves; i++) {
+            int move = (first + i) % moves;
+            double value = moveValue(state, move, null, depth, Math.max(LOWER, bestValue), UPPER);
+            if (timedOut) {
+                return best;
+            }
+            if (value > bestValue) {
+                bestValue = value;
+                best = move;
+            }
+        }
+        return best;
+    }
+
+    //fail-soft: a value at or below alpha is an upper bound, at or above beta a lower bound, in between exact
+    private double search(GameState state, int depth, double alpha, double beta) throws InvalidMoveException {
+        switch (state.getStep()) {
+            case WON:
+                return state.getCurrentPlayerNumber() == rootPlayerNumber ? UPPER : LOWER;
+            case STEAL:
+                GameState stolen = state.copy();
+                StateActions.steal(stolen, richestOtherPlayer(stolen));
+                return search(stolen, depth, alpha, beta);
+            default:
+                return state.getCurrentPlayerNumber() == rootPlayerNumber
+                        ? maxNode(state, depth, alpha, beta)
+                        : otherPlayerNode(state, depth, alpha, beta);
+        }
+    }
+
+    private double maxNode(GameState state, int depth, double alpha, double beta) throws InvalidMoveException {
+        List<BuyingDecision> options = state.getStep() == Step.BUY ? buyingOptions(state) : null;
+        int moves = moveCount(state, options);
+        double best = Double.NEGATIVE_INFINITY;
+        for (int move = 0; move < moves; move++) {
+            double value = moveValue(state, move, options, depth, Math.max(alpha, best), beta);
+            if (timedOut) {
+                return LOWER;
+            }
+            if (value > best) {
+                best = value;
+                if (best >= beta) {
+                    break;
+                }
+            }
+        }
+        return best;
+    }
+
+    private double otherPlayerNode(GameState state, int depth, double alpha, double beta) throws InvalidMoveException {
+        if (state.getStep() == Step.ROLL) {
+            return chance(state, rollsTwoDice(state, state.getCurrentPlayerNumber()), depth, alpha, beta);
+        }
+        GameState next = state.copy();
+        switch (state.getStep()) {
+            case CONFIRM_ROLL:
+                StateActions.confirmRoll(next);
+                break;
+            default:
+                buyGreedily(next);
+                break;
+        }
+        return search(next, depth, alpha, beta);
+    }
+
+    //move 0 of every choice is a chance node or ends the turn, so probing it is cheap and its value is usually remembered
+    private double moveValue(GameState state, int move, List<BuyingDecision> options, int depth, double alpha, double beta) throws InvalidMoveException {
+        switch (state.getStep()) {
+            case ROLL:
+                return chance(state, move == 1, depth, alpha, beta);
+            case CONFIRM_ROLL:
+                if (move == 0) {
+                    return chance(state, state.getDie2() != 0, depth, alpha, beta); //a reroll uses the same number of dice
+                }
+                GameState kept = state.copy();
+                StateActions.confirmRoll(kept);
+                return search(kept, depth, alpha, beta);
+            default:
+                GameState bought = state.copy();
+                if (move == 0) {
+                    StateActions.completeTurn(bought);
+                } else {
+                    apply(bought, options.get(move));
+                }
+                return search(bought, depth, alpha, beta);
+        }
+    }
+
+    private static int moveCount(GameState state, List<BuyingDecision> options) {
+        switch (state.getStep()) {
+            case ROLL:
+                return state.hasLandmark(state.getCurrentPlayerNumber(), Landmark.TRAIN_STATION) ? 2 : 1;
+            case CONFIRM_ROLL:
+                return 2;
+            default:
+                return options.size();
+        }
+    }
+
+    //a lower bound for a position after the searching player's roll: the value of its first move, as the player can do at least that well
+    private double probe(GameState state, int depth, double alpha, double beta) throws InvalidMoveException {
+        if (state.getStep() == Step.STEAL) {
+            GameState stolen = state.copy();
+            StateActions.steal(stolen, richestOtherPlayer(stolen));
+            return probe(stolen, depth, alpha, beta);
+        }
+        if (state.getStep() == Step.WON || state.getCurrentPlayerNumber() != rootPlayerNumber) {
+            return search(state, depth, alpha, beta);
+        }
+        return moveValue(state, 0, null, depth, alpha, beta);
+    }
+
+    //Star1 bounds each outcome's window by the best and worst the other outcomes could still score; when the searching
+    //player is the one rolling, a Star2 probing pass first raises those worst cases to each outcome's first move
+    private double chance(GameState state, boolean rollTwo, int depth, double alpha, double beta) throws InvalidMoveException {
+        if (depth == 0) {
+            return evaluate(state);
+        }
+        if (timedOut || System.nanoTime() - deadline >= 0) {
+            timedOut = true;
+            return LOWER;
+        }
+        ChanceKey key = new ChanceKey(keyState(state), rollTwo);
+        ChanceValue known = chanceValues.get(key);
+        if (known != null && known.depth() == depth) {
+            return known.value();
+        }
+
+        Outcome[] outcomes = rollTwo ? TWO_DICE : ONE_DIE;
+        GameState[] children = new GameState[outcomes.length];
+        for (int i = 0; i < outcomes.length; i++) {
+            children[i] = state.copy();
+            dice.set(outcomes[i]);
+            StateActions.roll(children[i], rollTwo, dice);
+        }
+        double[] lowerBounds = new double[outcomes.length];
+        Arrays.fill(lowerBounds, LOWER);
+
+        if (state.getCurrentPlayerNumber() == rootPlayerNumber) {
+            double probed = 0;
+            double remainingProbability = 1;
+            for (int i = 0; i < outcomes.length; i++) {
+                double probability = outcomes[i].probability();
+                remainingProbability -= probability;
+                double probeBeta = (beta - probed - remainingProbability * LOWER) / probability;
+                double value = probe(children[i], depth - 1, LOWER, Math.min(UPPER, probeBeta));
+                if (timedOut) {
+                    return LOWER;
+                }
+                if (value >= probeBeta) {
+                    return probed + probability * value + remainingProbability * LOWER;
+                }
+                lowerBounds[i] = value;
+                probed += probability * value;
+            }
+        }
+
+        double sum = 0;
+        double remainingProbability = 1;
+        double remainingLowerBound = 0;
+        for (int i = 0; i < outcomes.length; i++) {
+            remainingLowerBound += outcomes[i].probability() * lowerBounds[i];
+        }
+        for (int i = 0; i < outcomes.length; i++) {
+            double probability = outcomes[i].probability();
+            remainingProbability -= probability;
+            remainingLowerBound -= probability * lowerBounds[i];
+            double childAlpha = (alpha - sum - remainingProbability * UPPER) / probability;
+            double childBeta = (beta - sum - remainingLowerBound) / probability;
+            double value = search(children[i], depth - 1, Math.max(lowerBounds[i], childAlpha), Math.min(UPPER, childBeta));
+            if (timedOut) {
+                return LOWER;
+            }
+            value = Math.max(value, lowerBounds[i]);
+            sum += probability * value;
+            if (value <= childAlpha) {
+                return sum + remainingProbability * UPPER;
+            }
+            if (value >= childBeta) {
+                return sum + remainingLowerBound;
+            }
+        }
+        chanceValues.put(key, new ChanceValue(depth, sum));
+        return sum;
+    }
+
+    //the dice on the table and the step do not change what a roll can lead to; whether the player has already rolled is
+    //kept, as it decides whether a radio tower reroll is still allowed afterwards
+    private static GameState keyState(GameState state) {
+        GameState key = state.copy();
+        key.setDice(0, 0);
+        key.setStep(Step.ROLL);
+        return key;
+    }
+
+    //the searching player's share of everyone's worth, where worth is landmarks plus half of coins and a few rounds of expected income
+    private double evaluate(GameState state) {
+        double total = 0;
+        double own = 0;
+        for (int playerNumber = 1; playerNumber <= state.getPlayerCount(); playerNumber++) {
+            double worth = worth(state, playerNumber);
+            total += worth;
+            if (playerNumber == rootPlayerNumber) {
+                own = worth;
+            }
+        }
+        return total == 0 ? UPPER / state.getPlayerCount() : own / total;
+    }
+
+    private static double worth(GameState state, int playerNumber) {
+        int landmarkValue = 0;
+        for (Landmark landmark : LANDMARKS) {
+            if (state.hasLandmark(playerNumber, landmark)) {
+                landmarkValue += landmark.getCost();
+            }
+        }
+        double income = expectedIncomePerRound(state, playerNumber);
+        double coins = Math.min(Landmark.TOTAL_COST - landmarkValue, state.getCoins(playerNumber) + INCOME_ROUNDS * income);
+        return landmarkValue + coins * COINS_TOWARDS_WORTH_FACTOR;
+    }
+
+    //own turn with the better number of dice, plus blue and red income from everyone else's single die; coin caps are ignored
+    private static double expectedIncomePerRound(GameState state, int playerNumber) {
+        double ownTurn = expectedOwnTurnIncome(state, playerNumber, false);
+        if (state.hasLandmark(playerNumber, Landmark.TRAIN_STATION)) {
+            ownTurn = Math.max(ownTurn, expectedOwnTurnIncome(state, playerNumber, true));
+        }
+        double otherTurns = 0;
+        for (Outcome outcome : ONE_DIE) {
+            int roll = outcome.total();
+            otherTurns += outcome.probability() * (RollEffectCalculator.calculateBlueEffects(state, playerNumber, roll)
+                    + RollEffectCalculator.calculateRedClaim(state, playerNumber, roll));
+        }
+        return ownTurn + otherTurns * (state.getPlayerCount() - 1);
+    }
+
+    private static double expectedOwnTurnIncome(GameState state, int playerNumber, boolean rollTwo) {
+        double income = 0;
+        for (Outcome outcome : rollTwo ? TWO_DICE : ONE_DIE) {
+            income += outcome.probability() * RollEffectCalculator.calculateGreenAndBlueEffects(state, playerNumber, outcome.total());
+        }
+        return income;
+    }
+
+    private static boolean rollsTwoDice(GameState state, int playerNumber) {
+        return state.hasLandmark(playerNumber, Landmark.TRAIN_STATION)
+                && expectedOwnTurnIncome(state, playerNumber, true) > expectedOwnTurnIncome(state, playerNumber, false);
+    }
+
+    //ending the turn first, so it is the move a probe looks at
+    private static List<BuyingDecision> buyingOptions(GameState state) {
+        int playerNumber = state.getCurrentPlayerNumber();
+        int coins = state.getCoins(playerNumber);
+        List<BuyingDecision> options = new ArrayList<>();
+        options.add(BuyingDecision.endTurn());
+        for (Landmark landmark : LANDMARKS) {
+            if (landmark.getCost() <= coins && !state.hasLandmark(playerNumber, landmark)) {
+                options.add(BuyingDecision.buyLandmark(landmark));
+            }
+        }
+        for (Card card : CARDS) {
+            if (card.getCost() <= coins && state.getStock(card) > 0
+                    && !(card.getCategory() == CardCategory.PURPLE && state.hasCard(playerNumber, card))) {
+                options.add(BuyingDecision.buyCard(card));
+            }
+        }
+        return options;
+    }
+
+    private static void apply(GameState state, BuyingDecision decision) throws InvalidMoveException {
+        if (decision.isBuyingCard()) {
+            StateActions.purchaseCard(state, decision.getCardToPurchase());
+        } else if (decision.isBuyingLandmark()) {
+            StateActions.purchaseLandmark(state, decision.getLandmarkToPurchase());
+        } else {
+            StateActions.completeTurn(state);
+        }
+    }
+
+    //the most expensive landmark affordable, otherwise nothing
+    private static void buyGreedily(GameState state) throws InvalidMoveException {
+        int playerNumber = state.getCurrentPlayerNumber();
+        for (int landmarkIndex = LANDMARKS.length - 1; landmarkIndex >= 0; landmarkIndex--) {
+            Landmark landmark = LANDMARKS[landmarkIndex];
+            if (!state.hasLandmark(playerNumber, landmark) && landmark.getCost() <= state.getCoins(playerNumber)) {
+                StateActions.purchaseLandmark(state, landmark);
+                return;
+            }
+        }
+        StateActions.completeTurn(state);
+    }
+
+    private static int richestOtherPlayer(GameState state) {
+        int currentPlayerNumber = state.getCurrentPlayerNumber();
+        int richestPlayerNumber = state.getNextPlayerNumber(currentPlayerNumber);
+        for (int playerNumber = state.getNextPlayerNumber(richestPlayerNumber); playerNumber != currentPlayerNumber; playerNumber = state.getNextPlayerNumber(playerNumber)) {
+            if (state.getCoins(playerNumber) > state.getCoins(richestPlayerNumber)) {
+                richestPlayerNumber = playerNumber;
+            }
+        }
+        return richestPlayerNumber;
+    }
+
+    private static Outcome[] oneDieOutcomes() {
+        Outcome[] outcomes = new Outcome[6];
+        for (int die = 1; die <= 6; die++) {
+            outcomes[die - 1] = new Outcome(die, 0, 1.0 / 6);
+        }
+        return outcomes;
+    }
+
+    //unordered pairs, so the 36 rolls take 21 outcomes; doubles are kept apart for the amusement park
+    private static Outcome[] twoDiceOutcomes() {
+        List<Outcome> outcomes = new ArrayList<>();
+        for (int die1 = 1; die1 <= 6; die1++) {
+            for (int die2 = die1; die2 <= 6; die2++) {
+                outcomes.add(new Outcome(die1, die2, (die1 == die2 ? 1.0 : 2.0) / 36));
+            }
+        }
+        return outcomes.toArray(new Outcome[0]);
+    }
+
+    private record Outcome(int die1, int die2, double probability) {
+        int total() {
+            return die1 + die2;
+        }
+    }
+
+    private record ChanceKey(GameState state, boolean rollTwo) {
+    }
+
+    private record ChanceValue(int depth, double value) {
+    }
+
+    private static class FixedDice implements DieSource {
+        private int die1;
+        private int die2;
+        private boolean rolledFirst;
+
+        void set(Outcome outcome) {
+            die1 = outcome.die1();
+            die2 = outcome.die2();
+            rolledFirst = false;
+        }
+
+        @Override
+        public int roll() {
+            if (rolledFirst) {
+                return die2;
+            }
+            rolledFirst = true;
+            return die1;
+        }
+    }
+}
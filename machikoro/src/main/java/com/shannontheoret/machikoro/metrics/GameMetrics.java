@@ -0,0 +1,100 @@
+package com.shannontheoret.machikoro.metrics;
+
+import com.shannontheoret.machikoro.DecisionCache;
+import com.shannontheoret.machikoro.Step;
+import com.shannontheoret.machikoro.dao.ActiveGameCache;
+import io.micrometer.core.instrument.*;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+//meters live on the global registry, which spring boot wires to the prometheus endpoint, so static game code can record without injection;
+//tags are limited to action, step, player count and outcome, never the game code
+public final class GameMetrics {
+    public static final String OUTCOME_OK = "ok";
+    public static final String OUTCOME_REJECTED = "rejected";
+    public static final String OUTCOME_ERROR = "error";
+
+    private static final MeterRegistry REGISTRY = Metrics.globalRegistry;
+    private static final Map<String, Timer> TIMERS = new ConcurrentHashMap<>();
+    private static final Map<String, Counter> COUNTERS = new ConcurrentHashMap<>();
+
+    private GameMetrics() {
+    }
+
+    public static long start() {
+        return System.nanoTime();
+    }
+
+    //a game action requested by a player or run for an NPC; successful ones also count towards moves per second
+    public static void recordAction(String action, Step step, int players, String outcome, long startNanos) {
+        String key = "action:" + action + ":" + step + ":" + players + ":" + outcome;
+        TIMERS.computeIfAbsent(key, ignored -> histogram(Timer.builder("machikoro.game.action"), Duration.ofMillis(1), Duration.ofSeconds(10))
+                .tag("action", action)
+                .tag("step", String.valueOf(step))
+                .tag("players", String.valueOf(players))
+                .tag("outcome", outcome)
+                .register(REGISTRY))
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        if (OUTCOME_OK.equals(outcome)) {
+            COUNTERS.computeIfAbsent("moves:" + action + ":" + players, ignored -> Counter.builder("machikoro.moves")
+                    .tag("action", action)
+                    .tag("players", String.valueOf(players))
+                    .register(REGISTRY))
+                    .increment();
+        }
+    }
+
+    public static void recordDecision(String decision, int players, long startNanos) {
+        String key = "decision:" + decision + ":" + players;
+        TIMERS.computeIfAbsent(key, ignored -> histogram(Timer.builder("machikoro.npc.decision"), Duration.ofNanos(10000), Duration.ofSeconds(1))
+                .tag("decision", decision)
+                .tag("players", String.valueOf(players))
+                .register(REGISTRY))
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public static <T> T timeDatabase(String operation, Supplier<T> call) {
+        return TIMERS.computeIfAbsent("db:" + operation, ignored -> histogram(Timer.builder("machikoro.db"), Duration.ofMillis(1), Duration.ofSeconds(10))
+                .tag("operation", operation)
+                .register(REGISTRY))
+                .record(call);
+    }
+
+    public static void timeDatabase(String operation, Runnable call) {
+        timeDatabase(operation, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    public static void registerActiveGames(ActiveGameCache activeGameCache) {
+        Gauge.builder("machikoro.games.active", activeGameCache, ActiveGameCache::size)
+                .description("Games held in memory")
+                .register(REGISTRY);
+    }
+
+    public static void registerDecisionCache(DecisionCache decisionCache) {
+        Gauge.builder("machikoro.npc.decision.cache.size", decisionCache, DecisionCache::size)
+                .description("Positions held by the NPC decision cache")
+                .register(REGISTRY);
+        Gauge.builder("machikoro.npc.decision.cache.hit.ratio", decisionCache, DecisionCache::getHitRate)
+                .register(REGISTRY);
+        FunctionCounter.builder("machikoro.npc.decision.cache.requests", decisionCache, DecisionCache::getHits)
+                .tag("result", "hit")
+                .register(REGISTRY);
+        FunctionCounter.builder("machikoro.npc.decision.cache.requests", decisionCache, DecisionCache::getMisses)
+                .tag("result", "miss")
+                .register(REGISTRY);
+    }
+
+    //bounded buckets keep the series count small: a few per tag combination instead of the default spread
+    private static Timer.Builder histogram(Timer.Builder builder, Duration minimum, Duration maximum) {
+        return builder.publishPercentileHistogram()
+                .minimumExpectedValue(minimum)
+                .maximumExpectedValue(maximum);
+    }
+}
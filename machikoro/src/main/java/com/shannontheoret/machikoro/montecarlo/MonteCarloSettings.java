@@ -0,0 +1,30 @@
+package com.shannontheoret.machikoro.montecarlo;
+
+public class MonteCarloSettings {
+    public static final MonteCarloSettings DEFAULT = new MonteCarloSettings(2000, 150, 200);
+
+    private final int rolloutBudget; //rollouts per buying decision, shared across all candidates
+    private final long timeBudgetMillis; //hard deadline per buying decision
+    private final int maxRolloutTurns; //rollouts still unfinished after this many turns are scored on progress
+
+    public MonteCarloSettings(int rolloutBudget, long timeBudgetMillis, int maxRolloutTurns) {
+        if (rolloutBudget < 1 || timeBudgetMillis < 1 || maxRolloutTurns < 1) {
+            throw new IllegalArgumentException("Monte Carlo budgets must be positive.");
+        }
+        this.rolloutBudget = rolloutBudget;
+        this.timeBudgetMillis = timeBudgetMillis;
+        this.maxRolloutTurns = maxRolloutTurns;
+    }
+
+    public int getRolloutBudget() {
+        return rolloutBudget;
+    }
+
+    public long getTimeBudgetMillis() {
+        return timeBudgetMillis;
+    }
+
+    public int getMaxRolloutTurns() {
+        return maxRolloutTurns;
+    }
+}
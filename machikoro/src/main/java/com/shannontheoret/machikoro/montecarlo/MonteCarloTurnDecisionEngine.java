@@ -0,0 +1,204 @@
+package com.shannontheoret.machikoro.montecarlo;
+
+import com.shannontheoret.machikoro.BuyingDecision;
+import com.shannontheoret.machikoro.Card;
+import com.shannontheoret.machikoro.CardCategory;
+import com.shannontheoret.machikoro.Landmark;
+import com.shannontheoret.machikoro.StrategicTurnDecisionEngine;
+import com.shannontheoret.machikoro.StrategyName;
+import com.shannontheoret.machikoro.TurnDecisionEngine;
+import com.shannontheoret.machikoro.entity.Game;
+import com.shannontheoret.machikoro.exception.GameMechanicException;
+import com.shannontheoret.machikoro.exception.InvalidMoveException;
+import com.shannontheoret.machikoro.state.GameState;
+import com.shannontheoret.machikoro.state.StateActions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.*;
+
+//chooses purchases by playing the rest of the game out many times per candidate; rolling and stealing follow the heuristics
+public class MonteCarloTurnDecisionEngine implements TurnDecisionEngine {
+    private static final int WORKER_COUNT = Runtime.getRuntime().availableProcessors();
+    private static final int QUEUED_TASKS_PER_WORKER = 64;
+    private static final ThreadPoolExecutor ROLLOUT_EXECUTOR = new ThreadPoolExecutor(WORKER_COUNT, WORKER_COUNT, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(WORKER_COUNT * QUEUED_TASKS_PER_WORKER), runnable -> {
+                Thread thread = new Thread(runnable, "monte-carlo-rollout");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private final StrategicTurnDecisionEngine heuristics;
+    private final Game game;
+    private final MonteCarloSettings settings;
+    private final SplittableRandom random;
+
+    public MonteCarloTurnDecisionEngine(Map<StrategyName, Integer> strategyDegrees, Game game, MonteCarloSettings settings) throws GameMechanicException {
+        this(strategyDegrees, game, settings, ThreadLocalRandom.current().nextLong());
+    }
+
+    public MonteCarloTurnDecisionEngine(Map<StrategyName, Integer> strategyDegrees, Game game, MonteCarloSettings settings, long seed) throws GameMechanicException {
+        this.heuristics = new StrategicTurnDecisionEngine(strategyDegrees, game);
+        this.game = game;
+        this.settings = settings;
+        this.random = new SplittableRandom(seed);
+    }
+
+    @Override
+    public boolean rollSingleDice() {
+        return heuristics.rollSingleDice();
+    }
+
+    @Override
+    public boolean reroll() throws GameMechanicException {
+        return heuristics.reroll();
+    }
+
+    @Override
+    public Integer choosePlayerToStealFrom() throws GameMechanicException {
+        return heuristics.choosePlayerToStealFrom();
+    }
+
+    @Override
+    public BuyingDecision makeBuyingDecision() throws GameMechanicException {
+        long start = System.nanoTime();
+        GameState root = GameState.fromGame(game);
+        List<BuyingDecision> candidates = findCandidates(root);
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+
+        int best = playRollouts(root, candidates, start).best();
+        return best < 0 ? heuristics.makeBuyingDecision() : candidates.get(best);
+    }
+
+    //workers stop at three quarters of the budget so their tallies are in before the caller stops waiting at the end of it
+    RolloutTally playRollouts(GameState root, List<BuyingDecision> candidates, long start) throws GameMechanicException {
+        long budget = TimeUnit.MILLISECONDS.toNanos(settings.getTimeBudgetMillis());
+        long deadline = start + budget;
+        long workerDeadline = start + budget * 3 / 4;
+        int taskCount = Math.min(WORKER_COUNT, settings.getRolloutBudget());
+        List<FutureTask<RolloutTally>> tasks = new ArrayList<>(taskCount);
+        List<FutureTask<RolloutTally>> rejected = new ArrayList<>();
+        for (int task = 0; task < taskCount; task++) {
+            int firstRollout = task;
+            SplittableRandom taskRandom = random.split();
+            FutureTask<RolloutTally> rollouts = new FutureTask<>(() -> runRollouts(root, candidates, firstRollout, taskCount, taskRandom, workerDeadline));
+            tasks.add(rollouts);
+            try {
+                ROLLOUT_EXECUTOR.execute(rollouts);
+            } catch (RejectedExecutionException e) {
+                rejected.add(rollouts); //the pool is full; the caller plays these itself
+            }
+        }
+        rejected.forEach(FutureTask::run);
+
+        RolloutTally total = new RolloutTally(candidates.size());
+        for (FutureTask<RolloutTally> task : tasks) {
+            try {
+                total.add(task.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            } catch (TimeoutException e) {
+                task.cancel(true); //a rollout still in progress at the deadline is dropped rather than waited for
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                tasks.forEach(pending -> pending.cancel(true));
+                break;
+            } catch (ExecutionException e) {
+                throw new GameMechanicException("Monte Carlo rollout failed: " + e.getCause().getMessage());
+            }
+        }
+        return total;
+    }
+
+    //ending the turn first, so ties and an exhausted budget favour not spending
+    private static List<BuyingDecision> findCandidates(GameState state) {
+        int playerNumber = state.getCurrentPlayerNumber();
+        int coins = state.getCoins(playerNumber);
+        List<BuyingDecision> candidates = new ArrayList<>();
+        candidates.add(BuyingDecision.endTurn());
+        for (Card card : Card.values()) {
+            if (card.getCost() <= coins && state.getStock(card) > 0
+                    && !(card.getCategory() == CardCategory.PURPLE && state.hasCard(playerNumber, card))) {
+                candidates.add(BuyingDecision.buyCard(card));
+            }
+        }
+        for (Landmark landmark : Landmark.values()) {
+            if (landmark.getCost() <= coins && !state.hasLandmark(playerNumber, landmark)) {
+                candidates.add(BuyingDecision.buyLandmark(landmark));
+            }
+        }
+        return candidates;
+    }
+
+    private RolloutTally runRollouts(GameState root, List<BuyingDecision> candidates, int firstRollout, int stride, SplittableRandom taskRandom, long deadline) throws InvalidMoveException {
+        int playerNumber = root.getCurrentPlayerNumber();
+        GameState scratch = root.copy();
+        RolloutPolicy policy = new RolloutPolicy(taskRandom, settings.getMaxRolloutTurns());
+        RolloutTally tally = new RolloutTally(candidates.size());
+        for (int rollout = firstRollout; rollout < settings.getRolloutBudget(); rollout += stride) {
+            if (System.nanoTime() - deadline >= 0 || Thread.currentThread().isInterrupted()) {
+                break;
+            }
+            int candidate = rollout % candidates.size();
+            scratch.copyFrom(root);
+            apply(scratch, candidates.get(candidate));
+            tally.record(candidate, policy.playOut(scratch, playerNumber));
+        }
+        return tally;
+    }
+
+    private static void apply(GameState state, BuyingDecision decision) throws InvalidMoveException {
+        if (decision.isBuyingCard()) {
+            StateActions.purchaseCard(state, decision.getCardToPurchase());
+        } else if (decision.isBuyingLandmark()) {
+            StateActions.purchaseLandmark(state, decision.getLandmarkToPurchase());
+        } else {
+            StateActions.completeTurn(state);
+        }
+    }
+
+    static class RolloutTally {
+        private final double[] scores;
+        private final int[] visits;
+
+        RolloutTally(int candidateCount) {
+            scores = new double[candidateCount];
+            visits = new int[candidateCount];
+        }
+
+        void record(int candidate, double score) {
+            scores[candidate] += score;
+            visits[candidate]++;
+        }
+
+        void add(RolloutTally other) {
+            for (int candidate = 0; candidate < scores.length; candidate++) {
+                scores[candidate] += other.scores[candidate];
+                visits[candidate] += other.visits[candidate];
+            }
+        }
+
+        int getRollouts() {
+            int rollouts = 0;
+            for (int candidateVisits : visits) {
+                rollouts += candidateVisits;
+            }
+            return rollouts;
+        }
+
+        //index of the best mean score, or -1 if nothing was played
+        int best() {
+            int best = -1;
+            double bestMean = Double.NEGATIVE_INFINITY;
+            for (int candidate = 0; candidate < scores.length; candidate++) {
+                if (visits[candidate] > 0 && scores[candidate] / visits[candidate] > bestMean) {
+                    bestMean = scores[candidate] / visits[candidate];
+                    best = candidate;
+                }
+            }
+            return best;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.shannontheoret.machikoro.montecarlo;
+
+import com.shannontheoret.machikoro.Card;
+import com.shannontheoret.machikoro.CardCategory;
+import com.shannontheoret.machikoro.DieSource;
+import com.shannontheoret.machikoro.Landmark;
+import com.shannontheoret.machikoro.Step;
+import com.shannontheoret.machikoro.exception.InvalidMoveException;
+import com.shannontheoret.machikoro.state.GameState;
+import com.shannontheoret.machikoro.state.StateActions;
+
+import java.util.random.RandomGenerator;
+
+//cheap randomized play used to finish a game from a candidate position; allocates nothing per move
+public class RolloutPolicy implements DieSource {
+    private static final Card[] CARDS = Card.values();
+    private static final Landmark[] LANDMARKS = Landmark.values();
+    private static final int CARDS_NEEDING_TWO_DICE = cardsActivatingAtOrAbove(7);
+    private static final int CARD_PURCHASE_ODDS = 4; //buy a card three turns in four when no landmark is affordable
+    private static final double WIN_DISCOUNT_PER_TURN = 0.001; //so a win now beats a likely win later
+
+    private final RandomGenerator random;
+    private final int maxTurns;
+
+    public RolloutPolicy(RandomGenerator random, int maxTurns) {
+        this.random = random;
+        this.maxTurns = maxTurns;
+    }
+
+    @Override
+    public int roll() {
+        return random.nextInt(6) + 1;
+    }
+
+    //close to 1 for a win, 0 for a loss, or the player's share of total progress if the turn limit is reached
+    public double playOut(GameState state, int playerNumber) throws InvalidMoveException {
+        int turns = 0;
+        while (state.getStep() != Step.WON) {
+            switch (state.getStep()) {
+                case ROLL:
+                    StateActions.roll(state, rollTwo(state), this);
+                    break;
+                case CONFIRM_ROLL:
+                    StateActions.confirmRoll(state);
+                    break;
+                case STEAL:
+                    StateActions.steal(state, richestOtherPlayer(state));
+                    break;
+                case BUY:
+                    buy(state);
+                    turns++;
+                    if (turns >= maxTurns && state.getStep() != Step.WON) {
+                        return progressShare(state, playerNumber);
+                    }
+                    break;
+                default:
+                    throw new IllegalStateException("Unexpected step: " + state.getStep());
+            }
+        }
+        return state.getCurrentPlayerNumber() == playerNumber ? 1.0 - turns * WIN_DISCOUNT_PER_TURN : 0.0;
+    }
+
+    private boolean rollTwo(GameState state) {
+        int playerNumber = state.getCurrentPlayerNumber();
+        if (!state.hasLandmark(playerNumber, Landmark.TRAIN_STATION)) {
+            return false;
+        }
+        for (int cards = CARDS_NEEDING_TWO_DICE; cards != 0; cards &= cards - 1) {
+            if (state.getCardCount(playerNumber, Integer.numberOfTrailingZeros(cards)) > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int richestOtherPlayer(GameState state) {
+        int currentPlayerNumber = state.getCurrentPlayerNumber();
+        int richestPlayerNumber = state.getNextPlayerNumber(currentPlayerNumber);
+        for (int playerNumber = state.getNextPlayerNumber(richestPlayerNumber); playerNumber != currentPlayerNumber; playerNumber = state.getNextPlayerNumber(playerNumber)) {
+            if (state.getCoins(playerNumber) > state.getCoins(richestPlayerNumber)) {
+                richestPlayerNumber = playerNumber;
+            }
+        }
+        return richestPlayerNumber;
+    }
+
+    private void buy(GameState state) throws InvalidMoveException {
+        int playerNumber = state.getCurrentPlayerNumber();
+        int coins = state.getCoins(playerNumber);
+        for (int landmarkIndex = LANDMARKS.length - 1; landmarkIndex >= 0; landmarkIndex--) {
+            Landmark landmark = LANDMARKS[landmarkIndex];
+            if (!state.hasLandmark(playerNumber, landmark) && landmark.getCost() <= coins) {
+                StateActions.purchaseLandmark(state, landmark);
+                return;
+            }
+        }
+        if (random.nextInt(CARD_PURCHASE_ODDS) != 0) {
+            Card choice = null;
+            int affordableCards = 0;
+            for (Card card : CARDS) {
+                if (card.getCost() <= coins && state.getStock(card) > 0
+                        && !(card.getCategory() == CardCategory.PURPLE && state.hasCard(playerNumber, card))) {
+                    affordableCards++;
+                    if (random.nextInt(affordableCards) == 0) {
+                        choice = card;
+                    }
+                }
+            }
+            if (choice != null) {
+                StateActions.purchaseCard(state, choice);
+                return;
+            }
+        }
+        StateActions.completeTurn(state);
+    }
+
+    private static double progressShare(GameState state, int playerNumber) {
+        double totalProgress = 0;
+        for (int otherPlayerNumber = 1; otherPlayerNumber <= state.getPlayerCount(); otherPlayerNumber++) {
+            totalProgress += state.getProgress(otherPlayerNumber);
+        }
+        return totalProgress == 0 ? 0.0 : state.getProgress(playerNumber) / totalProgress;
+    }
+
+    private static int cardsActivatingAtOrAbove(int minimumRoll) {
+        int cards = 0;
+        for (int roll = minimumRoll; roll <= Card.MAX_ROLL; roll++) {
+            cards |= Card.blueCardsForRoll(roll) | Card.greenCardsForRoll(roll);
+        }
+        return cards;
+    }
+}
@@ -3,19 +3,23 @@ package com.shannontheoret.machikoro.service;
 import com.shannontheoret.machikoro.*;
 import com.shannontheoret.machikoro.dao.GameDao;
 import com.shannontheoret.machikoro.dao.PlayerDao;
+import com.shannontheoret.machikoro.dto.GameDeltaDTO;
 import com.shannontheoret.machikoro.dto.PlayerDTO;
 import com.shannontheoret.machikoro.entity.Game;
 import com.shannontheoret.machikoro.entity.Player;
 import com.shannontheoret.machikoro.exception.GameCodeNotFoundException;
+import com.shannontheoret.machikoro.exception.GameException;
 import com.shannontheoret.machikoro.exception.GameMechanicException;
 import com.shannontheoret.machikoro.exception.InvalidMoveException;
+import com.shannontheoret.machikoro.metrics.GameMetrics;
+import com.shannontheoret.machikoro.state.GameState;
 import com.shannontheoret.machikoro.utilities.GameUtilities;
-import com.shannontheoret.machikoro.utilities.RollEffectCalculator;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.function.Function;
 
 @Service
 public class GameService {
@@ -23,12 +27,38 @@ public class GameService {
     private GameDao gameDao;
     private PlayerDao playerDao;
     private GameUtilities gameUtilities;
+    private TurnDecisionEngineFactory decisionEngines;
 
     @Autowired
-    public GameService(GameDao gameDao, PlayerDao playerDao, GameUtilities gameUtilities) {
+    public GameService(GameDao gameDao, PlayerDao playerDao, GameUtilities gameUtilities, TurnDecisionEngineFactory decisionEngines) {
         this.gameDao = gameDao;
         this.playerDao = playerDao;
         this.gameUtilities = gameUtilities;
+        this.decisionEngines = decisionEngines;
+    }
+
+    //not transactional itself, so the action's transaction has committed before the lock is released;
+    //returns a copy taken under the lock, the cached game may be mutated again while the response is written
+    public Game withGameLock(String code, GameDao.GameAction<Game> action) throws GameException {
+        return gameDao.withGameLock(code, () -> action.run().deepCopy());
+    }
+
+    public Game snapshot(String code) throws GameException {
+        return withGameLock(code, () -> findByCode(code));
+    }
+
+    //changes are published under the game lock, so none can fall between the copy handed to the subscriber and its subscription
+    public <T> T subscribe(String code, Function<Game, T> subscriber) throws GameException {
+        return gameDao.withGameLock(code, () -> subscriber.apply(findByCode(code).deepCopy()));
+    }
+
+    //what changed since the client's copy at knownMoveCount; null when that state is no longer held and the whole game has to be sent
+    public GameDeltaDTO deltaSince(Game game, int knownMoveCount) {
+        GameState known = gameDao.findRecentState(game.getCode(), knownMoveCount);
+        if (known == null) {
+            return null;
+        }
+        return GameDeltaDTO.between(game.getCode(), knownMoveCount, known, game.getMoveCount(), GameState.fromGame(game));
     }
 
     @Transactional
@@ -42,28 +72,10 @@ public class GameService {
 
     @Transactional
     public Game newGame(Integer numberOfPlayers) throws GameMechanicException {
-        Game game = new Game();
-        game.setCode(gameUtilities.generateCode());
-        if (numberOfPlayers < GameRules.MIN_PLAYERS || numberOfPlayers > GameRules.MAX_PLAYERS) {
-            throw new IllegalArgumentException("Number of players must be between " + GameRules.MIN_PLAYERS + " and " + GameRules.MAX_PLAYERS);
-        }
-        Set<Player> players = new HashSet<>();
-        for (int i = 1; i <= numberOfPlayers; i++) {
-            Player player = new Player();
-            player.setNumber(i);
-            player.setName("Player " + i);
-            players.add(player);
-        }
-        game.setPlayers(players);
-        Map<Card, Integer> gameStock = game.getGameStock();
-        for (Card card : Card.values()) {
-            if (card.getCategory() == CardCategory.PURPLE) {
-                gameStock.put(card, numberOfPlayers);
-            } else {
-                gameStock.put(card, GameRules.STARTING_STOCK);
-            }
-        }
-        game.setStep(Step.SETUP);
+        String code = gameUtilities.generateCode();
+        Game game = GameActions.createGame(numberOfPlayers);
+        game.setCode(code);
+        game.setSeed(gameUtilities.generateSeed());
         return game;
     }
 
@@ -87,168 +99,71 @@ public class GameService {
             return game;
     }
 
-    @Transactional
-    public Game beginGame(List<PlayerDTO> players) throws GameCodeNotFoundException, InvalidMoveException, GameMechanicException {
+    //not transactional itself, so the game's first write has committed before its lock is released; like withGameLock it
+    //returns a copy taken under the lock, as NPC auto play may start mutating the cached game straight away
+    public Game beginGame(List<PlayerDTO> players) throws GameException {
         Game game = newGame(players.size());
         for (PlayerDTO player : players) {
             setupPlayer(game, player);
         }
         game.setStep(Step.ROLL);
         game.setCurrentPlayerNumber(1);
-        save(game);
-        return game;
+        return gameDao.withNewGameLock(game, () -> {
+            save(game);
+            return game.deepCopy();
+        });
     }
 
     @Transactional
     public Game roll(String code, Boolean rollTwo) throws GameMechanicException, GameCodeNotFoundException, InvalidMoveException {
-        Game game = findByCode(code);
-        if (game.getStep() != Step.ROLL && game.getStep() != Step.CONFIRM_ROLL) {
-            throw new InvalidMoveException("Cannot roll dice at this time.");
-        }
-        Player currentPlayer = game.getCurrentPlayer();
-        game.setDie1(gameUtilities.generateRandomDieRoll());
-        if (rollTwo) {
-            if(!currentPlayer.hasTrainStation()) {
-                throw new InvalidMoveException("Player cannot roll two dice because player does not have a train station.");
-            }
-            game.setDie2(gameUtilities.generateRandomDieRoll());
-        } else {
-            game.setDie2(0);
-        }
-        if (currentPlayer.hasRadioTower() && !game.getRolledOnce()) {
-            game.setRolledOnce(true);
-            game.setStep(Step.CONFIRM_ROLL);
-        } else {
-            acceptRoll(game);
-        }
-        save(game);
-        return game;
+        return play("roll", code, game -> GameActions.roll(game, rollTwo, GameUtilities.dieSource(gameUtilities, game)));
     }
 
     @Transactional
     public Game confirmRoll(String code) throws GameMechanicException, GameCodeNotFoundException, InvalidMoveException {
-        Game game = findByCode(code);
-        if (game.getStep() != Step.CONFIRM_ROLL) {
-            throw new InvalidMoveException("Cannot confirm roll at this time.");
-        }
-        acceptRoll(game);
-        save(game);
-        return game;
+        return play("confirmRoll", code, game -> GameActions.confirmRoll(game));
     }
 
     @Transactional
     public Game steal(String code, Integer playerNumberToStealFrom) throws GameMechanicException, GameCodeNotFoundException, InvalidMoveException {
-        Game game = findByCode(code);
-        Player currentPlayer = game.getCurrentPlayer();
-        if (game.getStep() != Step.STEAL || currentPlayer.getStock().getOrDefault(Card.TV_STATION, 0) == 0) {
-            throw new InvalidMoveException("Cannot steal at this time.");
-        }
-        Player playerToStealFrom = game.getPlayerByNumber(playerNumberToStealFrom);
-        Integer amountToSteal = 0;
-        if (playerToStealFrom.getCoins() < Card.TV_STATION.getAmountGained()) {
-            amountToSteal = playerToStealFrom.getCoins();
-        } else {
-            amountToSteal = Card.TV_STATION.getAmountGained();
-        }
-        playerToStealFrom.decreaseCoinCount(amountToSteal);
-        currentPlayer.increaseCoinCount(amountToSteal);
-        game.setStep(Step.BUY);
-        save(game);
-        return game;
+        return play("steal", code, game -> GameActions.steal(game, playerNumberToStealFrom));
     }
 
     @Transactional
     public Game purchaseCard(String code, Card card) throws GameMechanicException, GameCodeNotFoundException, InvalidMoveException {
-        Game game = findByCode(code);
-        if (game.getStep() != Step.BUY) {
-            throw new InvalidMoveException("Cannot purchase card at this time.");
-        }
-        if (game.getGameStock().get(card) == 0) {
-            throw new InvalidMoveException("Card not in stock.");
-        }
-        Player currentPlayer = game.getCurrentPlayer();
-        if (currentPlayer.getCoins() < card.getCost()) {
-            throw new InvalidMoveException("Player does not have enough coins to purchase card.");
-        }
-        if (card.getCategory() == CardCategory.PURPLE && currentPlayer.getStock().getOrDefault(card, 0) == 1) {
-            throw new InvalidMoveException("Player cannot purchase the same purple card twice.");
-        }
-        currentPlayer.purchaseCard(card);
-        Integer stockQuantity = game.getGameStock().get(card);
-        stockQuantity--;
-        game.getGameStock().put(card, stockQuantity);
-        endTurn(game);
-        save(game);
-        return game;
+        return play("purchaseCard", code, game -> GameActions.purchaseCard(game, card));
     }
 
     @Transactional
     public Game purchaseLandmark(String code, Landmark landmark) throws GameMechanicException, GameCodeNotFoundException, InvalidMoveException {
-        Game game = findByCode(code);
-        if (game.getStep() != Step.BUY) {
-            throw new InvalidMoveException("Cannot purchase landmark at this time.");
-        }
-        Player currentPlayer = game.getCurrentPlayer();
-        if (currentPlayer.getCoins() < landmark.getCost()) {
-            throw new InvalidMoveException("Player does not have enough coins to purchase landmark.");
-        }
-        if (currentPlayer.hasLandmark(landmark)) {
-            throw new InvalidMoveException("Player cannot purchase the same landmark twice.");
-        }
-        currentPlayer.purchaseLandmark(landmark);
-        endTurn(game);
-        save(game);
-        return game;
+        return play("purchaseLandmark", code, game -> GameActions.purchaseLandmark(game, landmark));
     }
 
     @Transactional
     public Game completeTurn(String code) throws GameMechanicException, GameCodeNotFoundException, InvalidMoveException {
-        Game game = findByCode(code);
-
-        if (game.getStep() != Step.BUY) {
-            throw new InvalidMoveException("Cannot complete turn at this time.");
-        }
-        endTurn(game);
-        save(game);
-        return game;
+        return play("completeTurn", code, game -> GameActions.completeTurn(game));
     }
 
     @Transactional
     public Game makeNPCMove(String code) throws GameCodeNotFoundException, InvalidMoveException, GameMechanicException {
+        return play("makeNPCMove", code, game -> GameActions.makeNPCMove(game, GameUtilities.dieSource(gameUtilities, game), decisionEngines));
+    }
+
+    //times the action against the step it was made in; a refused move is tagged as rejected rather than as an error
+    private Game play(String action, String code, Move move) throws GameCodeNotFoundException, GameMechanicException, InvalidMoveException {
         Game game = findByCode(code);
-        if (!game.getCurrentPlayer().isNpc()) {
-            throw new InvalidMoveException("Current player is not an NPC");
-        }
-        StrategicTurnDecisionEngine decisionEngine = new StrategicTurnDecisionEngine(game.getCurrentPlayer().getStrategy(), game);
-        switch (game.getStep()) {
-            case ROLL:
-                 roll(code, !decisionEngine.rollSingleDice());
-                break;
-            case CONFIRM_ROLL:
-                if (decisionEngine.reroll()) {
-                    roll(code, !decisionEngine.rollSingleDice());
-                } else {
-                    confirmRoll(code);
-                }
-                break;
-            case STEAL:
-                steal(code, decisionEngine.choosePlayerToStealFrom());
-                break;
-            case BUY:
-                BuyingDecision buyingDecision = decisionEngine.makeBuyingDecision();
-                if (buyingDecision.isBuyingCard()) {
-                    purchaseCard(code, buyingDecision.getCardToPurchase());
-                } else if (buyingDecision.isBuyingLandmark()) {
-                    purchaseLandmark(code, buyingDecision.getLandmarkToPurchase());
-                } else {
-                    return completeTurn(code);
-                }
-                break;
-            case SETUP:
-            case WON:
-                throw new InvalidMoveException("Game step is " + game.getStep() + " and does not require an npc decision.");
-            default:
-                throw new IllegalStateException("Unexpected step: " + game.getStep());
+        Step step = game.getStep();
+        long start = GameMetrics.start();
+        String outcome = GameMetrics.OUTCOME_ERROR;
+        try {
+            move.apply(game);
+            save(game);
+            outcome = GameMetrics.OUTCOME_OK;
+        } catch (InvalidMoveException e) {
+            outcome = GameMetrics.OUTCOME_REJECTED;
+            throw e;
+        } finally {
+            GameMetrics.recordAction(action, step, game.getPlayers().size(), outcome, start);
         }
         return game;
     }
@@ -263,56 +178,7 @@ public class GameService {
         gameDao.save(game);
     }
 
-    private void acceptRoll(Game game) throws GameMechanicException {
-        handleRoll(game);
-        if (game.getStep() != Step.STEAL) {
-            game.setStep(Step.BUY);
-        }
-    }
-
-    private void handleRoll(Game game) throws GameMechanicException {
-        Integer roll = game.getDieTotal();
-        Player currentPlayer = game.getCurrentPlayer();
-
-        Map<Integer, Integer> playerRollEffects = RollEffectCalculator.calculateRedCardEffects(game, roll);
-        applyPlayerEffects(game, playerRollEffects);
-
-        currentPlayer.increaseCoinCount(RollEffectCalculator.calculateGreenAndBlueEffectsForCurrentPlayer(game, roll));
-
-        playerRollEffects = RollEffectCalculator.calculateOtherPlayersBlueEffects(game, roll);
-        applyPlayerEffects(game, playerRollEffects);
-
-        playerRollEffects = RollEffectCalculator.calculateStadiumEffects(game, roll);
-        applyPlayerEffects(game, playerRollEffects);
-
-        if (currentPlayer.getStock().getOrDefault(Card.TV_STATION, 0) != 0 && Card.TV_STATION.rollApplies(roll)) {
-            game.setStep(Step.STEAL);
-        }
-    }
-
-    private void applyPlayerEffects(Game game, Map<Integer, Integer> playerRollEffects) throws GameMechanicException {
-        for (Map.Entry<Integer, Integer> entry : playerRollEffects.entrySet()) {
-            Player player = game.getPlayerByNumber(entry.getKey());
-            int coinChange = entry.getValue();
-            if (coinChange > 0) {
-                player.increaseCoinCount(coinChange);
-            } else {
-                player.decreaseCoinCount(-coinChange);
-            }
-        }
-    }
-
-    private void endTurn(Game game) throws GameMechanicException {
-        if (game.getCurrentPlayer().hasWon()) {
-            game.setStep(Step.WON);
-        } else if (game.getCurrentPlayer().hasAmusementPark() && game.isDoubles()) {
-            game.setStep(Step.ROLL);
-        } else {
-            game.incrementCurrentPlayerNumber();
-            game.setStep(Step.ROLL);
-            game.setRolledOnce(false);
-            game.setDie1(0);
-            game.setDie2(0);
-        }
+    private interface Move {
+        void apply(Game game) throws GameMechanicException, InvalidMoveException;
     }
 }
@@ -0,0 +1,173 @@
+package com.shannontheoret.machikoro.service;
+
+import com.shannontheoret.machikoro.GameActions;
+import com.shannontheoret.machikoro.Step;
+import com.shannontheoret.machikoro.TurnDecisionEngineFactory;
+import com.shannontheoret.machikoro.dao.GameDao;
+import com.shannontheoret.machikoro.dto.NpcMovesResultDTO;
+import com.shannontheoret.machikoro.entity.Game;
+import com.shannontheoret.machikoro.exception.GameCodeNotFoundException;
+import com.shannontheoret.machikoro.exception.GameException;
+import com.shannontheoret.machikoro.exception.GameMechanicException;
+import com.shannontheoret.machikoro.exception.InvalidMoveException;
+import com.shannontheoret.machikoro.metrics.GameMetrics;
+import com.shannontheoret.machikoro.utilities.GameUtilities;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+//plays every NPC step that follows a move on the server, so clients only watch the stream instead of asking for each step
+@Component
+public class NpcAutoPlayer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(NpcAutoPlayer.class);
+    private static final int MAX_STEPS_PER_PASS = 64; //lets a human request in between long all-NPC stretches
+    public static final int MAX_GAMES_PER_BATCH = 500;
+
+    private final GameDao gameDao;
+    private final GameUtilities gameUtilities;
+    private final TurnDecisionEngineFactory decisionEngines;
+    private final boolean enabled;
+    private final long stepDelayMillis;
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Autowired
+    public NpcAutoPlayer(GameDao gameDao, GameUtilities gameUtilities, TurnDecisionEngineFactory decisionEngines,
+                         @Value("${machikoro.npc.auto-play.enabled:true}") boolean enabled,
+                         @Value("${machikoro.npc.auto-play.step-delay-ms:0}") long stepDelayMillis) {
+        this.gameDao = gameDao;
+        this.gameUtilities = gameUtilities;
+        this.decisionEngines = decisionEngines;
+        this.enabled = enabled;
+        this.stepDelayMillis = stepDelayMillis;
+    }
+
+    public void schedule(Game game) {
+        if (enabled && isNpcTurn(game) && pending.add(game.getCode())) {
+            executor.execute(() -> play(game.getCode()));
+        }
+    }
+
+    //removed before playing, so a move made while this runs schedules a fresh pass; passes on one game serialize on its lock
+    void play(String code) {
+        pending.remove(code);
+        try {
+            boolean npcTurn = true;
+            while (npcTurn) {
+                npcTurn = gameDao.withGameLock(code, () -> advance(code, stepDelayMillis > 0 ? 1 : MAX_STEPS_PER_PASS));
+                if (npcTurn && stepDelayMillis > 0) {
+                    Thread.sleep(stepDelayMillis);
+                }
+            }
+        } catch (GameException e) {
+            LOGGER.error("NPC auto play stopped for game {}", code, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            LOGGER.error("NPC auto play failed for game {}", code, e);
+        }
+    }
+
+    //advances every listed game to its next human decision or its end; games are played in parallel and written in one batch.
+    //one result per distinct code, in request order, so a game that fails does not hide the ones that were played
+    public List<NpcMovesResultDTO> playAll(List<String> codes) throws GameException {
+        if (codes.size() > MAX_GAMES_PER_BATCH) {
+            throw new InvalidMoveException("At most " + MAX_GAMES_PER_BATCH + " games can be played in one request.");
+        }
+        Map<String, Game> games = gameDao.findByCodes(codes);
+        Map<String, Future<Game>> futures = new LinkedHashMap<>();
+        for (String code : games.keySet()) {
+            futures.put(code, executor.submit(() -> playToHumanTurn(code)));
+        }
+        List<NpcMovesResultDTO> results = new ArrayList<>();
+        try {
+            for (String code : new LinkedHashSet<>(codes)) {
+                Future<Game> future = futures.get(code);
+                if (future == null) {
+                    results.add(NpcMovesResultDTO.failed(code, new GameCodeNotFoundException(code).getMessage()));
+                } else {
+                    results.add(result(code, future));
+                }
+            }
+        } finally {
+            gameDao.flush(games.keySet());
+        }
+        return results;
+    }
+
+    //passes are capped like play's, so readers waiting on the game lock get in between long all-NPC stretches
+    private Game playToHumanTurn(String code) throws GameException {
+        while (true) {
+            Game played = gameDao.withGameLock(code, () -> {
+                Game game = gameDao.findByCode(code);
+                if (playSteps(game, MAX_STEPS_PER_PASS) > 0) {
+                    gameDao.saveWithoutFlush(game);
+                }
+                return isNpcTurn(game) ? null : game.deepCopy();
+            });
+            if (played != null) {
+                return played;
+            }
+        }
+    }
+
+    private NpcMovesResultDTO result(String code, Future<Game> future) throws GameMechanicException {
+        try {
+            return NpcMovesResultDTO.played(future.get());
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof GameException) {
+                return NpcMovesResultDTO.failed(code, e.getCause().getMessage());
+            }
+            LOGGER.error("NPC moves failed for game {}", code, e.getCause());
+            return NpcMovesResultDTO.failed(code, "An internal error occurred.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GameMechanicException("Interrupted while playing NPC turns.");
+        }
+    }
+
+    //the game is saved once at the end of the pass
+    private boolean advance(String code, int maxSteps) throws GameException {
+        Game game = gameDao.findByCode(code);
+        if (playSteps(game, maxSteps) > 0) {
+            gameDao.save(game);
+        }
+        return isNpcTurn(game);
+    }
+
+    //every step but the last is only pushed to clients, the caller saves the last
+    private int playSteps(Game game, int maxSteps) throws GameException {
+        int steps = 0;
+        while (isNpcTurn(game) && steps < maxSteps) {
+            if (steps > 0) {
+                gameDao.publish(game);
+            }
+            Step step = game.getStep();
+            long start = GameMetrics.start();
+            String outcome = GameMetrics.OUTCOME_ERROR;
+            try {
+                GameActions.makeNPCMove(game, GameUtilities.dieSource(gameUtilities, game), decisionEngines);
+                outcome = GameMetrics.OUTCOME_OK;
+            } finally {
+                GameMetrics.recordAction("autoNPCMove", step, game.getPlayers().size(), outcome, start);
+            }
+            steps++;
+        }
+        return steps;
+    }
+
+    private boolean isNpcTurn(Game game) {
+        return game.getStep() != Step.SETUP && game.getStep() != Step.WON && game.getCurrentPlayer().isNpc();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,78 @@
+package com.shannontheoret.machikoro.simulation;
+
+import com.shannontheoret.machikoro.DieSource;
+import com.shannontheoret.machikoro.GameActions;
+import com.shannontheoret.machikoro.Step;
+import com.shannontheoret.machikoro.StrategyName;
+import com.shannontheoret.machikoro.TurnDecisionEngineFactory;
+import com.shannontheoret.machikoro.entity.Game;
+import com.shannontheoret.machikoro.entity.Player;
+import com.shannontheoret.machikoro.exception.GameMechanicException;
+import com.shannontheoret.machikoro.exception.InvalidMoveException;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+//plays NPC games entirely in memory, without GameService or the database
+public class GameSimulator {
+    public static final int DEFAULT_MAX_TURNS = 1000;
+
+    private final DieSource dieSource;
+    private final int maxTurns;
+    private final TurnDecisionEngineFactory decisionEngines;
+    private TurnListener turnListener;
+
+    public GameSimulator(DieSource dieSource) {
+        this(dieSource, DEFAULT_MAX_TURNS);
+    }
+
+    public GameSimulator(DieSource dieSource, int maxTurns) {
+        this(dieSource, maxTurns, TurnDecisionEngineFactory.standalone());
+    }
+
+    public GameSimulator(DieSource dieSource, int maxTurns, TurnDecisionEngineFactory decisionEngines) {
+        this.dieSource = dieSource;
+        this.maxTurns = maxTurns;
+        this.decisionEngines = decisionEngines;
+    }
+
+    public void setTurnListener(TurnListener turnListener) {
+        this.turnListener = turnListener;
+    }
+
+    public static Game newGame(List<Map<StrategyName, Integer>> strategies) throws GameMechanicException {
+        Game game = GameActions.createGame(strategies.size());
+        for (int playerNumber = 1; playerNumber <= strategies.size(); playerNumber++) {
+            Player player = game.getPlayerByNumber(playerNumber);
+            player.setNpc(true);
+            player.setStrategy(new EnumMap<>(strategies.get(playerNumber - 1)));
+        }
+        game.setStep(Step.ROLL);
+        game.setCurrentPlayerNumber(1);
+        return game;
+    }
+
+    public SimulationResult play(List<Map<StrategyName, Integer>> strategies) throws GameMechanicException, InvalidMoveException {
+        return play(newGame(strategies));
+    }
+
+    public SimulationResult play(Game game) throws GameMechanicException, InvalidMoveException {
+        int turns = 0;
+        int moves = 0;
+        while (game.getStep() != Step.WON && turns < maxTurns) {
+            boolean buying = game.getStep() == Step.BUY;
+            int playerNumber = game.getCurrentPlayerNumber();
+            GameActions.makeNPCMove(game, dieSource, decisionEngines);
+            moves++;
+            if (buying) {
+                turns++;
+                if (turnListener != null) {
+                    turnListener.turnEnded(game, playerNumber, turns);
+                }
+            }
+        }
+        Integer winnerNumber = game.getStep() == Step.WON ? game.getCurrentPlayerNumber() : null;
+        return new SimulationResult(winnerNumber, turns, moves);
+    }
+}
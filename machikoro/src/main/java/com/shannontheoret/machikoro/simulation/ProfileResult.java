@@ -0,0 +1,43 @@
+package com.shannontheoret.machikoro.simulation;
+
+public class ProfileResult {
+    private final StrategyProfile profile;
+    private final long gamesPlayed;
+    private final long wins;
+    private final long totalTurnsOfFinishedGames;
+    private final long finishedGames;
+    private final double[] coinCurve; //average coins at the end of the player's nth turn
+
+    ProfileResult(StrategyProfile profile, long gamesPlayed, long wins, long totalTurnsOfFinishedGames, long finishedGames, double[] coinCurve) {
+        this.profile = profile;
+        this.gamesPlayed = gamesPlayed;
+        this.wins = wins;
+        this.totalTurnsOfFinishedGames = totalTurnsOfFinishedGames;
+        this.finishedGames = finishedGames;
+        this.coinCurve = coinCurve;
+    }
+
+    public StrategyProfile getProfile() {
+        return profile;
+    }
+
+    public long getGamesPlayed() {
+        return gamesPlayed;
+    }
+
+    public long getWins() {
+        return wins;
+    }
+
+    public double getWinRate() {
+        return gamesPlayed == 0 ? 0.0 : (double) wins / (double) gamesPlayed;
+    }
+
+    public double getAverageGameLength() {
+        return finishedGames == 0 ? 0.0 : (double) totalTurnsOfFinishedGames / (double) finishedGames;
+    }
+
+    public double[] getCoinCurve() {
+        return coinCurve;
+    }
+}
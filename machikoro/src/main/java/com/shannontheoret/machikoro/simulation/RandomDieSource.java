@@ -0,0 +1,18 @@
+package com.shannontheoret.machikoro.simulation;
+
+import com.shannontheoret.machikoro.DieSource;
+
+import java.util.random.RandomGenerator;
+
+public class RandomDieSource implements DieSource {
+    private final RandomGenerator random;
+
+    public RandomDieSource(RandomGenerator random) {
+        this.random = random;
+    }
+
+    @Override
+    public int roll() {
+        return random.nextInt(6) + 1;
+    }
+}
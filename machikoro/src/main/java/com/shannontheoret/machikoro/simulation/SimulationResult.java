@@ -0,0 +1,29 @@
+package com.shannontheoret.machikoro.simulation;
+
+public class SimulationResult {
+    private final Integer winnerNumber; //null if the game hit the turn limit
+    private final int turns;
+    private final int moves;
+
+    public SimulationResult(Integer winnerNumber, int turns, int moves) {
+        this.winnerNumber = winnerNumber;
+        this.turns = turns;
+        this.moves = moves;
+    }
+
+    public Integer getWinnerNumber() {
+        return winnerNumber;
+    }
+
+    public boolean isFinished() {
+        return winnerNumber != null;
+    }
+
+    public int getTurns() {
+        return turns;
+    }
+
+    public int getMoves() {
+        return moves;
+    }
+}
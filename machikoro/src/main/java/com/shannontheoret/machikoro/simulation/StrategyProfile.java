@@ -0,0 +1,29 @@
+package com.shannontheoret.machikoro.simulation;
+
+import com.shannontheoret.machikoro.StrategyName;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+public class StrategyProfile {
+    private final String name;
+    private final Map<StrategyName, Integer> strategyDegrees;
+
+    public StrategyProfile(String name, Map<StrategyName, Integer> strategyDegrees) {
+        this.name = name;
+        this.strategyDegrees = new EnumMap<>(strategyDegrees);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Map<StrategyName, Integer> getStrategyDegrees() {
+        return strategyDegrees;
+    }
+
+    @Override
+    public String toString() {
+        return name + strategyDegrees;
+    }
+}
@@ -0,0 +1,58 @@
+package com.shannontheoret.machikoro.simulation;
+
+import java.util.List;
+
+public class TournamentResult {
+    private final List<ProfileResult> profileResults;
+    private final long gamesPlayed;
+    private final long unfinishedGames;
+    private final long elapsedNanos;
+
+    TournamentResult(List<ProfileResult> profileResults, long gamesPlayed, long unfinishedGames, long elapsedNanos) {
+        this.profileResults = profileResults;
+        this.gamesPlayed = gamesPlayed;
+        this.unfinishedGames = unfinishedGames;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public List<ProfileResult> getProfileResults() {
+        return profileResults;
+    }
+
+    public long getGamesPlayed() {
+        return gamesPlayed;
+    }
+
+    public long getUnfinishedGames() {
+        return unfinishedGames;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getGamesPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : gamesPlayed * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%d games (%d unfinished) in %.2f s, %.0f games/second%n",
+                gamesPlayed, unfinishedGames, elapsedNanos / 1_000_000_000.0, getGamesPerSecond()));
+        for (ProfileResult profileResult : profileResults) {
+            double[] coinCurve = profileResult.getCoinCurve();
+            sb.append(String.format("%-20s win rate %.4f, average game length %.1f turns, coins after turns 5/10/20: %.1f/%.1f/%.1f%n",
+                    profileResult.getProfile().getName(),
+                    profileResult.getWinRate(),
+                    profileResult.getAverageGameLength(),
+                    coinsAfterTurn(coinCurve, 5),
+                    coinsAfterTurn(coinCurve, 10),
+                    coinsAfterTurn(coinCurve, 20)));
+        }
+        return sb.toString();
+    }
+
+    private static double coinsAfterTurn(double[] coinCurve, int turn) {
+        return turn <= coinCurve.length ? coinCurve[turn - 1] : Double.NaN;
+    }
+}
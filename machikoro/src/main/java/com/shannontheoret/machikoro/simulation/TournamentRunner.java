@@ -0,0 +1,213 @@
+package com.shannontheoret.machikoro.simulation;
+
+import com.shannontheoret.machikoro.StrategyName;
+import com.shannontheoret.machikoro.TurnDecisionEngineFactory;
+import com.shannontheoret.machikoro.entity.Game;
+import com.shannontheoret.machikoro.exception.GameException;
+import com.shannontheoret.machikoro.utilities.GameUtilities;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+//round-robin tournament between strategy profiles, sharded across a fork-join pool
+public class TournamentRunner {
+    public static final int COIN_CURVE_TURNS = 60;
+    private static final int GAMES_PER_LEAF_TASK = 256;
+
+    private final ForkJoinPool pool;
+    private final int maxTurns;
+    private final TurnDecisionEngineFactory decisionEngines = TurnDecisionEngineFactory.standalone();
+
+    public TournamentRunner(ForkJoinPool pool) {
+        this(pool, GameSimulator.DEFAULT_MAX_TURNS);
+    }
+
+    public TournamentRunner(ForkJoinPool pool, int maxTurns) {
+        this.pool = pool;
+        this.maxTurns = maxTurns;
+    }
+
+    public TournamentResult run(List<StrategyProfile> profiles, int playersPerGame, long games, long seed) {
+        if (profiles.size() < playersPerGame) {
+            throw new IllegalArgumentException("At least " + playersPerGame + " profiles are needed for a round robin.");
+        }
+        int[][] matchups = buildMatchups(profiles.size(), playersPerGame);
+        long start = System.nanoTime();
+        TournamentStats stats = pool.invoke(new TournamentTask(profiles, matchups, 0, games, new SplittableRandom(seed)));
+        long elapsed = System.nanoTime() - start;
+        return stats.toResult(profiles, elapsed);
+    }
+
+    //every combination of profiles, each seated in every rotation over successive games
+    private static int[][] buildMatchups(int profileCount, int playersPerGame) {
+        List<int[]> matchups = new ArrayList<>();
+        addCombinations(matchups, new int[playersPerGame], 0, 0, profileCount);
+        return matchups.toArray(new int[0][]);
+    }
+
+    private static void addCombinations(List<int[]> matchups, int[] current, int index, int nextProfile, int profileCount) {
+        if (index == current.length) {
+            matchups.add(current.clone());
+            return;
+        }
+        for (int profile = nextProfile; profile <= profileCount - (current.length - index); profile++) {
+            current[index] = profile;
+            addCombinations(matchups, current, index + 1, profile + 1, profileCount);
+        }
+    }
+
+    private class TournamentTask extends RecursiveTask<TournamentStats> {
+        private final List<StrategyProfile> profiles;
+        private final int[][] matchups;
+        private final long from;
+        private final long to;
+        private final SplittableRandom random;
+
+        TournamentTask(List<StrategyProfile> profiles, int[][] matchups, long from, long to, SplittableRandom random) {
+            this.profiles = profiles;
+            this.matchups = matchups;
+            this.from = from;
+            this.to = to;
+            this.random = random;
+        }
+
+        @Override
+        protected TournamentStats compute() {
+            if (to - from <= GAMES_PER_LEAF_TASK) {
+                return playGames();
+            }
+            long middle = (from + to) >>> 1;
+            TournamentTask left = new TournamentTask(profiles, matchups, from, middle, random.split());
+            TournamentTask right = new TournamentTask(profiles, matchups, middle, to, random);
+            left.fork();
+            TournamentStats stats = right.compute();
+            stats.merge(left.join());
+            return stats;
+        }
+
+        private TournamentStats playGames() {
+            TournamentStats stats = new TournamentStats(profiles.size());
+            GameSimulator simulator = new GameSimulator(new RandomDieSource(random), maxTurns, decisionEngines);
+            int playersPerGame = matchups[0].length;
+            int[] seating = new int[playersPerGame];
+            int[] playerTurns = new int[playersPerGame + 1];
+            simulator.setTurnListener((game, playerNumber, turn) -> {
+                int playerTurn = ++playerTurns[playerNumber];
+                stats.recordCoins(seating[playerNumber - 1], playerTurn, game.getPlayerByNumber(playerNumber).getCoins());
+            });
+            List<Map<StrategyName, Integer>> strategies = new ArrayList<>(playersPerGame);
+            for (long gameIndex = from; gameIndex < to; gameIndex++) {
+                int[] matchup = matchups[(int) (gameIndex % matchups.length)];
+                int rotation = (int) ((gameIndex / matchups.length) % playersPerGame);
+                strategies.clear();
+                for (int seat = 0; seat < playersPerGame; seat++) {
+                    seating[seat] = matchup[(seat + rotation) % playersPerGame];
+                    strategies.add(profiles.get(seating[seat]).getStrategyDegrees());
+                    playerTurns[seat + 1] = 0;
+                }
+                try {
+                    Game game = GameSimulator.newGame(strategies);
+                    SimulationResult result = simulator.play(game);
+                    stats.recordGame(seating, result);
+                } catch (GameException e) {
+                    throw new IllegalStateException("Simulated game " + gameIndex + " failed: " + e.getMessage(), e);
+                }
+            }
+            return stats;
+        }
+    }
+
+    private static class TournamentStats {
+        private final long[] gamesPlayed;
+        private final long[] wins;
+        private final long[] finishedGames;
+        private final long[] totalTurnsOfFinishedGames;
+        private final long[][] coinTotals;
+        private final long[][] coinSamples;
+        private long games = 0;
+        private long unfinishedGames = 0;
+
+        TournamentStats(int profileCount) {
+            gamesPlayed = new long[profileCount];
+            wins = new long[profileCount];
+            finishedGames = new long[profileCount];
+            totalTurnsOfFinishedGames = new long[profileCount];
+            coinTotals = new long[profileCount][COIN_CURVE_TURNS];
+            coinSamples = new long[profileCount][COIN_CURVE_TURNS];
+        }
+
+        void recordCoins(int profile, int playerTurn, int coins) {
+            if (playerTurn <= COIN_CURVE_TURNS) {
+                coinTotals[profile][playerTurn - 1] += coins;
+                coinSamples[profile][playerTurn - 1]++;
+            }
+        }
+
+        void recordGame(int[] seating, SimulationResult result) {
+            games++;
+            if (!result.isFinished()) {
+                unfinishedGames++;
+            }
+            for (int seat = 0; seat < seating.length; seat++) {
+                int profile = seating[seat];
+                gamesPlayed[profile]++;
+                if (result.isFinished()) {
+                    finishedGames[profile]++;
+                    totalTurnsOfFinishedGames[profile] += result.getTurns();
+                    if (result.getWinnerNumber() == seat + 1) {
+                        wins[profile]++;
+                    }
+                }
+            }
+        }
+
+        void merge(TournamentStats other) {
+            games += other.games;
+            unfinishedGames += other.unfinishedGames;
+            for (int profile = 0; profile < gamesPlayed.length; profile++) {
+                gamesPlayed[profile] += other.gamesPlayed[profile];
+                wins[profile] += other.wins[profile];
+                finishedGames[profile] += other.finishedGames[profile];
+                totalTurnsOfFinishedGames[profile] += other.totalTurnsOfFinishedGames[profile];
+                for (int turn = 0; turn < COIN_CURVE_TURNS; turn++) {
+                    coinTotals[profile][turn] += other.coinTotals[profile][turn];
+                    coinSamples[profile][turn] += other.coinSamples[profile][turn];
+                }
+            }
+        }
+
+        TournamentResult toResult(List<StrategyProfile> profiles, long elapsedNanos) {
+            List<ProfileResult> profileResults = new ArrayList<>();
+            for (int profile = 0; profile < profiles.size(); profile++) {
+                double[] coinCurve = new double[COIN_CURVE_TURNS];
+                for (int turn = 0; turn < COIN_CURVE_TURNS; turn++) {
+                    coinCurve[turn] = coinSamples[profile][turn] == 0 ? 0.0 : (double) coinTotals[profile][turn] / coinSamples[profile][turn];
+                }
+                profileResults.add(new ProfileResult(profiles.get(profile), gamesPlayed[profile], wins[profile],
+                        totalTurnsOfFinishedGames[profile], finishedGames[profile], coinCurve));
+            }
+            return new TournamentResult(profileResults, games, unfinishedGames, elapsedNanos);
+        }
+    }
+
+    //usage: TournamentRunner [games] [players per game] [profiles] [seed]
+    public static void main(String[] args) {
+        long games = args.length > 0 ? Long.parseLong(args[0]) : 100_000;
+        int playersPerGame = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int profileCount = args.length > 2 ? Integer.parseInt(args[2]) : 6;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : System.nanoTime();
+        List<StrategyProfile> profiles = new ArrayList<>();
+        for (int i = 1; i <= profileCount; i++) {
+            profiles.add(new StrategyProfile("profile-" + i, GameUtilities.generateReasonableStrategy()));
+        }
+        for (StrategyProfile profile : profiles) {
+            System.out.println(profile);
+        }
+        TournamentResult result = new TournamentRunner(ForkJoinPool.commonPool()).run(profiles, playersPerGame, games, seed);
+        System.out.print(result.report());
+    }
+}
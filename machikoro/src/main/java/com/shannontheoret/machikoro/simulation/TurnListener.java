@@ -0,0 +1,9 @@
+package com.shannontheoret.machikoro.simulation;
+
+import com.shannontheoret.machikoro.entity.Game;
+import com.shannontheoret.machikoro.exception.GameMechanicException;
+
+@FunctionalInterface
+public interface TurnListener {
+    void turnEnded(Game game, int playerNumber, int turn) throws GameMechanicException;
+}
@@ -0,0 +1,267 @@
+package com.shannontheoret.machikoro.state;
+
+import com.shannontheoret.machikoro.Card;
+import com.shannontheoret.machikoro.Landmark;
+import com.shannontheoret.machikoro.Step;
+import com.shannontheoret.machikoro.StrategyName;
+import com.shannontheoret.machikoro.entity.Game;
+import com.shannontheoret.machikoro.entity.Player;
+import com.shannontheoret.machikoro.exception.GameMechanicException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+//versioned binary form of a game: varint coins and counters, card counts packed two to a byte, landmarks as a bitmask;
+//carries everything a client sees, so the seed is left to its own column; an unset die is written as 0
+public final class GameCodec {
+    public static final byte FORMAT = 1;
+
+    private static final Card[] CARDS = Card.values();
+    private static final Landmark[] LANDMARKS = Landmark.values();
+    private static final Step[] STEPS = Step.values();
+    private static final StrategyName[] STRATEGY_NAMES = StrategyName.values();
+    private static final int CARD_BYTES = (CARDS.length + 1) / 2;
+    private static final int MAX_CARD_COUNT = 15;
+
+    private static final int ROLLED_ONCE = 1;
+    private static final int PLAYER_NPC = 1 << 4;
+    private static final int PLAYER_ID = 1 << 5;
+    private static final int PLAYER_NAME = 1 << 6;
+    private static final int PLAYER_STRATEGY = 1 << 7;
+
+    private GameCodec() {
+    }
+
+    public static byte[] encode(Game game) {
+        Writer out = new Writer(64 + game.getPlayers().size() * 32);
+        out.writeByte(FORMAT);
+        out.writeByte(Boolean.TRUE.equals(game.getRolledOnce()) ? ROLLED_ONCE : 0);
+        out.writeByte((game.getStep() == null ? 0 : game.getStep().ordinal() + 1) | (game.getCurrentPlayerNumber() - 1) << 4);
+        out.writeByte(nullToZero(game.getDie1()) | nullToZero(game.getDie2()) << 4);
+        out.writeString(game.getCode());
+        out.writeVarLong(game.getVersion());
+        out.writeVarInt(game.getMoveCount());
+        out.writeCards(game.getGameStock());
+        out.writeByte(game.getPlayers().size());
+        for (Player player : game.getPlayers()) {
+            out.writeByte(player.getNumber()
+                    | (player.isNpc() ? PLAYER_NPC : 0)
+                    | (player.getId() != null ? PLAYER_ID : 0)
+                    | (player.getName() != null ? PLAYER_NAME : 0)
+                    | (player.getStrategy() != null ? PLAYER_STRATEGY : 0));
+            int landmarkMask = 0;
+            for (Landmark landmark : player.getLandmarks()) {
+                landmarkMask |= 1 << landmark.ordinal();
+            }
+            out.writeByte(landmarkMask);
+            if (player.getCoins() < 0) {
+                throw new IllegalArgumentException("Player " + player.getNumber() + " has negative coins");
+            }
+            out.writeVarInt(player.getCoins());
+            out.writeCards(player.getStock());
+            if (player.getId() != null) {
+                out.writeVarLong(player.getId());
+            }
+            if (player.getName() != null) {
+                out.writeString(player.getName());
+            }
+            if (player.getStrategy() != null) {
+                out.writeByte(player.getStrategy().size());
+                for (Map.Entry<StrategyName, Integer> entry : player.getStrategy().entrySet()) {
+                    out.writeByte(entry.getKey().ordinal());
+                    out.writeVarInt(entry.getValue() == null ? 0 : entry.getValue() + 1);
+                }
+            }
+        }
+        return out.toByteArray();
+    }
+
+    public static Game decode(byte[] bytes) {
+        Reader in = new Reader(bytes);
+        int format = in.readByte();
+        if (format != FORMAT) {
+            throw new IllegalArgumentException("Unknown game format " + format);
+        }
+        try {
+            Game game = new Game();
+            int flags = in.readByte();
+            int stepAndPlayer = in.readByte();
+            int dice = in.readByte();
+            game.setRolledOnce((flags & ROLLED_ONCE) != 0);
+            int step = stepAndPlayer & 0x0F;
+            game.setStep(step == 0 ? null : STEPS[step - 1]);
+            game.setCurrentPlayerNumber((stepAndPlayer >>> 4) + 1);
+            game.setDie1(dice & 0x0F);
+            game.setDie2(dice >>> 4);
+            game.setCode(in.readString());
+            game.setVersion(in.readVarLong());
+            game.setMoveCount(in.readVarInt());
+            game.setGameStock(in.readCards(true));
+            int playerCount = in.readByte();
+            Set<Player> players = new LinkedHashSet<>();
+            for (int i = 0; i < playerCount; i++) {
+                int header = in.readByte();
+                Player player = new Player();
+                player.setNumber(header & 0x0F);
+                player.setNpc((header & PLAYER_NPC) != 0);
+                int landmarkMask = in.readByte();
+                for (Landmark landmark : LANDMARKS) {
+                    if ((landmarkMask & 1 << landmark.ordinal()) != 0) {
+                        player.getLandmarks().add(landmark);
+                    }
+                }
+                player.setCoins(in.readVarInt());
+                player.getStock().clear();
+                player.getStock().putAll(in.readCards(false));
+                if ((header & PLAYER_ID) != 0) {
+                    player.setId(in.readVarLong());
+                }
+                if ((header & PLAYER_NAME) != 0) {
+                    player.setName(in.readString());
+                }
+                if ((header & PLAYER_STRATEGY) != 0) {
+                    Map<StrategyName, Integer> strategy = new EnumMap<>(StrategyName.class);
+                    int entries = in.readByte();
+                    for (int j = 0; j < entries; j++) {
+                        StrategyName name = STRATEGY_NAMES[in.readByte()];
+                        int degree = in.readVarInt();
+                        strategy.put(name, degree == 0 ? null : degree - 1);
+                    }
+                    player.setStrategy(strategy);
+                }
+                players.add(player);
+            }
+            game.setPlayers(players);
+            return game;
+        } catch (GameMechanicException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Malformed game encoding", e);
+        }
+    }
+
+    private static int nullToZero(Integer value) {
+        return value == null ? 0 : value;
+    }
+
+    private static final class Writer {
+        private byte[] buffer;
+        private int position;
+
+        Writer(int capacity) {
+            buffer = new byte[capacity];
+        }
+
+        void writeByte(int value) {
+            ensureCapacity(1);
+            buffer[position++] = (byte) value;
+        }
+
+        void writeVarInt(int value) {
+            writeVarLong(value & 0xFFFFFFFFL);
+        }
+
+        void writeVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        //length plus one, so zero can stand for null
+        void writeString(String value) {
+            if (value == null) {
+                writeVarInt(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(bytes.length + 1);
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        void writeCards(Map<Card, Integer> cards) {
+            ensureCapacity(CARD_BYTES);
+            Arrays.fill(buffer, position, position + CARD_BYTES, (byte) 0);
+            for (Map.Entry<Card, Integer> entry : cards.entrySet()) {
+                int count = entry.getValue();
+                if (count < 0 || count > MAX_CARD_COUNT) {
+                    throw new IllegalArgumentException(entry.getKey() + " count " + count + " does not fit in four bits");
+                }
+                int ordinal = entry.getKey().ordinal();
+                buffer[position + ordinal / 2] |= (byte) (count << (ordinal % 2) * 4);
+            }
+            position += CARD_BYTES;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+
+        private void ensureCapacity(int bytes) {
+            if (position + bytes > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + bytes));
+            }
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] buffer;
+        private int position;
+
+        Reader(byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        int readByte() {
+            return buffer[position++] & 0xFF;
+        }
+
+        int readVarInt() {
+            return (int) readVarLong();
+        }
+
+        long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int next = readByte();
+                value |= (long) (next & 0x7F) << shift;
+                if ((next & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Varint longer than 64 bits");
+        }
+
+        String readString() {
+            int length = readVarInt() - 1;
+            if (length < 0) {
+                return null;
+            }
+            if (position + length > buffer.length) {
+                throw new ArrayIndexOutOfBoundsException(position + length);
+            }
+            String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        //a game's stock lists every card, sold out ones at zero; a player's lists only the cards they own
+        Map<Card, Integer> readCards(boolean everyCard) {
+            Map<Card, Integer> cards = new EnumMap<>(Card.class);
+            for (Card card : CARDS) {
+                int count = buffer[position + card.ordinal() / 2] >>> (card.ordinal() % 2) * 4 & 0x0F;
+                if (everyCard || count > 0) {
+                    cards.put(card, count);
+                }
+            }
+            position += CARD_BYTES;
+            return cards;
+        }
+    }
+}
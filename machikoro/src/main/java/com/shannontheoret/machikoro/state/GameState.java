@@ -0,0 +1,317 @@
+package com.shannontheoret.machikoro.state;
+
+import com.shannontheoret.machikoro.*;
+import com.shannontheoret.machikoro.entity.Game;
+import com.shannontheoret.machikoro.entity.Player;
+import com.shannontheoret.machikoro.exception.GameMechanicException;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+//compact, array-backed copy of the rules-relevant part of a Game; players are numbered from 1 as in Game
+public class GameState {
+    public static final int CARD_COUNT = Card.values().length;
+    public static final int LANDMARK_COUNT = Landmark.values().length;
+    public static final int ALL_LANDMARKS = (1 << LANDMARK_COUNT) - 1;
+    private static final double COINS_TOWARDS_PROGRESS_FACTOR = 0.5;
+
+    static final Card[] CARDS = Card.values();
+    static final Landmark[] LANDMARKS = Landmark.values();
+
+    private final int playerCount;
+    private final int[] coins;
+    private final byte[] cards; //(playerNumber - 1) * CARD_COUNT + card ordinal
+    private final int[] landmarks; //bitmask of landmark ordinals per player
+    private final byte[] stock;
+    private Step step = Step.SETUP;
+    private int die1 = 0;
+    private int die2 = 0;
+    private boolean rolledOnce = false;
+    private int currentPlayerNumber = 1;
+
+    public GameState(int playerCount) {
+        if (playerCount < GameRules.MIN_PLAYERS || playerCount > GameRules.MAX_PLAYERS) {
+            throw new IllegalArgumentException("Number of players must be between " + GameRules.MIN_PLAYERS + " and " + GameRules.MAX_PLAYERS);
+        }
+        this.playerCount = playerCount;
+        this.coins = new int[playerCount];
+        this.cards = new byte[playerCount * CARD_COUNT];
+        this.landmarks = new int[playerCount];
+        this.stock = new byte[CARD_COUNT];
+    }
+
+    public static GameState fromGame(Game game) {
+        GameState state = new GameState(game.getPlayers().size());
+        state.readFrom(game);
+        return state;
+    }
+
+    public void readFrom(Game game) {
+        if (game.getPlayers().size() != playerCount) {
+            throw new IllegalArgumentException("Game has " + game.getPlayers().size() + " players, state has " + playerCount);
+        }
+        Arrays.fill(cards, (byte) 0);
+        Arrays.fill(stock, (byte) 0);
+        for (Player player : game.getPlayers()) {
+            int index = player.getNumber() - 1;
+            coins[index] = player.getCoins();
+            int landmarkMask = 0;
+            for (Landmark landmark : player.getLandmarks()) {
+                landmarkMask |= 1 << landmark.ordinal();
+            }
+            landmarks[index] = landmarkMask;
+            for (Map.Entry<Card, Integer> entry : player.getStock().entrySet()) {
+                cards[index * CARD_COUNT + entry.getKey().ordinal()] = (byte) (int) entry.getValue();
+            }
+        }
+        for (Map.Entry<Card, Integer> entry : game.getGameStock().entrySet()) {
+            stock[entry.getKey().ordinal()] = (byte) (int) entry.getValue();
+        }
+        step = game.getStep();
+        die1 = game.getDie1() == null ? 0 : game.getDie1();
+        die2 = game.getDie2() == null ? 0 : game.getDie2();
+        rolledOnce = Boolean.TRUE.equals(game.getRolledOnce());
+        currentPlayerNumber = game.getCurrentPlayerNumber();
+    }
+
+    //writes the state back into the game's entities, leaving names, strategies and ids untouched
+    public void applyTo(Game game) throws GameMechanicException {
+        for (int playerNumber = 1; playerNumber <= playerCount; playerNumber++) {
+            Player player = game.getPlayerByNumber(playerNumber);
+            player.setCoins(getCoins(playerNumber));
+            Set<Landmark> playerLandmarks = player.getLandmarks();
+            for (Landmark landmark : LANDMARKS) {
+                if (hasLandmark(playerNumber, landmark)) {
+                    playerLandmarks.add(landmark);
+                } else {
+                    playerLandmarks.remove(landmark);
+                }
+            }
+            Map<Card, Integer> playerStock = player.getStock();
+            for (Card card : CARDS) {
+                int count = getCardCount(playerNumber, card);
+                if (count > 0) {
+                    playerStock.put(card, count);
+                } else {
+                    playerStock.remove(card);
+                }
+            }
+        }
+        Map<Card, Integer> gameStock = game.getGameStock();
+        for (Card card : CARDS) {
+            gameStock.put(card, getStock(card));
+        }
+        game.setStep(step);
+        game.setDie1(die1);
+        game.setDie2(die2);
+        game.setRolledOnce(rolledOnce);
+        game.setCurrentPlayerNumber(currentPlayerNumber);
+    }
+
+    public Game toGame() throws GameMechanicException {
+        Game game = new Game();
+        Set<Player> players = new LinkedHashSet<>();
+        for (int playerNumber = 1; playerNumber <= playerCount; playerNumber++) {
+            Player player = new Player(playerNumber);
+            player.setName("Player " + playerNumber);
+            players.add(player);
+        }
+        game.setPlayers(players);
+        applyTo(game);
+        return game;
+    }
+
+    public void copyFrom(GameState other) {
+        if (other.playerCount != playerCount) {
+            throw new IllegalArgumentException("Cannot copy a " + other.playerCount + " player state into a " + playerCount + " player state");
+        }
+        System.arraycopy(other.coins, 0, coins, 0, playerCount);
+        System.arraycopy(other.cards, 0, cards, 0, cards.length);
+        System.arraycopy(other.landmarks, 0, landmarks, 0, playerCount);
+        System.arraycopy(other.stock, 0, stock, 0, CARD_COUNT);
+        step = other.step;
+        die1 = other.die1;
+        die2 = other.die2;
+        rolledOnce = other.rolledOnce;
+        currentPlayerNumber = other.currentPlayerNumber;
+    }
+
+    public GameState copy() {
+        GameState copy = new GameState(playerCount);
+        copy.copyFrom(this);
+        return copy;
+    }
+
+    public int getPlayerCount() {
+        return playerCount;
+    }
+
+    public int getCoins(int playerNumber) {
+        return coins[playerNumber - 1];
+    }
+
+    public void setCoins(int playerNumber, int coinCount) {
+        coins[playerNumber - 1] = coinCount;
+    }
+
+    public void addCoins(int playerNumber, int amount) {
+        coins[playerNumber - 1] += amount;
+    }
+
+    public int getCardCount(int playerNumber, Card card) {
+        return cards[(playerNumber - 1) * CARD_COUNT + card.ordinal()];
+    }
+
+    public int getCardCount(int playerNumber, int cardOrdinal) {
+        return cards[(playerNumber - 1) * CARD_COUNT + cardOrdinal];
+    }
+
+    public boolean hasCard(int playerNumber, Card card) {
+        return getCardCount(playerNumber, card) > 0;
+    }
+
+    public void addCard(int playerNumber, Card card) {
+        cards[(playerNumber - 1) * CARD_COUNT + card.ordinal()]++;
+    }
+
+    public int getCountOfCardsInCategory(int playerNumber, CardCategory category) {
+        int offset = (playerNumber - 1) * CARD_COUNT;
+        int count = 0;
+        for (int categoryCards = Card.cardsInCategory(category); categoryCards != 0; categoryCards &= categoryCards - 1) {
+            count += cards[offset + Integer.numberOfTrailingZeros(categoryCards)];
+        }
+        return count;
+    }
+
+    public int getLandmarkMask(int playerNumber) {
+        return landmarks[playerNumber - 1];
+    }
+
+    public boolean hasLandmark(int playerNumber, Landmark landmark) {
+        return (landmarks[playerNumber - 1] & (1 << landmark.ordinal())) != 0;
+    }
+
+    public void addLandmark(int playerNumber, Landmark landmark) {
+        landmarks[playerNumber - 1] |= 1 << landmark.ordinal();
+    }
+
+    public boolean hasWon(int playerNumber) {
+        return landmarks[playerNumber - 1] == ALL_LANDMARKS;
+    }
+
+    //same measure as Player.getProgress
+    public double getProgress(int playerNumber) {
+        int totalValuePurchases = 0;
+        for (Landmark landmark : LANDMARKS) {
+            if (hasLandmark(playerNumber, landmark)) {
+                totalValuePurchases += landmark.getCost();
+            }
+        }
+        int coinsTowardProgress = Math.min(Landmark.TOTAL_COST - totalValuePurchases, getCoins(playerNumber));
+        return ((double) totalValuePurchases + (double) coinsTowardProgress * COINS_TOWARDS_PROGRESS_FACTOR) / ((double) Landmark.TOTAL_COST);
+    }
+
+    public int getStock(Card card) {
+        return stock[card.ordinal()];
+    }
+
+    public void setStock(Card card, int count) {
+        stock[card.ordinal()] = (byte) count;
+    }
+
+    public Step getStep() {
+        return step;
+    }
+
+    public void setStep(Step step) {
+        this.step = step;
+    }
+
+    public int getDie1() {
+        return die1;
+    }
+
+    public int getDie2() {
+        return die2;
+    }
+
+    public void setDice(int die1, int die2) {
+        this.die1 = die1;
+        this.die2 = die2;
+    }
+
+    public int getDieTotal() {
+        return die1 + die2;
+    }
+
+    public boolean isDoubles() {
+        return die1 != 0 && die1 == die2;
+    }
+
+    public boolean getRolledOnce() {
+        return rolledOnce;
+    }
+
+    public void setRolledOnce(boolean rolledOnce) {
+        this.rolledOnce = rolledOnce;
+    }
+
+    public int getCurrentPlayerNumber() {
+        return currentPlayerNumber;
+    }
+
+    public void setCurrentPlayerNumber(int currentPlayerNumber) {
+        this.currentPlayerNumber = currentPlayerNumber;
+    }
+
+    public int getNextPlayerNumber(int playerNumber) {
+        return playerNumber == playerCount ? 1 : playerNumber + 1;
+    }
+
+    public int getPreviousPlayerNumber(int playerNumber) {
+        return playerNumber == 1 ? playerCount : playerNumber - 1;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof GameState other)) {
+            return false;
+        }
+        return playerCount == other.playerCount
+                && step == other.step
+                && die1 == other.die1
+                && die2 == other.die2
+                && rolledOnce == other.rolledOnce
+                && currentPlayerNumber == other.currentPlayerNumber
+                && Arrays.equals(coins, other.coins)
+                && Arrays.equals(landmarks, other.landmarks)
+                && Arrays.equals(cards, other.cards)
+                && Arrays.equals(stock, other.stock);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = playerCount;
+        result = 31 * result + (step == null ? 0 : step.ordinal() + 1);
+        result = 31 * result + die1;
+        result = 31 * result + die2;
+        result = 31 * result + (rolledOnce ? 1 : 0);
+        result = 31 * result + currentPlayerNumber;
+        result = 31 * result + Arrays.hashCode(coins);
+        result = 31 * result + Arrays.hashCode(landmarks);
+        result = 31 * result + Arrays.hashCode(cards);
+        result = 31 * result + Arrays.hashCode(stock);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "GameState{step=" + step + ", currentPlayer=" + currentPlayerNumber + ", dice=" + die1 + "+" + die2
+                + ", coins=" + Arrays.toString(coins) + ", landmarks=" + Arrays.toString(landmarks) + "}";
+    }
+}
@@ -0,0 +1,150 @@
+package com.shannontheoret.machikoro.state;
+
+import com.shannontheoret.machikoro.*;
+import com.shannontheoret.machikoro.exception.InvalidMoveException;
+import com.shannontheoret.machikoro.utilities.RollEffectCalculator;
+
+//the rules of GameActions applied to a GameState, without boxing or allocation on valid moves
+public class StateActions {
+    public static void roll(GameState state, boolean rollTwo, DieSource dieSource) throws InvalidMoveException {
+        if (state.getStep() != Step.ROLL && state.getStep() != Step.CONFIRM_ROLL) {
+            throw new InvalidMoveException("Cannot roll dice at this time.");
+        }
+        int currentPlayerNumber = state.getCurrentPlayerNumber();
+        if (rollTwo && !state.hasLandmark(currentPlayerNumber, Landmark.TRAIN_STATION)) {
+            throw new InvalidMoveException("Player cannot roll two dice because player does not have a train station.");
+        }
+        int die1 = dieSource.roll();
+        int die2 = rollTwo ? dieSource.roll() : 0;
+        state.setDice(die1, die2);
+        if (state.hasLandmark(currentPlayerNumber, Landmark.RADIO_TOWER) && !state.getRolledOnce()) {
+            state.setRolledOnce(true);
+            state.setStep(Step.CONFIRM_ROLL);
+        } else {
+            acceptRoll(state);
+        }
+    }
+
+    public static void confirmRoll(GameState state) throws InvalidMoveException {
+        if (state.getStep() != Step.CONFIRM_ROLL) {
+            throw new InvalidMoveException("Cannot confirm roll at this time.");
+        }
+        acceptRoll(state);
+    }
+
+    public static void steal(GameState state, int playerNumberToStealFrom) throws InvalidMoveException {
+        int currentPlayerNumber = state.getCurrentPlayerNumber();
+        if (state.getStep() != Step.STEAL || !state.hasCard(currentPlayerNumber, Card.TV_STATION)) {
+            throw new InvalidMoveException("Cannot steal at this time.");
+        }
+        if (playerNumberToStealFrom < 1 || playerNumberToStealFrom > state.getPlayerCount()) {
+            throw new InvalidMoveException("Player not found.");
+        }
+        int amountToSteal = Math.min(state.getCoins(playerNumberToStealFrom), Card.TV_STATION.getAmountGained());
+        state.addCoins(playerNumberToStealFrom, -amountToSteal);
+        state.addCoins(currentPlayerNumber, amountToSteal);
+        state.setStep(Step.BUY);
+    }
+
+    public static void purchaseCard(GameState state, Card card) throws InvalidMoveException {
+        if (state.getStep() != Step.BUY) {
+            throw new InvalidMoveException("Cannot purchase card at this time.");
+        }
+        if (state.getStock(card) == 0) {
+            throw new InvalidMoveException("Card not in stock.");
+        }
+        int currentPlayerNumber = state.getCurrentPlayerNumber();
+        if (state.getCoins(currentPlayerNumber) < card.getCost()) {
+            throw new InvalidMoveException("Player does not have enough coins to purchase card.");
+        }
+        if (card.getCategory() == CardCategory.PURPLE && state.getCardCount(currentPlayerNumber, card) == 1) {
+            throw new InvalidMoveException("Player cannot purchase the same purple card twice.");
+        }
+        state.addCard(currentPlayerNumber, card);
+        state.addCoins(currentPlayerNumber, -card.getCost());
+        state.setStock(card, state.getStock(card) - 1);
+        endTurn(state);
+    }
+
+    public static void purchaseLandmark(GameState state, Landmark landmark) throws InvalidMoveException {
+        if (state.getStep() != Step.BUY) {
+            throw new InvalidMoveException("Cannot purchase landmark at this time.");
+        }
+        int currentPlayerNumber = state.getCurrentPlayerNumber();
+        if (state.getCoins(currentPlayerNumber) < landmark.getCost()) {
+            throw new InvalidMoveException("Player does not have enough coins to purchase landmark.");
+        }
+        if (state.hasLandmark(currentPlayerNumber, landmark)) {
+            throw new InvalidMoveException("Player cannot purchase the same landmark twice.");
+        }
+        state.addCoins(currentPlayerNumber, -landmark.getCost());
+        state.addLandmark(currentPlayerNumber, landmark);
+        endTurn(state);
+    }
+
+    public static void completeTurn(GameState state) throws InvalidMoveException {
+        if (state.getStep() != Step.BUY) {
+            throw new InvalidMoveException("Cannot complete turn at this time.");
+        }
+        endTurn(state);
+    }
+
+    private static void acceptRoll(GameState state) {
+        handleRoll(state);
+        if (state.getStep() != Step.STEAL) {
+            state.setStep(Step.BUY);
+        }
+    }
+
+    //same order as GameActions: red cards, then the current player's green and blue, other players' blue, stadium, TV station
+    private static void handleRoll(GameState state) {
+        int roll = state.getDieTotal();
+        int currentPlayerNumber = state.getCurrentPlayerNumber();
+
+        applyRedCards(state, roll);
+        state.addCoins(currentPlayerNumber, RollEffectCalculator.calculateGreenAndBlueEffectsForCurrentPlayer(state, roll));
+        int otherPlayerNumber = state.getNextPlayerNumber(currentPlayerNumber);
+        while (otherPlayerNumber != currentPlayerNumber) {
+            state.addCoins(otherPlayerNumber, RollEffectCalculator.calculateBlueEffects(state, otherPlayerNumber, roll));
+            otherPlayerNumber = state.getNextPlayerNumber(otherPlayerNumber);
+        }
+        if (state.hasCard(currentPlayerNumber, Card.STADIUM) && Card.STADIUM.rollApplies(roll)) {
+            int playerToStealFrom = state.getNextPlayerNumber(currentPlayerNumber);
+            while (playerToStealFrom != currentPlayerNumber) {
+                int amountToSteal = Math.min(state.getCoins(playerToStealFrom), Card.STADIUM.getAmountGained());
+                state.addCoins(playerToStealFrom, -amountToSteal);
+                state.addCoins(currentPlayerNumber, amountToSteal);
+                playerToStealFrom = state.getNextPlayerNumber(playerToStealFrom);
+            }
+        }
+        if (state.hasCard(currentPlayerNumber, Card.TV_STATION) && Card.TV_STATION.rollApplies(roll)) {
+            state.setStep(Step.STEAL);
+        }
+    }
+
+    private static void applyRedCards(GameState state, int roll) {
+        int currentPlayerNumber = state.getCurrentPlayerNumber();
+        int playerToSteal = state.getPreviousPlayerNumber(currentPlayerNumber);
+        while (playerToSteal != currentPlayerNumber) {
+            int amountToSteal = RollEffectCalculator.calculateRedClaim(state, playerToSteal, roll);
+            int amountStolen = Math.min(amountToSteal, state.getCoins(currentPlayerNumber));
+            state.addCoins(currentPlayerNumber, -amountStolen);
+            state.addCoins(playerToSteal, amountStolen);
+            playerToSteal = state.getPreviousPlayerNumber(playerToSteal);
+        }
+    }
+
+    private static void endTurn(GameState state) {
+        int currentPlayerNumber = state.getCurrentPlayerNumber();
+        if (state.hasWon(currentPlayerNumber)) {
+            state.setStep(Step.WON);
+        } else if (state.hasLandmark(currentPlayerNumber, Landmark.AMUSEMENT_PARK) && state.isDoubles()) {
+            state.setStep(Step.ROLL);
+        } else {
+            state.setCurrentPlayerNumber(state.getNextPlayerNumber(currentPlayerNumber));
+            state.setStep(Step.ROLL);
+            state.setRolledOnce(false);
+            state.setDice(0, 0);
+        }
+    }
+}
@@ -1,24 +1,52 @@
 package com.shannontheoret.machikoro.utilities;
 
+import com.shannontheoret.machikoro.DieSource;
 import com.shannontheoret.machikoro.StrategyName;
+import com.shannontheoret.machikoro.entity.Game;
 import org.springframework.stereotype.Component;
 
 import java.util.EnumMap;
 import java.util.Map;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Component
 public class GameUtilities {
-    private static final Random RANDOM = new Random();
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
 
-    public Integer generateRandomDieRoll() {
-        return RANDOM.nextInt(6) + 1;
+    //die 0 or 1 of the game's next move; a pure function of the seed, so no generator is shared or stored
+    public Integer generateRandomDieRoll(Game game, int die) {
+        if (game.getSeed() == 0) {
+            game.setSeed(generateSeed()); //games created before seeding; earlier dice are in the move log
+        }
+        return dieRoll(game.getSeed(), game.getMoveCount() + 1, die);
+    }
+
+    public long generateSeed() {
+        long seed;
+        do {
+            seed = ThreadLocalRandom.current().nextLong();
+        } while (seed == 0);
+        return seed;
+    }
+
+    public static DieSource dieSource(GameUtilities gameUtilities, Game game) {
+        int[] die = {0};
+        return () -> gameUtilities.generateRandomDieRoll(game, die[0]++);
+    }
+
+    //SplitMix64 over (move sequence, die): the same seed replays the same dice, different seeds are independent streams
+    public static int dieRoll(long seed, int moveSequence, int die) {
+        long z = seed + ((((long) moveSequence) << 1) | die) * GOLDEN_GAMMA;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z = z ^ (z >>> 31);
+        return (int) (((z >>> 32) * 6) >>> 32) + 1;
     }
 
     public String generateCode() {
         String CHARACTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
         Integer STRING_LENGTH = 8;
-        Random random = new Random();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
         StringBuilder sb = new StringBuilder(STRING_LENGTH);
 
         for (int i = 0; i < STRING_LENGTH; i++) {
@@ -37,7 +65,7 @@ public class GameUtilities {
         reasonableStrategy.put(StrategyName.CHEESE_FOCUSED, 0);
         reasonableStrategy.put(StrategyName.FACTORY_FOCUSED, 0);
         reasonableStrategy.put(StrategyName.FRUIT_AND_VEG_FOCUSED, 0);
-        Integer choice = RANDOM.nextInt(4);
+        Integer choice = ThreadLocalRandom.current().nextInt(4);
         switch (choice) {
             case 1:
                 reasonableStrategy.put(StrategyName.CHEESE_FOCUSED, 1);
@@ -55,6 +83,6 @@ public class GameUtilities {
     }
 
     private static Integer getStrategyDegree() {
-        return RANDOM.nextInt(0,4);
+        return ThreadLocalRandom.current().nextInt(0,4);
     }
 }
@@ -4,30 +4,21 @@ import java.util.Map;
 
 public class RollBenefitAnalyzer {
 
-    private static final Map<Integer, Double> TWO_D6_PROBABILITIES = Map.ofEntries(
-            Map.entry(2, 1.0 / 36),
-            Map.entry(3, 2.0 / 36),
-            Map.entry(4, 3.0 / 36),
-            Map.entry(5, 4.0 / 36),
-            Map.entry(6, 5.0 / 36),
-            Map.entry(7, 6.0 / 36),
-            Map.entry(8, 5.0 / 36),
-            Map.entry(9, 4.0 / 36),
-            Map.entry(10, 3.0 / 36),
-            Map.entry(11, 2.0 / 36),
-            Map.entry(12, 1.0 / 36)
-    );
+    private static final double[] TWO_D6_PROBABILITIES = {
+            0.0, 0.0,
+            1.0 / 36, 2.0 / 36, 3.0 / 36, 4.0 / 36, 5.0 / 36, 6.0 / 36,
+            5.0 / 36, 4.0 / 36, 3.0 / 36, 2.0 / 36, 1.0 / 36
+    };
 
     public static final Double SINGLE_ROLL_PROBABILITY = 1.0/6.0;
 
     public static final Double DOUBLES_PROBABILITY = 1.0/6.0;
 
-    public static Double diceRollProbabilityTwoDice(Integer rollValue) {
-            if (TWO_D6_PROBABILITIES.containsKey(rollValue)) {
-                return TWO_D6_PROBABILITIES.get(rollValue);
-            } else {
-                return 0.0;
-            }
+    public static double diceRollProbabilityTwoDice(int rollValue) {
+        if (rollValue < 0 || rollValue >= TWO_D6_PROBABILITIES.length) {
+            return 0.0;
+        }
+        return TWO_D6_PROBABILITIES[rollValue];
     }
 
     public static Double calculateAverageGainForOneDieRolled(Map<Integer, Map<Integer, Integer>> allRollEffects, Integer playerNumber) {
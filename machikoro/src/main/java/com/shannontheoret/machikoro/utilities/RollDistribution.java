@@ -0,0 +1,136 @@
+package com.shannontheoret.machikoro.utilities;
+
+import com.shannontheoret.machikoro.entity.Game;
+import com.shannontheoret.machikoro.state.GameState;
+
+import java.util.Map;
+
+//expected gain, variance and best case for every player, computed once per state instead of rescanning the roll effects per question
+public class RollDistribution {
+    private static final int ONE_DIE = 0;
+    private static final int TWO_DICE = 1;
+    private static final int MAX_ROLL = 12;
+
+    private final int playerCount;
+    private final int[] rollEffects; //roll * (playerCount + 1) + player number
+    //the arrays below are indexed by dieCountIndex * (playerCount + 1) + player number
+    private final double[] expectedGain;
+    private final double[] otherPlayersExpectedGain;
+    private final double[] variance;
+    private final int[] bestCase;
+    private final double[] bestCaseProbability;
+
+    //the game's own roll effect table only redoes the rolls changed since its last decision
+    public static RollDistribution fromGame(Game game) {
+        GameState state = GameState.fromGame(game);
+        return new RollDistribution(game.getRollEffectTable().sync(state), state.getPlayerCount());
+    }
+
+    public static RollDistribution fromRollEffects(Map<Integer, Map<Integer, Integer>> allRollEffects, int playerCount) {
+        int[][] rollEffectsBuffer = new int[MAX_ROLL + 1][playerCount + 1];
+        for (int roll = 1; roll <= MAX_ROLL; roll++) {
+            Map<Integer, Integer> effects = allRollEffects.get(roll);
+            for (int playerNumber = 1; playerNumber <= playerCount; playerNumber++) {
+                rollEffectsBuffer[roll][playerNumber] = effects.getOrDefault(playerNumber, 0);
+            }
+        }
+        return new RollDistribution(rollEffectsBuffer, playerCount);
+    }
+
+    public RollDistribution(int[][] rollEffectsBuffer, int playerCount) {
+        this.playerCount = playerCount;
+        int stride = playerCount + 1;
+        rollEffects = new int[(MAX_ROLL + 1) * stride];
+        for (int roll = 1; roll <= MAX_ROLL; roll++) {
+            System.arraycopy(rollEffectsBuffer[roll], 0, rollEffects, roll * stride, stride);
+        }
+        expectedGain = new double[2 * stride];
+        otherPlayersExpectedGain = new double[2 * stride];
+        variance = new double[2 * stride];
+        bestCase = new int[2 * stride];
+        bestCaseProbability = new double[2 * stride];
+        for (int playerNumber = 1; playerNumber <= playerCount; playerNumber++) {
+            summarize(ONE_DIE, playerNumber, 1, 6);
+            summarize(TWO_DICE, playerNumber, 2, MAX_ROLL);
+        }
+    }
+
+    //accumulates in roll order, then player order, so the sums match RollBenefitAnalyzer exactly
+    private void summarize(int dieCountIndex, int playerNumber, int lowestRoll, int highestRoll) {
+        int index = dieCountIndex * (playerCount + 1) + playerNumber;
+        double mean = 0.0;
+        double otherMean = 0.0;
+        int best = 0;
+        double bestProbability = 1.0; //no coins is the best case when nothing pays out
+        for (int roll = lowestRoll; roll <= highestRoll; roll++) {
+            double probability = probability(dieCountIndex, roll);
+            int coinsForRoll = getRollEffect(roll, playerNumber);
+            mean += (double) coinsForRoll * probability;
+            for (int otherPlayerNumber = 1; otherPlayerNumber <= playerCount; otherPlayerNumber++) {
+                if (otherPlayerNumber != playerNumber) {
+                    otherMean += (double) getRollEffect(roll, otherPlayerNumber) * probability;
+                }
+            }
+            if (coinsForRoll > best || (coinsForRoll == best && bestProbability < probability)) {
+                best = coinsForRoll;
+                bestProbability = probability;
+            }
+        }
+        double squaredDeviation = 0.0;
+        for (int roll = lowestRoll; roll <= highestRoll; roll++) {
+            double deviation = getRollEffect(roll, playerNumber) - mean;
+            squaredDeviation += deviation * deviation * probability(dieCountIndex, roll);
+        }
+        expectedGain[index] = mean;
+        otherPlayersExpectedGain[index] = otherMean;
+        variance[index] = squaredDeviation;
+        bestCase[index] = best;
+        bestCaseProbability[index] = bestProbability;
+    }
+
+    private static double probability(int dieCountIndex, int roll) {
+        return dieCountIndex == ONE_DIE ? RollBenefitAnalyzer.SINGLE_ROLL_PROBABILITY : RollBenefitAnalyzer.diceRollProbabilityTwoDice(roll);
+    }
+
+    private int index(boolean twoDice, int playerNumber) {
+        return (twoDice ? TWO_DICE : ONE_DIE) * (playerCount + 1) + playerNumber;
+    }
+
+    public int getPlayerCount() {
+        return playerCount;
+    }
+
+    public int getRollEffect(int roll, int playerNumber) {
+        return rollEffects[roll * (playerCount + 1) + playerNumber];
+    }
+
+    public int getOtherPlayersRollEffect(int roll, int playerNumber) {
+        int total = 0;
+        for (int otherPlayerNumber = 1; otherPlayerNumber <= playerCount; otherPlayerNumber++) {
+            if (otherPlayerNumber != playerNumber) {
+                total += getRollEffect(roll, otherPlayerNumber);
+            }
+        }
+        return total;
+    }
+
+    public double getExpectedGain(boolean twoDice, int playerNumber) {
+        return expectedGain[index(twoDice, playerNumber)];
+    }
+
+    public double getOtherPlayersExpectedGain(boolean twoDice, int playerNumber) {
+        return otherPlayersExpectedGain[index(twoDice, playerNumber)];
+    }
+
+    public double getVariance(boolean twoDice, int playerNumber) {
+        return variance[index(twoDice, playerNumber)];
+    }
+
+    public int getBestCase(boolean twoDice, int playerNumber) {
+        return bestCase[index(twoDice, playerNumber)];
+    }
+
+    public double getBestCaseProbability(boolean twoDice, int playerNumber) {
+        return bestCaseProbability[index(twoDice, playerNumber)];
+    }
+}
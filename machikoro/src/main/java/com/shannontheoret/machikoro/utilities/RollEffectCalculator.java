@@ -2,13 +2,17 @@ package com.shannontheoret.machikoro.utilities;
 
 import com.shannontheoret.machikoro.Card;
 import com.shannontheoret.machikoro.CardCategory;
+import com.shannontheoret.machikoro.GameRules;
+import com.shannontheoret.machikoro.Landmark;
 import com.shannontheoret.machikoro.entity.Game;
 import com.shannontheoret.machikoro.entity.Player;
 import com.shannontheoret.machikoro.exception.GameMechanicException;
+import com.shannontheoret.machikoro.state.GameState;
 
 import java.util.*;
 
 public class RollEffectCalculator {
+
     public static Map<Integer, Integer> calculateRedCardEffects(Game game, Integer roll) throws GameMechanicException {
         Map<Integer, Integer> playerRollEffects = new HashMap<>();
         Player playerToSteal = game.getPreviousPlayer(game.getCurrentPlayerNumber());
@@ -155,6 +159,120 @@ public class RollEffectCalculator {
         return allPossibleRollEffects;
     }
 
+    public static int[][] newRollEffectsBuffer() {
+        return new int[13][GameRules.MAX_PLAYERS + 1];
+    }
+
+    //same values as calculateAllPossibleRollEffects(Game), written to rollEffects[roll][player number] without allocating
+    public static void calculateAllPossibleRollEffects(GameState state, int[][] rollEffects) {
+        for (int roll = 1; roll <= 12; roll++) {
+            calculateRollEffects(state, roll, rollEffects[roll]);
+        }
+    }
+
+    public static void calculateRollEffects(GameState state, int roll, int[] playerRollEffects) {
+        Arrays.fill(playerRollEffects, 0);
+        int currentPlayerNumber = state.getCurrentPlayerNumber();
+
+        int currentCoins = state.getCoins(currentPlayerNumber);
+        int playerToSteal = state.getPreviousPlayerNumber(currentPlayerNumber);
+        while (playerToSteal != currentPlayerNumber) {
+            int amountStolen = Math.min(calculateRedClaim(state, playerToSteal, roll), currentCoins);
+            currentCoins -= amountStolen;
+            playerRollEffects[playerToSteal] += amountStolen;
+            playerToSteal = state.getPreviousPlayerNumber(playerToSteal);
+        }
+        playerRollEffects[currentPlayerNumber] += currentCoins - state.getCoins(currentPlayerNumber);
+
+        playerRollEffects[currentPlayerNumber] += calculateGreenAndBlueEffectsForCurrentPlayer(state, roll);
+
+        int otherPlayer = state.getNextPlayerNumber(currentPlayerNumber);
+        while (otherPlayer != currentPlayerNumber) {
+            playerRollEffects[otherPlayer] += calculateBlueEffects(state, otherPlayer, roll);
+            otherPlayer = state.getNextPlayerNumber(otherPlayer);
+        }
+
+        if (state.hasCard(currentPlayerNumber, Card.STADIUM) && Card.STADIUM.rollApplies(roll)) {
+            int playerToStealFrom = state.getNextPlayerNumber(currentPlayerNumber);
+            while (playerToStealFrom != currentPlayerNumber) {
+                int amountToSteal = Math.min(state.getCoins(playerToStealFrom), Card.STADIUM.getAmountGained());
+                playerRollEffects[playerToStealFrom] -= amountToSteal;
+                playerRollEffects[currentPlayerNumber] += amountToSteal;
+                playerToStealFrom = state.getNextPlayerNumber(playerToStealFrom);
+            }
+        }
+
+        if (state.hasCard(currentPlayerNumber, Card.TV_STATION) && Card.TV_STATION.rollApplies(roll)) {
+            int amountToSteal = 0;
+            int playerToStealFrom = state.getNextPlayerNumber(currentPlayerNumber);
+            int bestPlayerNumberToStealFrom = playerToStealFrom;
+            while (playerToStealFrom != currentPlayerNumber) {
+                if (state.getCoins(playerToStealFrom) > amountToSteal) {
+                    amountToSteal = Math.min(state.getCoins(playerToStealFrom), Card.TV_STATION.getAmountGained());
+                    bestPlayerNumberToStealFrom = playerToStealFrom;
+                }
+                playerToStealFrom = state.getNextPlayerNumber(playerToStealFrom);
+            }
+            playerRollEffects[bestPlayerNumberToStealFrom] -= amountToSteal;
+            playerRollEffects[currentPlayerNumber] += amountToSteal;
+        }
+    }
+
+    //coins a player's red cards would take from the roller if the roller could pay in full
+    public static int calculateRedClaim(GameState state, int playerNumber, int roll) {
+        boolean hasShoppingMall = state.hasLandmark(playerNumber, Landmark.SHOPPING_MALL);
+        int claim = 0;
+        for (int cards = Card.redCardsForRoll(roll); cards != 0; cards &= cards - 1) {
+            Card card = Card.fromOrdinal(Integer.numberOfTrailingZeros(cards));
+            int amountGainedPerCard = card.getAmountGained();
+            if (hasShoppingMall && card.getCategory() == CardCategory.CUP) {
+                amountGainedPerCard++;
+            }
+            claim += amountGainedPerCard * state.getCardCount(playerNumber, card);
+        }
+        return claim;
+    }
+
+    public static int calculateGreenAndBlueEffectsForCurrentPlayer(GameState state, int roll) {
+        return calculateGreenAndBlueEffects(state, state.getCurrentPlayerNumber(), roll);
+    }
+
+    //what a player's green and blue cards pay on a roll of their own
+    public static int calculateGreenAndBlueEffects(GameState state, int playerNumber, int roll) {
+        boolean hasShoppingMall = state.hasLandmark(playerNumber, Landmark.SHOPPING_MALL);
+        int amountToAdd = 0;
+        for (int cards = Card.greenCardsForRoll(roll) | Card.blueCardsForRoll(roll); cards != 0; cards &= cards - 1) {
+            Card card = Card.fromOrdinal(Integer.numberOfTrailingZeros(cards));
+            int count = state.getCardCount(playerNumber, card);
+            if (count == 0) {
+                continue;
+            }
+            if (card.isBasic()) {
+                int amountGainedPerCard = card.getAmountGained();
+                if (hasShoppingMall && card.getCategory() == CardCategory.STORE) {
+                    amountGainedPerCard++;
+                }
+                amountToAdd += amountGainedPerCard * count;
+            } else if (card == Card.CHEESE_FACTORY) {
+                amountToAdd += state.getCountOfCardsInCategory(playerNumber, CardCategory.COW) * card.getAmountGained() * count;
+            } else if (card == Card.FURNITURE_FACTORY) {
+                amountToAdd += state.getCountOfCardsInCategory(playerNumber, CardCategory.GEAR) * card.getAmountGained() * count;
+            } else if (card == Card.FRUIT_AND_VEGETABLE_GARDEN) {
+                amountToAdd += state.getCountOfCardsInCategory(playerNumber, CardCategory.GRAIN) * card.getAmountGained() * count;
+            }
+        }
+        return amountToAdd;
+    }
+
+    public static int calculateBlueEffects(GameState state, int playerNumber, int roll) {
+        int amountToAdd = 0;
+        for (int cards = Card.blueCardsForRoll(roll); cards != 0; cards &= cards - 1) {
+            Card card = Card.fromOrdinal(Integer.numberOfTrailingZeros(cards));
+            amountToAdd += card.getAmountGained() * state.getCardCount(playerNumber, card);
+        }
+        return amountToAdd;
+    }
+
     private static void mergePlayerRollEffects(Map<Integer, Integer> target, Map<Integer, Integer> source) {
         for (Map.Entry<Integer, Integer> entry : source.entrySet()) {
             target.merge(entry.getKey(), entry.getValue(), Integer::sum);
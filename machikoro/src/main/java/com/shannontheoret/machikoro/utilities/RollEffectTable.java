@@ -0,0 +1,185 @@
+package com.shannontheoret.machikoro.utilities;
+
+import com.shannontheoret.machikoro.Card;
+import com.shannontheoret.machikoro.CardCategory;
+import com.shannontheoret.machikoro.Landmark;
+import com.shannontheoret.machikoro.state.GameState;
+
+import java.util.Arrays;
+
+//the roll effects of one game kept up to date between decisions instead of recomputed from every card each time;
+//sync compares the game with the state last seen and redoes only the rolls a changed card or landmark can touch,
+//a coin change only redoes the rolls where coins cap a red, stadium or tv steal
+public class RollEffectTable {
+    private static final int ALL_ROLLS = ((1 << (Card.MAX_ROLL + 1)) - 1) & ~1;
+    private static final Card[] CARDS = Card.values();
+    private static final int[] ROLLS_AFFECTED_BY_CARD = new int[CARDS.length];
+    private static final int RED_ROLLS;
+    private static final int SHOPPING_MALL_ROLLS; //rolls of the cup and store cards it adds to
+    private static final int SHOPPING_MALL_BIT = 1 << Landmark.SHOPPING_MALL.ordinal();
+
+    static {
+        int redRolls = 0;
+        int shoppingMallRolls = 0;
+        for (Card card : CARDS) {
+            int rolls = card.getRollMask();
+            //factories pay per card of a category, so buying one of those changes the factory's rolls too
+            if (card.getCategory() == CardCategory.COW) {
+                rolls |= Card.CHEESE_FACTORY.getRollMask();
+            } else if (card.getCategory() == CardCategory.GEAR) {
+                rolls |= Card.FURNITURE_FACTORY.getRollMask();
+            } else if (card.getCategory() == CardCategory.GRAIN) {
+                rolls |= Card.FRUIT_AND_VEGETABLE_GARDEN.getRollMask();
+            }
+            ROLLS_AFFECTED_BY_CARD[card.ordinal()] = rolls;
+            if (card.isSteals()) {
+                redRolls |= card.getRollMask();
+            }
+            if (card.getCategory() == CardCategory.CUP || card.getCategory() == CardCategory.STORE) {
+                shoppingMallRolls |= card.getRollMask();
+            }
+        }
+        RED_ROLLS = redRolls;
+        SHOPPING_MALL_ROLLS = shoppingMallRolls;
+    }
+
+    private final int playerCount;
+    private final GameState seen;
+    //the parts that do not depend on coins, [player number][roll]
+    private final int[][] redClaims;
+    private final int[][] ownTurnIncome;
+    private final int[][] blueIncome;
+    private final int[][] rollEffects = RollEffectCalculator.newRollEffectsBuffer();
+    private boolean initialized;
+
+    public RollEffectTable(int playerCount) {
+        this.playerCount = playerCount;
+        this.seen = new GameState(playerCount);
+        this.redClaims = new int[playerCount + 1][Card.MAX_ROLL + 1];
+        this.ownTurnIncome = new int[playerCount + 1][Card.MAX_ROLL + 1];
+        this.blueIncome = new int[playerCount + 1][Card.MAX_ROLL + 1];
+    }
+
+    public int getPlayerCount() {
+        return playerCount;
+    }
+
+    //brings the table up to the state and returns rollEffects[roll][player number], the layout of RollEffectCalculator.newRollEffectsBuffer;
+    //the array is reused by the next sync
+    public int[][] sync(GameState state) {
+        if (state.getPlayerCount() != playerCount) {
+            throw new IllegalArgumentException("Table has " + playerCount + " players, state has " + state.getPlayerCount());
+        }
+        int dirtyRolls = 0;
+        if (!initialized) {
+            for (int playerNumber = 1; playerNumber <= playerCount; playerNumber++) {
+                updatePlayer(state, playerNumber, ALL_ROLLS);
+            }
+            dirtyRolls = ALL_ROLLS;
+            initialized = true;
+        } else {
+            int currentPlayerNumber = state.getCurrentPlayerNumber();
+            if (currentPlayerNumber != seen.getCurrentPlayerNumber()) {
+                dirtyRolls = ALL_ROLLS;
+            }
+            for (int playerNumber = 1; playerNumber <= playerCount; playerNumber++) {
+                int changedRolls = 0;
+                for (Card card : CARDS) {
+                    if (state.getCardCount(playerNumber, card) != seen.getCardCount(playerNumber, card)) {
+                        changedRolls |= ROLLS_AFFECTED_BY_CARD[card.ordinal()];
+                    }
+                }
+                if (((state.getLandmarkMask(playerNumber) ^ seen.getLandmarkMask(playerNumber)) & SHOPPING_MALL_BIT) != 0) {
+                    changedRolls |= SHOPPING_MALL_ROLLS;
+                }
+                if (changedRolls != 0) {
+                    updatePlayer(state, playerNumber, changedRolls);
+                    dirtyRolls |= changedRolls;
+                }
+                if (state.getCoins(playerNumber) != seen.getCoins(playerNumber)) {
+                    dirtyRolls |= coinCappedRolls(state, playerNumber);
+                }
+            }
+        }
+        for (int rolls = dirtyRolls; rolls != 0; rolls &= rolls - 1) {
+            writeRoll(state, Integer.numberOfTrailingZeros(rolls));
+        }
+        seen.copyFrom(state);
+        return rollEffects;
+    }
+
+    private void updatePlayer(GameState state, int playerNumber, int rolls) {
+        for (; rolls != 0; rolls &= rolls - 1) {
+            int roll = Integer.numberOfTrailingZeros(rolls);
+            redClaims[playerNumber][roll] = RollEffectCalculator.calculateRedClaim(state, playerNumber, roll);
+            ownTurnIncome[playerNumber][roll] = RollEffectCalculator.calculateGreenAndBlueEffects(state, playerNumber, roll);
+            blueIncome[playerNumber][roll] = RollEffectCalculator.calculateBlueEffects(state, playerNumber, roll);
+        }
+    }
+
+    //the roller's coins cap what red cards take, everyone else's cap the stadium and tv station
+    private int coinCappedRolls(GameState state, int playerNumber) {
+        int currentPlayerNumber = state.getCurrentPlayerNumber();
+        if (playerNumber == currentPlayerNumber) {
+            return RED_ROLLS;
+        }
+        int rolls = 0;
+        if (state.hasCard(currentPlayerNumber, Card.STADIUM)) {
+            rolls |= Card.STADIUM.getRollMask();
+        }
+        if (state.hasCard(currentPlayerNumber, Card.TV_STATION)) {
+            rolls |= Card.TV_STATION.getRollMask();
+        }
+        return rolls;
+    }
+
+    //RollEffectCalculator.calculateRollEffects with the card scans replaced by the stored parts
+    private void writeRoll(GameState state, int roll) {
+        int[] playerRollEffects = rollEffects[roll];
+        Arrays.fill(playerRollEffects, 0);
+        int currentPlayerNumber = state.getCurrentPlayerNumber();
+
+        int currentCoins = state.getCoins(currentPlayerNumber);
+        int playerToSteal = state.getPreviousPlayerNumber(currentPlayerNumber);
+        while (playerToSteal != currentPlayerNumber) {
+            int amountStolen = Math.min(redClaims[playerToSteal][roll], currentCoins);
+            currentCoins -= amountStolen;
+            playerRollEffects[playerToSteal] += amountStolen;
+            playerToSteal = state.getPreviousPlayerNumber(playerToSteal);
+        }
+        playerRollEffects[currentPlayerNumber] += currentCoins - state.getCoins(currentPlayerNumber);
+
+        playerRollEffects[currentPlayerNumber] += ownTurnIncome[currentPlayerNumber][roll];
+
+        int otherPlayer = state.getNextPlayerNumber(currentPlayerNumber);
+        while (otherPlayer != currentPlayerNumber) {
+            playerRollEffects[otherPlayer] += blueIncome[otherPlayer][roll];
+            otherPlayer = state.getNextPlayerNumber(otherPlayer);
+        }
+
+        if (state.hasCard(currentPlayerNumber, Card.STADIUM) && Card.STADIUM.rollApplies(roll)) {
+            int playerToStealFrom = state.getNextPlayerNumber(currentPlayerNumber);
+            while (playerToStealFrom != currentPlayerNumber) {
+                int amountToSteal = Math.min(state.getCoins(playerToStealFrom), Card.STADIUM.getAmountGained());
+                playerRollEffects[playerToStealFrom] -= amountToSteal;
+                playerRollEffects[currentPlayerNumber] += amountToSteal;
+                playerToStealFrom = state.getNextPlayerNumber(playerToStealFrom);
+            }
+        }
+
+        if (state.hasCard(currentPlayerNumber, Card.TV_STATION) && Card.TV_STATION.rollApplies(roll)) {
+            int amountToSteal = 0;
+            int playerToStealFrom = state.getNextPlayerNumber(currentPlayerNumber);
+            int bestPlayerNumberToStealFrom = playerToStealFrom;
+            while (playerToStealFrom != currentPlayerNumber) {
+                if (state.getCoins(playerToStealFrom) > amountToSteal) {
+                    amountToSteal = Math.min(state.getCoins(playerToStealFrom), Card.TV_STATION.getAmountGained());
+                    bestPlayerNumberToStealFrom = playerToStealFrom;
+                }
+                playerToStealFrom = state.getNextPlayerNumber(playerToStealFrom);
+            }
+            playerRollEffects[bestPlayerNumberToStealFrom] -= amountToSteal;
+            playerRollEffects[currentPlayerNumber] += amountToSteal;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.shannontheoret.machikoro;
+
+import com.shannontheoret.machikoro.entity.Game;
+import com.shannontheoret.machikoro.exception.GameMechanicException;
+import com.shannontheoret.machikoro.exception.InvalidMoveException;
+import com.shannontheoret.machikoro.simulation.GameSimulator;
+import com.shannontheoret.machikoro.simulation.RandomDieSource;
+import com.shannontheoret.machikoro.utilities.GameUtilities;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CachingTurnDecisionEngineTests {
+
+    //a shared cache across many games must answer exactly as the heuristics would for every position
+    @Test
+    public void decisions_matchUncachedEngine() throws GameMechanicException, InvalidMoveException {
+        DecisionCache cache = new DecisionCache(10000);
+        SplittableRandom random = new SplittableRandom(5L);
+        TurnDecisionEngineFactory decisionEngines = TurnDecisionEngineFactory.standalone();
+        for (int gameIndex = 0; gameIndex < 20; gameIndex++) {
+            List<Map<StrategyName, Integer>> strategies = new ArrayList<>();
+            for (int i = 0; i < 2 + gameIndex % 3; i++) {
+                strategies.add(GameUtilities.generateReasonableStrategy());
+            }
+            Game game = GameSimulator.newGame(strategies);
+            RandomDieSource dieSource = new RandomDieSource(random);
+            for (int moves = 0; moves < 2000 && game.getStep() != Step.WON; moves++) {
+                assertSameDecision(game, cache);
+                GameActions.makeNPCMove(game, dieSource, decisionEngines);
+            }
+        }
+        assertTrue(cache.getHits() > 0);
+    }
+
+    @Test
+    public void makeBuyingDecision_repeatedPositionIsAHit() throws GameMechanicException {
+        DecisionCache cache = new DecisionCache(100);
+        Game game = GameSimulator.newGame(List.of(GameUtilities.generateReasonableStrategy(), GameUtilities.generateReasonableStrategy()));
+        game.setStep(Step.BUY);
+        game.setDie1(4);
+
+        BuyingDecision first = engine(game, cache).makeBuyingDecision();
+        game.setDie1(5); //the dice do not matter to a purchase
+        BuyingDecision second = engine(game, cache).makeBuyingDecision();
+
+        assertEquals(first.getCardToPurchase(), second.getCardToPurchase());
+        assertEquals(first.getLandmarkToPurchase(), second.getLandmarkToPurchase());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(0.5, cache.getHitRate());
+    }
+
+    //a caller changing its decision does not change what the next game is given
+    @Test
+    public void makeBuyingDecision_returnsCopy() throws GameMechanicException {
+        DecisionCache cache = new DecisionCache(100);
+        Game game = GameSimulator.newGame(List.of(GameUtilities.generateReasonableStrategy(), GameUtilities.generateReasonableStrategy()));
+        game.setStep(Step.BUY);
+
+        BuyingDecision first = engine(game, cache).makeBuyingDecision();
+        Double compositeScore = first.getCompositeScore();
+        first.setCompositeScore(-1.0);
+        first.getStrategicValue().clear();
+        BuyingDecision second = engine(game, cache).makeBuyingDecision();
+
+        assertNotSame(first, second);
+        assertEquals(compositeScore, second.getCompositeScore());
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    public void reroll_keyedByDice() throws GameMechanicException {
+        DecisionCache cache = new DecisionCache(100);
+        Game game = GameSimulator.newGame(List.of(GameUtilities.generateReasonableStrategy(), GameUtilities.generateReasonableStrategy()));
+        game.setStep(Step.CONFIRM_ROLL);
+        game.setDie1(1);
+        engine(game, cache).reroll();
+        game.setDie1(6);
+        engine(game, cache).reroll();
+
+        assertEquals(0, cache.getHits());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void get_evictsLeastRecentlyUsedAtCap() throws GameMechanicException {
+        DecisionCache cache = new DecisionCache(DecisionCache.SEGMENT_COUNT * 4);
+        for (int i = 0; i < 1000; i++) {
+            int value = i;
+            cache.get(i, () -> value);
+        }
+
+        assertTrue(cache.size() <= DecisionCache.SEGMENT_COUNT * 4);
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(999, loads::incrementAndGet);
+        cache.get(0, loads::incrementAndGet);
+        assertEquals(1, loads.get()); //the newest entry is kept, the oldest was evicted
+    }
+
+    @Test
+    public void get_disabledCacheAlwaysLoads() throws GameMechanicException {
+        DecisionCache cache = new DecisionCache(0);
+        cache.get("key", () -> 1);
+        cache.get("key", () -> 1);
+
+        assertEquals(0, cache.size());
+        assertEquals(2, cache.getMisses());
+    }
+
+    private void assertSameDecision(Game game, DecisionCache cache) throws GameMechanicException {
+        Map<StrategyName, Integer> strategy = game.getCurrentPlayer().getStrategy();
+        StrategicTurnDecisionEngine expected = new StrategicTurnDecisionEngine(strategy, game);
+        CachingTurnDecisionEngine actual = new CachingTurnDecisionEngine(strategy, game, cache);
+        switch (game.getStep()) {
+            case ROLL:
+                assertEquals(expected.rollSingleDice(), actual.rollSingleDice());
+                break;
+            case CONFIRM_ROLL:
+                assertEquals(expected.reroll(), actual.reroll());
+                assertEquals(expected.rollSingleDice(), actual.rollSingleDice());
+                break;
+            case STEAL:
+                assertEquals(expected.choosePlayerToStealFrom(), actual.choosePlayerToStealFrom());
+                break;
+            case BUY:
+                BuyingDecision expectedDecision = expected.makeBuyingDecision();
+                BuyingDecision actualDecision = actual.makeBuyingDecision();
+                assertEquals(expectedDecision.getCardToPurchase(), actualDecision.getCardToPurchase());
+                assertEquals(expectedDecision.getLandmarkToPurchase(), actualDecision.getLandmarkToPurchase());
+                break;
+            default:
+                break;
+        }
+    }
+
+    private CachingTurnDecisionEngine engine(Game game, DecisionCache cache) {
+        return new CachingTurnDecisionEngine(game.getCurrentPlayer().getStrategy(), game, cache);
+    }
+}
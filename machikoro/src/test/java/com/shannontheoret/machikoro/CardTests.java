@@ -0,0 +1,61 @@
+package com.shannontheoret.machikoro;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class CardTests {
+
+    @Test
+    public void activationTables_matchCardDefinitions() {
+        for (int roll = 0; roll <= Card.MAX_ROLL + 1; roll++) {
+            int red = 0;
+            int blue = 0;
+            int green = 0;
+            int purple = 0;
+            for (Card card : Card.values()) {
+                if (!card.getRolls().contains(roll)) {
+                    continue;
+                }
+                int cardBit = 1 << card.ordinal();
+                if (card.getCategory() == CardCategory.PURPLE) {
+                    purple |= cardBit;
+                } else if (card.isSteals()) {
+                    red |= cardBit;
+                } else if (card.isOnAnyonesTurn()) {
+                    blue |= cardBit;
+                } else if (card.isOnPlayersTurn()) {
+                    green |= cardBit;
+                }
+            }
+            assertEquals(red, Card.redCardsForRoll(roll), "red " + roll);
+            assertEquals(blue, Card.blueCardsForRoll(roll), "blue " + roll);
+            assertEquals(green, Card.greenCardsForRoll(roll), "green " + roll);
+            assertEquals(purple, Card.purpleCardsForRoll(roll), "purple " + roll);
+        }
+    }
+
+    @Test
+    public void rollApplies_matchesRolls() {
+        for (Card card : Card.values()) {
+            for (int roll = -1; roll <= Card.MAX_ROLL + 2; roll++) {
+                assertEquals(card.getRolls().contains(roll), card.rollApplies(roll), card + " " + roll);
+            }
+        }
+        assertFalse(Card.WHEAT.rollApplies(33));
+    }
+
+    @Test
+    public void cardsInCategory_matchesCategories() {
+        for (CardCategory category : CardCategory.values()) {
+            int expected = 0;
+            for (Card card : Card.values()) {
+                if (card.getCategory() == category) {
+                    expected |= 1 << card.ordinal();
+                }
+            }
+            assertEquals(expected, Card.cardsInCategory(category), category.name());
+        }
+    }
+}
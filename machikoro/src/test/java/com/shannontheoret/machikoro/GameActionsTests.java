@@ -0,0 +1,96 @@
+package com.shannontheoret.machikoro;
+
+import com.shannontheoret.machikoro.entity.Game;
+import com.shannontheoret.machikoro.entity.GameMove;
+import com.shannontheoret.machikoro.entity.Player;
+import com.shannontheoret.machikoro.exception.GameMechanicException;
+import com.shannontheoret.machikoro.exception.InvalidMoveException;
+import com.shannontheoret.machikoro.state.GameState;
+import com.shannontheoret.machikoro.utilities.GameUtilities;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameActionsTests {
+
+    @Test
+    public void replay_rebuildsRecordedGame() throws GameMechanicException, InvalidMoveException {
+        SplittableRandom random = new SplittableRandom(13);
+        TurnDecisionEngineFactory decisionEngines = TurnDecisionEngineFactory.standalone();
+        for (int i = 0; i < 20; i++) {
+            Game game = npcGame(random.nextInt(GameRules.MIN_PLAYERS, GameRules.MAX_PLAYERS + 1));
+            game.startRecordingMoves();
+            List<GameMove> moves = new ArrayList<>();
+            while (game.getStep() != Step.WON && game.getMoveCount() < 1000) {
+                GameActions.makeNPCMove(game, () -> random.nextInt(1, 7), decisionEngines);
+                moves.addAll(game.drainRecordedMoves());
+            }
+
+            Game replayed = GameActions.startingPosition(game);
+            GameActions.replay(replayed, moves);
+
+            assertEquals(game.getMoveCount(), moves.size());
+            assertEquals(game.getMoveCount(), replayed.getMoveCount());
+            assertEquals(GameState.fromGame(game), GameState.fromGame(replayed));
+        }
+    }
+
+    @Test
+    public void recordMove_nothingKeptUnlessRecording() throws GameMechanicException, InvalidMoveException {
+        Game game = npcGame(2);
+
+        GameActions.roll(game, false, () -> 3);
+
+        assertEquals(1, game.getMoveCount());
+        assertTrue(game.drainRecordedMoves().isEmpty());
+    }
+
+    @Test
+    public void roll_recordsDice() throws GameMechanicException, InvalidMoveException {
+        Game game = npcGame(2);
+        game.getPlayerByNumber(1).getLandmarks().add(Landmark.TRAIN_STATION);
+        game.startRecordingMoves();
+
+        GameActions.roll(game, true, sequence(2, 5));
+
+        List<GameMove> moves = game.drainRecordedMoves();
+        assertEquals(1, moves.size());
+        assertEquals(MoveType.ROLL, moves.get(0).getType());
+        assertEquals(1, moves.get(0).getPlayerNumber());
+        assertEquals(2, moves.get(0).getDie1());
+        assertEquals(5, moves.get(0).getDie2());
+        assertTrue(moves.get(0).isRollTwo());
+    }
+
+    @Test
+    public void replayMove_outOfSequence() throws GameMechanicException {
+        Game game = npcGame(2);
+
+        GameMove skipped = new GameMove("AAAA", 2, 1, MoveType.COMPLETE_TURN);
+        GameMove wrongPlayer = new GameMove("AAAA", 1, 2, MoveType.COMPLETE_TURN);
+
+        assertThrows(GameMechanicException.class, () -> GameActions.replayMove(game, skipped));
+        assertThrows(GameMechanicException.class, () -> GameActions.replayMove(game, wrongPlayer));
+        assertEquals(0, game.getMoveCount());
+    }
+
+    private DieSource sequence(int... dice) {
+        int[] next = {0};
+        return () -> dice[next[0]++];
+    }
+
+    private Game npcGame(int numberOfPlayers) throws GameMechanicException {
+        Game game = GameActions.createGame(numberOfPlayers);
+        game.setCode("AAAA");
+        game.setStep(Step.ROLL);
+        for (Player player : game.getPlayers()) {
+            player.setNpc(true);
+            player.setStrategy(GameUtilities.generateReasonableStrategy());
+        }
+        return game;
+    }
+}
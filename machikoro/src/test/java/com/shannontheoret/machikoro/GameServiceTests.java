@@ -2,6 +2,7 @@ package com.shannontheoret.machikoro;
 
 import com.shannontheoret.machikoro.dao.GameDao;
 import com.shannontheoret.machikoro.dao.PlayerDao;
+import com.shannontheoret.machikoro.dto.GameDeltaDTO;
 import com.shannontheoret.machikoro.dto.PlayerDTO;
 import com.shannontheoret.machikoro.entity.Game;
 import com.shannontheoret.machikoro.entity.Player;
@@ -9,7 +10,10 @@ import com.shannontheoret.machikoro.exception.GameCodeNotFoundException;
 import com.shannontheoret.machikoro.exception.GameMechanicException;
 import com.shannontheoret.machikoro.exception.InvalidMoveException;
 import com.shannontheoret.machikoro.service.GameService;
+import com.shannontheoret.machikoro.state.GameState;
 import com.shannontheoret.machikoro.utilities.GameUtilities;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -80,6 +84,25 @@ public class GameServiceTests {
         verify(playerDao, times(0)).save(any(Player.class));
     }
 
+    @Test
+    public void deltaSince_knownStateOrWholeGame() throws GameMechanicException, InvalidMoveException {
+        Game game = GameActions.createGame(2);
+        game.setCode("testCode");
+        game.setStep(Step.ROLL);
+        GameState known = GameState.fromGame(game);
+        GameActions.roll(game, false, () -> 1);
+        when(gameDao.findRecentState("testCode", 0)).thenReturn(known);
+
+        GameDeltaDTO delta = gameService.deltaSince(game, 0);
+
+        assertEquals(0, delta.getBaseMoveCount());
+        assertEquals(1, delta.getMoveCount());
+        assertEquals(1, delta.getDie1());
+        assertEquals(2, delta.getPlayers().size()); //wheat pays every player on a one
+        assertEquals(4, delta.getPlayers().get(0).getCoins());
+        assertNull(gameService.deltaSince(game, 5));
+    }
+
     @Test
     public void setupPlayer_valid() throws GameMechanicException, GameCodeNotFoundException, InvalidMoveException {
         when(gameUtilities.generateCode()).thenReturn("testCode");
@@ -225,9 +248,9 @@ public class GameServiceTests {
         when(gameDao.findByCode("testCode")).thenReturn(game);
 
         if (rollTwo) {
-            when(gameUtilities.generateRandomDieRoll()).thenReturn(6, rollValue - 6);
+            when(gameUtilities.generateRandomDieRoll(any(Game.class), anyInt())).thenReturn(6, rollValue - 6);
         } else {
-            when(gameUtilities.generateRandomDieRoll()).thenReturn(rollValue);
+            when(gameUtilities.generateRandomDieRoll(any(Game.class), anyInt())).thenReturn(rollValue);
         }
 
         gameService.roll("testCode", rollTwo);
@@ -253,7 +276,7 @@ public class GameServiceTests {
         player1.setCoins(4);
         player1.getLandmarks().add(Landmark.RADIO_TOWER);
 
-        when(gameUtilities.generateRandomDieRoll()).thenReturn(2);
+        when(gameUtilities.generateRandomDieRoll(any(Game.class), anyInt())).thenReturn(2);
         when(gameDao.findByCode("testCode")).thenReturn(game);
 
         gameService.roll("testCode", false);
@@ -285,7 +308,7 @@ public class GameServiceTests {
         player1.getLandmarks().add(Landmark.RADIO_TOWER);
         player1.getLandmarks().add(Landmark.TRAIN_STATION);
 
-        when(gameUtilities.generateRandomDieRoll()).thenReturn(3, 5); //total 8 to activate furniture factory
+        when(gameUtilities.generateRandomDieRoll(any(Game.class), anyInt())).thenReturn(3, 5); //total 8 to activate furniture factory
         when(gameDao.findByCode("testCode")).thenReturn(game);
 
         gameService.roll("testCode", true);
@@ -312,6 +335,31 @@ public class GameServiceTests {
         verifySaves(game, 0);
     }
 
+    @Test
+    public void roll_recordsTimerTaggedByStepAndOutcome() throws GameMechanicException, GameCodeNotFoundException, InvalidMoveException {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Metrics.addRegistry(registry);
+        try {
+            setupMocks();
+            Game game = gameService.newGame(3);
+            game.setStep(Step.ROLL);
+            game.setCurrentPlayerNumber(1);
+            when(gameUtilities.generateRandomDieRoll(any(Game.class), anyInt())).thenReturn(1);
+            when(gameDao.findByCode("testCode")).thenReturn(game);
+
+            gameService.roll("testCode", false);
+            assertThrows(InvalidMoveException.class, () -> gameService.roll("testCode", false));
+
+            assertEquals(1, registry.get("machikoro.game.action")
+                    .tags("action", "roll", "step", "ROLL", "players", "3", "outcome", "ok").timer().count());
+            assertEquals(1, registry.get("machikoro.game.action")
+                    .tags("action", "roll", "outcome", "rejected").timer().count());
+            assertEquals(1.0, registry.get("machikoro.moves").tags("action", "roll").counter().count());
+        } finally {
+            Metrics.removeRegistry(registry);
+        }
+    }
+
     @Test
     public void rollTwo_noTrainStation_throwsInvalidMoveException() throws GameMechanicException {
         when(gameUtilities.generateCode()).thenReturn("testCode");
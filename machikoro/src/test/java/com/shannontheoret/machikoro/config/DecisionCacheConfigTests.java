@@ -0,0 +1,30 @@
+package com.shannontheoret.machikoro.config;
+
+import com.shannontheoret.machikoro.DecisionCache;
+import com.shannontheoret.machikoro.TurnDecisionEngineFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DecisionCacheConfigTests {
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withUserConfiguration(DecisionCacheConfig.class, MonteCarloConfig.class, ExpectimaxConfig.class,
+                    TurnDecisionEngineFactory.class);
+
+    //each context builds its own cache, so a second context does not change the first one's
+    @Test
+    public void decisionCache_separatePerContext() {
+        runner.withPropertyValues("machikoro.npc.decision-cache.max-entries=100").run(first ->
+                runner.withPropertyValues("machikoro.npc.decision-cache.max-entries=200").run(second -> {
+                    assertEquals(100, first.getBean(DecisionCache.class).getMaxEntries());
+                    assertEquals(200, second.getBean(DecisionCache.class).getMaxEntries());
+                    assertNotSame(first.getBean(TurnDecisionEngineFactory.class), second.getBean(TurnDecisionEngineFactory.class));
+                }));
+    }
+
+    @Test
+    public void decisionCache_defaultSize() {
+        runner.run(context -> assertEquals(DecisionCache.DEFAULT_MAX_ENTRIES, context.getBean(DecisionCache.class).getMaxEntries()));
+    }
+}
@@ -0,0 +1,177 @@
+package com.shannontheoret.machikoro.dao;
+
+import com.shannontheoret.machikoro.entity.Game;
+import com.shannontheoret.machikoro.state.GameState;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ActiveGameCacheTests {
+
+    private final AtomicLong now = new AtomicLong(0);
+
+    @Test
+    public void getEvictionCandidates_leastRecentlyUsedBeyondLimit() {
+        ActiveGameCache cache = new ActiveGameCache(2, 1000, now::get);
+        cache.putIfAbsent(game("AAAA"), true);
+        cache.putIfAbsent(game("BBBB"), true);
+        cache.putIfAbsent(game("CCCC"), true);
+        cache.get("AAAA");
+
+        List<CachedGame> candidates = cache.getEvictionCandidates();
+
+        assertEquals(1, candidates.size());
+        assertEquals("BBBB", candidates.get(0).getGame().getCode());
+    }
+
+    @Test
+    public void getEvictionCandidates_idlePastTimeToLive() {
+        ActiveGameCache cache = new ActiveGameCache(10, 1000, now::get);
+        cache.putIfAbsent(game("AAAA"), true);
+        now.set(600);
+        cache.putIfAbsent(game("BBBB"), true);
+        now.set(1500);
+
+        List<CachedGame> candidates = cache.getEvictionCandidates();
+
+        assertEquals(1, candidates.size());
+        assertEquals("AAAA", candidates.get(0).getGame().getCode());
+    }
+
+    @Test
+    public void putNewLocked_lockedBeforeVisible() throws InterruptedException {
+        ActiveGameCache cache = new ActiveGameCache(10, 1000, now::get);
+
+        CachedGame cachedGame = cache.putNewLocked(game("AAAA"));
+
+        assertTrue(cachedGame.getLock().isHeldByCurrentThread());
+        assertSame(cachedGame, cache.get("AAAA"));
+        assertFalse(cachedGame.isPersisted());
+        boolean[] locked = new boolean[1];
+        Thread other = new Thread(() -> locked[0] = cache.get("AAAA").getLock().tryLock());
+        other.start();
+        other.join();
+        assertFalse(locked[0]);
+        assertThrows(IllegalStateException.class, () -> cache.putNewLocked(game("AAAA")));
+        cachedGame.getLock().unlock();
+    }
+
+    @Test
+    public void getDirtyGames_skipsGamesBeingFlushed() {
+        ActiveGameCache cache = new ActiveGameCache(10, 1000, now::get);
+        CachedGame cachedGame = cache.putIfAbsent(game("AAAA"), true);
+        cachedGame.markModified(List.of());
+        cachedGame.startFlush();
+
+        assertTrue(cache.getDirtyGames().isEmpty());
+
+        cachedGame.endFlush();
+        assertEquals(List.of(cachedGame), cache.getDirtyGames());
+    }
+
+    @Test
+    public void evict_skipsDirtyGames() {
+        ActiveGameCache cache = new ActiveGameCache(10, 1000, now::get);
+        CachedGame cachedGame = cache.putIfAbsent(game("AAAA"), true);
+        cachedGame.markModified(List.of());
+
+        assertFalse(cache.evict(cachedGame));
+        assertSame(cachedGame, cache.get("AAAA"));
+
+        cachedGame.markFlushed(cachedGame.getModifications(), 1, 0, null);
+        assertTrue(cache.evict(cachedGame));
+        assertTrue(cachedGame.isEvicted());
+        assertNull(cache.get("AAAA"));
+    }
+
+    @Test
+    public void evict_skipsLockedGames() throws InterruptedException {
+        ActiveGameCache cache = new ActiveGameCache(10, 1000, now::get);
+        CachedGame cachedGame = cache.putIfAbsent(game("AAAA"), true);
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = new Thread(() -> {
+            cachedGame.getLock().lock();
+            try {
+                locked.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                cachedGame.getLock().unlock();
+            }
+        });
+        holder.start();
+        locked.await(5, TimeUnit.SECONDS);
+
+        assertFalse(cache.evict(cachedGame));
+
+        release.countDown();
+        holder.join();
+        assertTrue(cache.evict(cachedGame));
+    }
+
+    @Test
+    public void markFlushed_saveDuringFlushStaysDirty() {
+        ActiveGameCache cache = new ActiveGameCache(10, 1000, now::get);
+        CachedGame cachedGame = cache.putIfAbsent(game("AAAA"), false);
+        assertFalse(cachedGame.isPersisted());
+        cachedGame.markModified(List.of());
+        long flushed = cachedGame.getModifications();
+        cachedGame.markModified(List.of());
+
+        cachedGame.markFlushed(flushed, 1, 0, null);
+
+        assertTrue(cachedGame.isPersisted());
+        assertTrue(cachedGame.isDirty());
+        assertEquals(1, cache.getDirtyGames().size());
+    }
+
+    @Test
+    public void isTurnEnded_comparesWithLastWrittenPlayer() {
+        ActiveGameCache cache = new ActiveGameCache(10, 1000, now::get);
+        Game game = game("AAAA");
+        CachedGame cachedGame = cache.putIfAbsent(game, true);
+        assertFalse(cachedGame.isTurnEnded());
+
+        game.setCurrentPlayerNumber(2);
+
+        assertTrue(cachedGame.isTurnEnded());
+    }
+
+    @Test
+    public void getRecentState_forgetsStatesBeforeChangeWithoutMoves() {
+        ActiveGameCache cache = new ActiveGameCache(10, 1000, now::get);
+        Game game = game("AAAA");
+        CachedGame cachedGame = cache.putIfAbsent(game, true);
+        GameState first = new GameState(2);
+        GameState second = new GameState(2);
+        cachedGame.recordState(1, first);
+        cachedGame.recordState(2, second);
+        assertSame(first, cachedGame.getRecentState(1));
+
+        game.setMoveCount(2);
+        cachedGame.markModified(List.of());
+        cachedGame.recordState(2, new GameState(2));
+
+        assertNull(cachedGame.getRecentState(1));
+        assertNull(cachedGame.getRecentState(2));
+        for (int moveCount = 3; moveCount < 3 + CachedGame.RECENT_STATES + 1; moveCount++) {
+            cachedGame.recordState(moveCount, new GameState(2));
+        }
+        assertNull(cachedGame.getRecentState(3));
+        assertNotNull(cachedGame.getRecentState(4));
+    }
+
+    private Game game(String code) {
+        Game game = new Game();
+        game.setCode(code);
+        game.setCurrentPlayerNumber(1);
+        return game;
+    }
+}
@@ -0,0 +1,189 @@
+package com.shannontheoret.machikoro.dao;
+
+import com.shannontheoret.machikoro.GameActions;
+import com.shannontheoret.machikoro.Step;
+import com.shannontheoret.machikoro.entity.Game;
+import com.shannontheoret.machikoro.exception.GameException;
+import com.shannontheoret.machikoro.state.GameState;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+//against an in-memory H2 database in MySQL mode, as the load test runs; every write commits, as it does in the app
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:machikoro-dao;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class GameDaoJpaTests {
+    private static final int ROUNDS = 20;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    //loading replays the logged moves on a detached copy, so concurrent cold loads neither write the row nor conflict
+    @Test
+    public void findByCode_concurrentColdLoadsLeaveRowUnchanged() throws Exception {
+        GameDao writer = gameDao(PersistenceMode.TABLES);
+        Game game = game("LOAD");
+        save(writer, game);
+        GameActions.roll(game, false, () -> 1);
+        save(writer, game);
+        GameActions.completeTurn(game);
+        save(writer, game);
+        long version = storedVersion("LOAD");
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                GameDao reader = gameDao(PersistenceMode.TABLES);
+                CyclicBarrier start = new CyclicBarrier(2);
+                List<Future<Game>> loads = new ArrayList<>();
+                for (int i = 0; i < 2; i++) {
+                    loads.add(executor.submit(() -> {
+                        start.await();
+                        return reader.withGameLock("LOAD", () -> reader.findByCode("LOAD"));
+                    }));
+                }
+                for (Future<Game> load : loads) {
+                    Game loaded = load.get(30, TimeUnit.SECONDS);
+                    assertEquals(2, loaded.getMoveCount());
+                    assertEquals(2, loaded.getCurrentPlayerNumber());
+                    assertEquals(1, loaded.getPlayerByNumber(1).getCoins());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(version, storedVersion("LOAD"));
+        assertEquals(0, storedMoveCount("LOAD"));
+    }
+
+    @Test
+    public void save_stateColumnInsertsOneRowWithState() throws GameException {
+        GameDao writer = gameDao(PersistenceMode.STATE_COLUMN);
+        Game game = game("INSERT");
+        game.getPlayerByNumber(2).setCoins(5);
+        long playerRows = countPlayerRows();
+        save(writer, game);
+
+        assertNotNull(storedState("INSERT"));
+        assertEquals(0, storedVersion("INSERT"));
+        assertEquals(playerRows, countPlayerRows());
+        Game loaded = gameDao(PersistenceMode.STATE_COLUMN).findByCode("INSERT");
+        assertEquals(GameState.fromGame(game), GameState.fromGame(loaded));
+    }
+
+    //each write bumps the version in the update itself, and a copy that missed another writer's update is refused
+    @Test
+    public void save_stateColumnUpdateChecksVersion() throws GameException {
+        save(gameDao(PersistenceMode.STATE_COLUMN), game("UPDATE"));
+        GameDao firstDao = gameDao(PersistenceMode.STATE_COLUMN, 1);
+        Game first = firstDao.findByCode("UPDATE");
+        GameDao secondDao = gameDao(PersistenceMode.STATE_COLUMN, 1);
+        Game second = secondDao.findByCode("UPDATE");
+
+        GameActions.roll(first, false, () -> 1);
+        save(firstDao, first);
+
+        assertEquals(1, storedVersion("UPDATE"));
+        assertEquals(1, first.getVersion());
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> save(secondDao, second));
+        assertEquals(1, storedVersion("UPDATE"));
+        Game loaded = gameDao(PersistenceMode.STATE_COLUMN).findByCode("UPDATE");
+        assertEquals(1, loaded.getPlayerByNumber(1).getCoins());
+    }
+
+    //a game written to the tables is moved into the state column by the startup migration, moves since its snapshot included
+    @Test
+    public void migrate_movesTableGamesIntoStateColumn() throws Exception {
+        GameDao tables = gameDao(PersistenceMode.TABLES);
+        Game game = game("MIGRATE");
+        save(tables, game);
+        GameActions.roll(game, false, () -> 1);
+        save(tables, game);
+        assertNull(storedState("MIGRATE"));
+
+        new StateColumnMigration(gameDao(PersistenceMode.STATE_COLUMN), true).migrate();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (storedState("MIGRATE") == null && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertNotNull(storedState("MIGRATE"));
+        assertEquals(1, storedMoveCount("MIGRATE"));
+        Game loaded = gameDao(PersistenceMode.STATE_COLUMN).findByCode("MIGRATE");
+        assertEquals(GameState.fromGame(game), GameState.fromGame(loaded));
+    }
+
+    private GameDao gameDao(PersistenceMode persistenceMode) {
+        return gameDao(persistenceMode, 20);
+    }
+
+    private GameDao gameDao(PersistenceMode persistenceMode, int snapshotInterval) {
+        return new GameDao(entityManager, mock(ApplicationEventPublisher.class), new ActiveGameCache(100, 60000),
+                transactionManager, Durability.MOVE, snapshotInterval, persistenceMode);
+    }
+
+    //GameDao is not proxied here, so the transaction its save would get from Spring is opened by hand
+    private void save(GameDao gameDao, Game game) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> gameDao.save(game));
+    }
+
+    private long storedVersion(String code) {
+        return new TransactionTemplate(transactionManager).execute(status -> entityManager
+                .createQuery("select g.version from Game g where g.code = :code", Long.class)
+                .setParameter("code", code)
+                .getSingleResult());
+    }
+
+    private String storedState(String code) {
+        return new TransactionTemplate(transactionManager).execute(status -> entityManager
+                .createQuery("select r.state from GameRecord r where r.code = :code", String.class)
+                .setParameter("code", code)
+                .getSingleResult());
+    }
+
+    private long countPlayerRows() {
+        return new TransactionTemplate(transactionManager).execute(status -> entityManager
+                .createQuery("select count(p) from player p", Long.class)
+                .getSingleResult());
+    }
+
+    private int storedMoveCount(String code) {
+        return new TransactionTemplate(transactionManager).execute(status -> entityManager
+                .createQuery("select g.moveCount from Game g where g.code = :code", Integer.class)
+                .setParameter("code", code)
+                .getSingleResult());
+    }
+
+    private Game game(String code) throws GameException {
+        Game game = GameActions.createGame(2);
+        game.setCode(code);
+        game.setStep(Step.ROLL);
+        game.getPlayerByNumber(1).setCoins(0);
+        return game;
+    }
+}
@@ -0,0 +1,478 @@
+package com.shannontheoret.machikoro.dao;
+
+import com.shannontheoret.machikoro.GameActions;
+import com.shannontheoret.machikoro.Landmark;
+import com.shannontheoret.machikoro.MoveType;
+import com.shannontheoret.machikoro.Step;
+import com.shannontheoret.machikoro.TurnDecisionEngineFactory;
+import com.shannontheoret.machikoro.dto.PlayerDTO;
+import com.shannontheoret.machikoro.entity.Game;
+import com.shannontheoret.machikoro.entity.GameMove;
+import com.shannontheoret.machikoro.entity.GameRecord;
+import com.shannontheoret.machikoro.entity.Player;
+import com.shannontheoret.machikoro.exception.GameCodeNotFoundException;
+import com.shannontheoret.machikoro.exception.GameException;
+import com.shannontheoret.machikoro.exception.InvalidMoveException;
+import com.shannontheoret.machikoro.service.GameService;
+import com.shannontheoret.machikoro.state.GameCodec;
+import com.shannontheoret.machikoro.state.GameState;
+import com.shannontheoret.machikoro.utilities.GameUtilities;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class GameDaoTests {
+    private static final int THREADS = 16;
+
+    private EntityManager entityManager;
+    private Session session;
+    private TypedQuery<GameMove> moveQuery;
+    private GameDao gameDao;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        entityManager = mock(EntityManager.class);
+        session = mock(Session.class);
+        moveQuery = mock(TypedQuery.class, RETURNS_SELF);
+        when(entityManager.unwrap(Session.class)).thenReturn(session);
+        when(entityManager.createQuery(anyString(), eq(GameMove.class))).thenReturn(moveQuery);
+        gameDao = gameDao(Durability.INTERVAL, 20);
+    }
+
+    @Test
+    public void save_appendsMovesAndRewritesGameEverySnapshotInterval() throws GameException {
+        gameDao = gameDao(Durability.MOVE, 3);
+        when(session.get(Game.class, "AAAA")).thenReturn(game("AAAA"));
+        when(entityManager.merge(any(Game.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        Game game = gameDao.findByCode("AAAA");
+
+        GameActions.roll(game, false, () -> 1);
+        gameDao.save(game);
+        GameActions.completeTurn(game);
+        gameDao.save(game);
+
+        verify(entityManager, times(2)).persist(any(GameMove.class));
+        verify(entityManager, never()).merge(any(Game.class));
+
+        GameActions.roll(game, false, () -> 1);
+        gameDao.save(game);
+
+        verify(entityManager, times(3)).persist(any(GameMove.class));
+        verify(entityManager).merge(game);
+    }
+
+    @Test
+    public void save_withoutMovesRewritesGame() throws GameException {
+        gameDao = gameDao(Durability.MOVE, 20);
+        when(session.get(Game.class, "AAAA")).thenReturn(game("AAAA"));
+        when(entityManager.merge(any(Game.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        Game game = gameDao.findByCode("AAAA");
+
+        gameDao.save(game);
+
+        verify(entityManager, never()).persist(any(GameMove.class));
+        verify(entityManager).merge(game);
+    }
+
+    @Test
+    public void findRecentState_statesPublishedOnSave() throws GameException {
+        when(session.get(Game.class, "AAAA")).thenReturn(game("AAAA"));
+        Game game = gameDao.findByCode("AAAA");
+        GameActions.roll(game, false, () -> 1);
+        gameDao.save(game);
+        GameActions.completeTurn(game);
+        gameDao.save(game);
+
+        assertEquals(1, gameDao.findRecentState("AAAA", 1).getCoins(1));
+        assertEquals(2, gameDao.findRecentState("AAAA", 2).getCurrentPlayerNumber());
+        assertNull(gameDao.findRecentState("AAAA", 0));
+        assertNull(gameDao.findRecentState("BBBB", 1));
+    }
+
+    @Test
+    public void findByCode_replaysMovesAfterSnapshot() throws GameException {
+        when(session.get(Game.class, "AAAA")).thenReturn(game("AAAA"));
+        GameMove roll = new GameMove("AAAA", 1, 1, MoveType.ROLL);
+        roll.setDice(1, 0);
+        when(moveQuery.getResultList()).thenReturn(List.of(roll, new GameMove("AAAA", 2, 1, MoveType.COMPLETE_TURN)));
+
+        Game game = gameDao.findByCode("AAAA");
+
+        assertEquals(2, game.getMoveCount());
+        assertEquals(2, game.getCurrentPlayerNumber());
+        assertEquals(1, game.getPlayerByNumber(1).getCoins()); //the wheat field paid out on the replayed 1
+        verify(moveQuery).setParameter("sequence", 0);
+    }
+
+    @Test
+    public void findByCode_stateColumnReadsOneRow() throws GameException {
+        gameDao = gameDao(Durability.MOVE, 20, PersistenceMode.STATE_COLUMN);
+        Game stored = game("AAAA");
+        stored.getPlayerByNumber(2).getLandmarks().add(Landmark.TRAIN_STATION);
+        when(session.get(GameRecord.class, "AAAA")).thenReturn(new GameRecord(stored, GameStateDocument.write(stored)));
+
+        Game game = gameDao.findByCode("AAAA");
+
+        assertTrue(game.getPlayerByNumber(2).hasTrainStation());
+        assertEquals(0, game.getPlayerByNumber(1).getCoins());
+        verify(session, never()).get(eq(Game.class), any());
+    }
+
+    @Test
+    public void save_stateColumnUpdatesRowAtItsVersion() throws GameException {
+        gameDao = gameDao(Durability.MOVE, 1, PersistenceMode.STATE_COLUMN);
+        Game stored = game("AAAA");
+        stored.setVersion(4);
+        when(session.get(GameRecord.class, "AAAA")).thenReturn(new GameRecord(stored, GameStateDocument.write(stored)));
+        Query update = stateColumnUpdate(1);
+        Game game = gameDao.findByCode("AAAA");
+
+        GameActions.roll(game, false, () -> 1);
+        gameDao.save(game);
+
+        verify(update).setParameter("version", 4L);
+        verify(update).setParameter(eq("state"), argThat(state -> GameCodec.decode(Base64.getDecoder().decode((String) state)).getPlayers().stream()
+                .anyMatch(player -> player.getNumber() == 1 && player.getCoins() == 1)));
+        verify(entityManager, never()).merge(any());
+        assertEquals(5, game.getVersion());
+    }
+
+    @Test
+    public void save_stateColumnConflictOnStaleVersion() throws GameException {
+        gameDao = gameDao(Durability.MOVE, 1, PersistenceMode.STATE_COLUMN);
+        Game stored = game("AAAA");
+        when(session.get(GameRecord.class, "AAAA")).thenReturn(new GameRecord(stored, GameStateDocument.write(stored)));
+        stateColumnUpdate(0);
+        Game game = gameDao.findByCode("AAAA");
+        GameActions.roll(game, false, () -> 1);
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> gameDao.save(game));
+    }
+
+    //a row without state is read from the tables once and rewritten into the state column on its next write
+    @Test
+    public void save_stateColumnMigratesGameFromTables() throws GameException {
+        gameDao = gameDao(Durability.MOVE, 20, PersistenceMode.STATE_COLUMN);
+        Game legacy = game("AAAA");
+        when(session.get(GameRecord.class, "AAAA")).thenReturn(new GameRecord(legacy, null));
+        when(session.get(Game.class, "AAAA")).thenReturn(legacy);
+        Query update = stateColumnUpdate(1);
+        Game game = gameDao.findByCode("AAAA");
+
+        verify(entityManager).detach(legacy);
+        GameActions.roll(game, false, () -> 1);
+        gameDao.save(game);
+
+        verify(update).executeUpdate();
+        verify(entityManager, never()).merge(any());
+    }
+
+    //the sweep leaves a game alone while the transaction of its last write is still open, instead of writing it twice
+    @Test
+    public void flushAndEvict_skipsGameWhoseFlushIsOpen() throws Exception {
+        when(entityManager.merge(any(Game.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        Game game = game("AAAA");
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            gameDao.save(game);
+            runConcurrently(1, this::sweep);
+            verify(entityManager, times(1)).merge(game);
+
+            TransactionSynchronizationUtils.triggerAfterCommit();
+            TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        runConcurrently(1, this::sweep);
+
+        verify(entityManager, times(1)).merge(game);
+    }
+
+    @Test
+    public void flushAndEvict_writesGameAgainAfterRollback() throws Exception {
+        when(entityManager.merge(any(Game.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        Game game = game("AAAA");
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            gameDao.save(game);
+            TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        runConcurrently(1, this::sweep);
+
+        verify(entityManager, times(2)).merge(game);
+    }
+
+    //a sweep reaching a new game during its first save waits for it, then finds nothing left to write
+    @Test
+    public void withNewGameLock_sweepWaitsForFirstWrite() throws Exception {
+        when(entityManager.merge(any(Game.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        Game game = game("AAAA");
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Void> sweep = gameDao.withNewGameLock(game, () -> {
+                gameDao.saveWithoutFlush(game);
+                Future<Void> pending = executor.submit(this::sweep);
+                try {
+                    Thread.sleep(50); //lets the sweep reach the lock
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                gameDao.save(game);
+                return pending;
+            });
+            sweep.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(entityManager, times(1)).merge(game);
+        assertSame(game, gameDao.findByCode("AAAA"));
+    }
+
+    //the client gets a copy, so NPC auto play starting on the cached game cannot change it while the response is written
+    @Test
+    public void beginGame_returnsCopyOfCachedGame() throws GameException {
+        when(entityManager.merge(any(Game.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        GameService gameService = new GameService(gameDao, mock(PlayerDao.class), new GameUtilities(), TurnDecisionEngineFactory.standalone());
+
+        Game begun = gameService.beginGame(List.of(playerDTO(1), playerDTO(2)));
+
+        Game cached = gameDao.findByCode(begun.getCode());
+        assertNotSame(cached, begun);
+        assertEquals(GameState.fromGame(cached), GameState.fromGame(begun));
+    }
+
+    //a move made while a client subscribes waits, so it reaches the client as a delta on the game it was sent
+    @Test
+    public void subscribe_movesWaitForSubscription() throws Exception {
+        Game game = game("AAAA");
+        when(session.get(Game.class, "AAAA")).thenReturn(game);
+        GameService gameService = new GameService(gameDao, mock(PlayerDao.class), new GameUtilities(), TurnDecisionEngineFactory.standalone());
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            List<Future<?>> moves = new ArrayList<>();
+            Game subscribed = gameService.subscribe("AAAA", copy -> {
+                moves.add(executor.submit(() -> gameDao.withGameLock("AAAA", () -> {
+                    game.getPlayerByNumber(1).setCoins(20);
+                    return null;
+                })));
+                assertThrows(TimeoutException.class, () -> moves.get(0).get(100, TimeUnit.MILLISECONDS));
+                return copy;
+            });
+
+            moves.get(0).get(5, TimeUnit.SECONDS);
+            assertEquals(0, subscribed.getPlayerByNumber(1).getCoins());
+            assertEquals(20, game.getPlayerByNumber(1).getCoins());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void withGameLock_serializesActionsOnOneGame() throws Exception {
+        Game game = game("AAAA");
+        when(session.get(Game.class, "AAAA")).thenReturn(game);
+        int incrementsPerThread = 500;
+
+        runConcurrently(THREADS, () -> {
+            for (int i = 0; i < incrementsPerThread; i++) {
+                gameDao.withGameLock("AAAA", () -> {
+                    Player player = gameDao.findByCode("AAAA").getPlayerByNumber(1);
+                    int coins = player.getCoins();
+                    Thread.yield(); //widens the window a lost update would need
+                    player.setCoins(coins + 1);
+                    return null;
+                });
+            }
+            return null;
+        });
+
+        assertEquals(THREADS * incrementsPerThread, game.getPlayerByNumber(1).getCoins());
+    }
+
+    @Test
+    public void withGameLock_unrelatedGamesDoNotContend() throws Exception {
+        when(session.get(Game.class, "AAAA")).thenReturn(game("AAAA"));
+        when(session.get(Game.class, "BBBB")).thenReturn(game("BBBB"));
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> holder = executor.submit(() -> gameDao.withGameLock("AAAA", () -> {
+                holding.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return null;
+            }));
+            assertTrue(holding.await(5, TimeUnit.SECONDS));
+
+            assertEquals("BBBB", gameDao.withGameLock("BBBB", () -> gameDao.findByCode("BBBB").getCode()));
+
+            release.countDown();
+            holder.get(5, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void withGameLock_retriesOnFreshCopyAfterConflict() throws GameException {
+        Game stale = game("AAAA");
+        Game fresh = game("AAAA");
+        fresh.getPlayerByNumber(1).setCoins(7);
+        when(session.get(Game.class, "AAAA")).thenReturn(stale, fresh);
+        AtomicInteger attempts = new AtomicInteger();
+
+        Integer coins = gameDao.withGameLock("AAAA", () -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new ObjectOptimisticLockingFailureException(Game.class, "AAAA");
+            }
+            return gameDao.findByCode("AAAA").getPlayerByNumber(1).getCoins();
+        });
+
+        assertEquals(7, coins);
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    public void withGameLock_givesUpAfterRepeatedConflicts() {
+        when(session.get(Game.class, "AAAA")).thenAnswer(invocation -> game("AAAA"));
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> gameDao.withGameLock("AAAA", () -> {
+            throw new ObjectOptimisticLockingFailureException(Game.class, "AAAA");
+        }));
+        verify(session, times(3)).get(Game.class, "AAAA");
+    }
+
+    @Test
+    public void withGameLock_unknownGame() {
+        assertThrows(GameCodeNotFoundException.class, () -> gameDao.withGameLock("ZZZZ", () -> null));
+    }
+
+    //every thread drives the same all-NPC game; a move interleaving with another would break card conservation
+    @Test
+    public void makeNPCMove_manyThreadsOnOneGame() throws Exception {
+        Game game = GameActions.createGame(4);
+        game.setCode("AAAA");
+        game.setStep(Step.ROLL);
+        long playerId = 1;
+        for (Player player : game.getPlayers()) {
+            player.setId(playerId++);
+            player.setNpc(true);
+            player.setStrategy(GameUtilities.generateReasonableStrategy());
+        }
+        int totalCards = countCards(game);
+        when(session.get(Game.class, "AAAA")).thenReturn(game);
+        GameService gameService = new GameService(gameDao, mock(PlayerDao.class), new GameUtilities(), TurnDecisionEngineFactory.standalone());
+        AtomicInteger moves = new AtomicInteger();
+
+        runConcurrently(THREADS, () -> {
+            for (int i = 0; i < 100; i++) {
+                try {
+                    Game snapshot = gameService.withGameLock("AAAA", () -> gameService.makeNPCMove("AAAA"));
+                    assertEquals(totalCards, countCards(snapshot));
+                    moves.incrementAndGet();
+                } catch (InvalidMoveException e) {
+                    assertEquals(Step.WON, game.getStep()); //the only move refused to an all-NPC game
+                }
+            }
+            return null;
+        });
+
+        assertTrue(moves.get() > 0);
+        assertEquals(totalCards, countCards(game));
+        for (Player player : game.getPlayers()) {
+            assertTrue(player.getCoins() >= 0);
+        }
+    }
+
+    private Void sweep() {
+        gameDao.flushAndEvict();
+        return null;
+    }
+
+    private int countCards(Game game) {
+        int cards = game.getGameStock().values().stream().mapToInt(Integer::intValue).sum();
+        for (Player player : game.getPlayers()) {
+            cards += player.getStock().values().stream().mapToInt(Integer::intValue).sum();
+        }
+        return cards;
+    }
+
+    private void runConcurrently(int threads, Callable<Void> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Query stateColumnUpdate(int updatedRows) {
+        Query update = mock(Query.class, RETURNS_SELF);
+        when(update.executeUpdate()).thenReturn(updatedRows);
+        when(entityManager.createQuery(startsWith("update GameRecord"))).thenReturn(update);
+        return update;
+    }
+
+    private GameDao gameDao(Durability durability, int snapshotInterval) {
+        return gameDao(durability, snapshotInterval, PersistenceMode.TABLES);
+    }
+
+    private GameDao gameDao(Durability durability, int snapshotInterval, PersistenceMode persistenceMode) {
+        return new GameDao(entityManager, mock(ApplicationEventPublisher.class), new ActiveGameCache(100, 60000),
+                mock(PlatformTransactionManager.class), durability, snapshotInterval, persistenceMode);
+    }
+
+    private PlayerDTO playerDTO(int playerNumber) {
+        PlayerDTO playerDTO = new PlayerDTO();
+        playerDTO.setPlayerNumber(playerNumber);
+        playerDTO.setPlayerName("Player " + playerNumber);
+        playerDTO.setNPC(false);
+        return playerDTO;
+    }
+
+    private Game game(String code) throws GameException {
+        Game game = GameActions.createGame(2);
+        game.setCode(code);
+        game.setStep(Step.ROLL);
+        game.getPlayerByNumber(1).setCoins(0);
+        return game;
+    }
+}
@@ -0,0 +1,57 @@
+package com.shannontheoret.machikoro.dao;
+
+import com.shannontheoret.machikoro.*;
+import com.shannontheoret.machikoro.entity.Game;
+import com.shannontheoret.machikoro.entity.GameRecord;
+import com.shannontheoret.machikoro.entity.Player;
+import com.shannontheoret.machikoro.exception.GameMechanicException;
+import com.shannontheoret.machikoro.state.GameState;
+import com.shannontheoret.machikoro.utilities.GameUtilities;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameStateDocumentTests {
+
+    @Test
+    public void read_restoresWrittenGame() throws GameMechanicException {
+        Game game = GameActions.createGame(3);
+        game.setCode("AAAA");
+        game.setStep(Step.BUY);
+        game.setDie1(4);
+        game.setCurrentPlayerNumber(2);
+        game.setVersion(7);
+        game.setSeed(99L);
+        game.setMoveCount(12);
+        game.getGameStock().put(Card.MINE, 3);
+        Player npc = game.getPlayerByNumber(2);
+        npc.setId(41L);
+        npc.setNpc(true);
+        npc.setStrategy(GameUtilities.generateReasonableStrategy());
+        npc.setCoins(17);
+        npc.addCard(Card.CHEESE_FACTORY);
+        npc.getLandmarks().add(Landmark.SHOPPING_MALL);
+        game.getPlayerByNumber(3).getStock().remove(Card.BAKERY);
+
+        Game read = GameStateDocument.read(new GameRecord(game, GameStateDocument.write(game)));
+
+        assertEquals(GameState.fromGame(game), GameState.fromGame(read));
+        assertEquals(npc.getName(), read.getPlayerByNumber(2).getName());
+        assertEquals(41L, read.getPlayerByNumber(2).getId());
+        assertEquals(npc.getStrategy(), read.getPlayerByNumber(2).getStrategy());
+        assertEquals(99L, read.getSeed());
+        assertEquals(7, read.getVersion());
+        assertEquals(12, read.getMoveCount());
+        assertFalse(read.getPlayerByNumber(3).getStock().containsKey(Card.BAKERY));
+        assertNull(read.getPlayerByNumber(1).getStrategy());
+    }
+
+    @Test
+    public void read_invalidState() throws GameMechanicException {
+        Game game = GameActions.createGame(2);
+        game.setCode("AAAA");
+        game.setStep(Step.ROLL);
+
+        assertThrows(IllegalStateException.class, () -> GameStateDocument.read(new GameRecord(game, "{\"format\":1}")));
+    }
+}
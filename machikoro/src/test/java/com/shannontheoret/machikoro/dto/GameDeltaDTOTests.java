@@ -0,0 +1,76 @@
+package com.shannontheoret.machikoro.dto;
+
+import com.shannontheoret.machikoro.Card;
+import com.shannontheoret.machikoro.Landmark;
+import com.shannontheoret.machikoro.Step;
+import com.shannontheoret.machikoro.state.GameState;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameDeltaDTOTests {
+
+    @Test
+    public void between_onlyChangedPlayersAndStock() {
+        GameState before = getState();
+        GameState after = before.copy();
+        after.addCard(2, Card.BAKERY);
+        after.setStock(Card.BAKERY, 5);
+        after.addCoins(2, -1);
+        after.setStep(Step.ROLL);
+        after.setCurrentPlayerNumber(3);
+
+        GameDeltaDTO delta = GameDeltaDTO.between("ABCD", before, after);
+
+        assertEquals("ABCD", delta.getCode());
+        assertEquals(Step.ROLL, delta.getStep());
+        assertEquals(3, delta.getCurrentPlayerNumber());
+        assertEquals(Map.of(Card.BAKERY, 5), delta.getGameStock());
+        assertEquals(1, delta.getPlayers().size());
+        GameDeltaDTO.PlayerDelta player = delta.getPlayers().get(0);
+        assertEquals(2, player.getNumber());
+        assertEquals(2, player.getCoins());
+        assertEquals(Map.of(Card.WHEAT, 1, Card.BAKERY, 2), player.getStock());
+        assertEquals(Set.of(), player.getLandmarks());
+    }
+
+    @Test
+    public void between_landmarkChange() {
+        GameState before = getState();
+        GameState after = before.copy();
+        after.addLandmark(1, Landmark.TRAIN_STATION);
+
+        GameDeltaDTO delta = GameDeltaDTO.between("ABCD", before, after);
+
+        assertTrue(delta.getGameStock().isEmpty());
+        assertEquals(1, delta.getPlayers().size());
+        assertEquals(Set.of(Landmark.TRAIN_STATION), delta.getPlayers().get(0).getLandmarks());
+    }
+
+    @Test
+    public void between_noChanges() {
+        GameState before = getState();
+
+        GameDeltaDTO delta = GameDeltaDTO.between("ABCD", before, before.copy());
+
+        assertTrue(delta.getGameStock().isEmpty());
+        assertTrue(delta.getPlayers().isEmpty());
+        assertEquals(Step.BUY, delta.getStep());
+    }
+
+    private GameState getState() {
+        GameState state = new GameState(3);
+        for (int playerNumber = 1; playerNumber <= 3; playerNumber++) {
+            state.setCoins(playerNumber, 3);
+            state.addCard(playerNumber, Card.WHEAT);
+            state.addCard(playerNumber, Card.BAKERY);
+        }
+        state.setStock(Card.BAKERY, 6);
+        state.setStep(Step.BUY);
+        state.setCurrentPlayerNumber(2);
+        return state;
+    }
+}
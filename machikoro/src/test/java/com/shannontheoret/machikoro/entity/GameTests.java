@@ -0,0 +1,56 @@
+package com.shannontheoret.machikoro.entity;
+
+import com.shannontheoret.machikoro.GameActions;
+import com.shannontheoret.machikoro.exception.GameMechanicException;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameTests {
+
+    @Test
+    public void getNextAndPreviousPlayer_wrapAroundTheTable() throws GameMechanicException {
+        Game game = GameActions.createGame(4);
+
+        assertEquals(2, game.getNextPlayer(1).getNumber());
+        assertEquals(1, game.getNextPlayer(4).getNumber());
+        assertEquals(4, game.getPreviousPlayer(1).getNumber());
+        assertEquals(3, game.getPreviousPlayer(4).getNumber());
+    }
+
+    @Test
+    public void getPlayerByNumber_followsReplacedPlayers() throws GameMechanicException {
+        Game game = GameActions.createGame(3);
+        Player first = game.getPlayerByNumber(1);
+
+        Set<Player> players = new LinkedHashSet<>();
+        for (int number = 1; number <= 2; number++) {
+            Player player = new Player();
+            player.setNumber(number);
+            players.add(player);
+        }
+        game.setPlayers(players);
+        game.setCurrentPlayerNumber(2);
+
+        assertNotSame(first, game.getPlayerByNumber(1));
+        assertSame(game.getCurrentPlayer(), game.getNextPlayer(1));
+        assertEquals(1, game.getNextPlayer(2).getNumber());
+        assertThrows(GameMechanicException.class, () -> game.getPlayerByNumber(3));
+    }
+
+    @Test
+    public void getPlayerByNumber_followsRenumberedPlayers() throws GameMechanicException {
+        Game game = GameActions.createGame(2);
+        Player first = game.getPlayerByNumber(1);
+        Player second = game.getPlayerByNumber(2);
+
+        first.setNumber(2);
+        second.setNumber(1);
+
+        assertSame(second, game.getPlayerByNumber(1));
+        assertSame(first, game.getPlayerByNumber(2));
+    }
+}
@@ -0,0 +1,56 @@
+package com.shannontheoret.machikoro.event;
+
+import com.shannontheoret.machikoro.GameActions;
+import com.shannontheoret.machikoro.entity.Game;
+import com.shannontheoret.machikoro.exception.GameMechanicException;
+import com.shannontheoret.machikoro.state.GameState;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class GameEventBroadcasterTests {
+
+    @Test
+    public void subscribe_tracksSubscribersPerGame() throws GameMechanicException {
+        GameEventBroadcaster broadcaster = new GameEventBroadcaster();
+        Game game = getGame("ABCD");
+
+        broadcaster.subscribe(game);
+        broadcaster.subscribe(game);
+        broadcaster.subscribe(getGame("WXYZ"));
+
+        assertEquals(2, broadcaster.getSubscriberCount("ABCD"));
+        assertEquals(1, broadcaster.getSubscriberCount("WXYZ"));
+        assertEquals(0, broadcaster.getSubscriberCount("NONE"));
+    }
+
+    @Test
+    public void gameSaved_unwatchedGameIgnored() throws GameMechanicException {
+        GameEventBroadcaster broadcaster = new GameEventBroadcaster();
+        Game game = getGame("ABCD");
+
+        broadcaster.gameSaved(new GameSavedEvent("ABCD", GameState.fromGame(game)));
+
+        assertEquals(0, broadcaster.getSubscriberCount("ABCD"));
+    }
+
+    @Test
+    public void gameSaved_completedEmitterRemoved() throws GameMechanicException {
+        GameEventBroadcaster broadcaster = new GameEventBroadcaster();
+        Game game = getGame("ABCD");
+        SseEmitter emitter = broadcaster.subscribe(game);
+        broadcaster.subscribe(game);
+        emitter.complete();
+
+        broadcaster.gameSaved(new GameSavedEvent("ABCD", GameState.fromGame(game)));
+
+        assertEquals(1, broadcaster.getSubscriberCount("ABCD"));
+    }
+
+    private Game getGame(String code) throws GameMechanicException {
+        Game game = GameActions.createGame(2);
+        game.setCode(code);
+        return game;
+    }
+}
@@ -0,0 +1,173 @@
+package com.shannontheoret.machikoro.expectimax;
+
+import com.shannontheoret.machikoro.*;
+import com.shannontheoret.machikoro.entity.Game;
+import com.shannontheoret.machikoro.exception.GameMechanicException;
+import com.shannontheoret.machikoro.exception.InvalidMoveException;
+import com.shannontheoret.machikoro.montecarlo.MonteCarloSettings;
+import com.shannontheoret.machikoro.simulation.GameSimulator;
+import com.shannontheoret.machikoro.simulation.RandomDieSource;
+import com.shannontheoret.machikoro.simulation.SimulationResult;
+import com.shannontheoret.machikoro.state.GameState;
+import com.shannontheoret.machikoro.utilities.GameUtilities;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExpectimaxTurnDecisionEngineTests {
+    private static final ExpectimaxSettings SETTINGS = new ExpectimaxSettings(3, 5000);
+
+    @Test
+    public void forCurrentPlayer_expectimaxSetting() throws GameMechanicException {
+        Game game = GameSimulator.newGame(List.of(getStrategy(1), getStrategy(0)));
+        assertInstanceOf(ExpectimaxTurnDecisionEngine.class, TurnDecisionEngineFactory.standalone().forCurrentPlayer(game));
+        game.setCurrentPlayerNumber(2);
+        assertInstanceOf(CachingTurnDecisionEngine.class, TurnDecisionEngineFactory.standalone().forCurrentPlayer(game));
+    }
+
+    @Test
+    public void rollSingleDice_noTrainStation() throws GameMechanicException {
+        Game game = GameSimulator.newGame(List.of(getStrategy(1), getStrategy(0)));
+
+        assertTrue(new ExpectimaxTurnDecisionEngine(getStrategy(1), game, SETTINGS).rollSingleDice());
+    }
+
+    @Test
+    public void decide_twoDiceForMines() throws GameMechanicException, InvalidMoveException {
+        GameState state = getStartState();
+        state.addLandmark(1, Landmark.TRAIN_STATION);
+        for (int i = 0; i < 4; i++) {
+            state.addCard(1, Card.MINE);
+        }
+
+        assertEquals(1, getEngine(state).decide(state));
+    }
+
+    @Test
+    public void decide_oneDieForBakeries() throws GameMechanicException, InvalidMoveException {
+        GameState state = getStartState();
+        state.addLandmark(1, Landmark.TRAIN_STATION);
+        for (int i = 0; i < 3; i++) {
+            state.addCard(1, Card.BAKERY);
+        }
+
+        assertEquals(0, getEngine(state).decide(state));
+    }
+
+    @Test
+    public void decide_keepsPayingRoll() throws GameMechanicException, InvalidMoveException {
+        GameState state = getRerollState(2);
+        for (int i = 0; i < 4; i++) {
+            state.addCard(1, Card.BAKERY);
+        }
+
+        assertEquals(1, getEngine(state).decide(state));
+    }
+
+    @Test
+    public void decide_rerollsCostlyRoll() throws GameMechanicException, InvalidMoveException {
+        GameState state = getRerollState(3);
+        state.setCoins(1, 6);
+        for (int i = 0; i < 3; i++) {
+            state.addCard(2, Card.CAFE);
+        }
+
+        assertEquals(0, getEngine(state).decide(state));
+    }
+
+    //the pruned, remembered search picks a move with the best value an unpruned fresh search finds for it
+    @Test
+    public void decide_matchesFullWindowValues() throws GameMechanicException, InvalidMoveException {
+        SplittableRandom random = new SplittableRandom(31);
+        TurnDecisionEngineFactory decisionEngines = TurnDecisionEngineFactory.standalone();
+        int checked = 0;
+        for (int gameIndex = 0; gameIndex < 20 && checked < 25; gameIndex++) {
+            List<Map<StrategyName, Integer>> strategies = new ArrayList<>();
+            for (int i = 0; i < 2 + gameIndex % 3; i++) {
+                strategies.add(GameUtilities.generateReasonableStrategy());
+            }
+            Game game = GameSimulator.newGame(strategies);
+            RandomDieSource dieSource = new RandomDieSource(random);
+            for (int moves = 0; moves < 2000 && game.getStep() != Step.WON && checked < 25; moves++) {
+                GameState state = GameState.fromGame(game);
+                boolean choice = state.getStep() == Step.CONFIRM_ROLL
+                        || (state.getStep() == Step.ROLL && state.hasLandmark(state.getCurrentPlayerNumber(), Landmark.TRAIN_STATION));
+                if (choice) {
+                    checked++;
+                    int chosen = new ExpectimaxTurnDecisionEngine(getStrategy(1), game, new ExpectimaxSettings(2, 60000)).decide(state);
+                    double[] values = new double[2];
+                    for (int move = 0; move < 2; move++) {
+                        values[move] = new ExpectimaxTurnDecisionEngine(getStrategy(1), game, SETTINGS).searchMove(state, move, 2);
+                        assertTrue(values[move] >= ExpectimaxTurnDecisionEngine.LOWER && values[move] <= ExpectimaxTurnDecisionEngine.UPPER);
+                    }
+                    assertTrue(values[chosen] >= Math.max(values[0], values[1]) - 1e-9, "Game " + gameIndex + ", move " + moves + ": " + Arrays.toString(values) + " chose " + chosen);
+                }
+                GameActions.makeNPCMove(game, dieSource, decisionEngines);
+            }
+        }
+        assertTrue(checked > 0);
+    }
+
+    @Test
+    public void decide_returnsByDeadline() throws GameMechanicException, InvalidMoveException {
+        GameState state = getRerollState(4);
+        state.addLandmark(1, Landmark.TRAIN_STATION);
+        state.setCoins(1, 30);
+        long start = System.nanoTime();
+
+        int move = getEngine(state, new ExpectimaxSettings(50, 30)).decide(state);
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        assertTrue(move >= 0);
+        assertTrue(elapsedMillis < 500, "Decision took " + elapsedMillis + "ms against a 30ms budget");
+    }
+
+    @Test
+    public void play_expectimaxPlayerFinishes() throws GameMechanicException, InvalidMoveException {
+        TurnDecisionEngineFactory decisionEngines = new TurnDecisionEngineFactory(new DecisionCache(DecisionCache.DEFAULT_MAX_ENTRIES),
+                MonteCarloSettings.DEFAULT, new ExpectimaxSettings(2, 20));
+        SimulationResult result = new GameSimulator(new RandomDieSource(new SplittableRandom(5)), GameSimulator.DEFAULT_MAX_TURNS, decisionEngines)
+                .play(List.of(getStrategy(1), getStrategy(0)));
+        assertTrue(result.isFinished());
+    }
+
+    private ExpectimaxTurnDecisionEngine getEngine(GameState state) throws GameMechanicException {
+        return getEngine(state, SETTINGS);
+    }
+
+    private ExpectimaxTurnDecisionEngine getEngine(GameState state, ExpectimaxSettings settings) throws GameMechanicException {
+        List<Map<StrategyName, Integer>> strategies = new ArrayList<>();
+        for (int i = 0; i < state.getPlayerCount(); i++) {
+            strategies.add(getStrategy(i == 0 ? 1 : 0));
+        }
+        return new ExpectimaxTurnDecisionEngine(getStrategy(1), GameSimulator.newGame(strategies), settings);
+    }
+
+    private GameState getStartState() throws GameMechanicException {
+        return GameState.fromGame(GameSimulator.newGame(List.of(getStrategy(1), getStrategy(0), getStrategy(0))));
+    }
+
+    //player 1 has a radio tower and has just rolled a single die for the first time
+    private GameState getRerollState(int die) throws GameMechanicException {
+        GameState state = getStartState();
+        state.addLandmark(1, Landmark.RADIO_TOWER);
+        state.setDice(die, 0);
+        state.setRolledOnce(true);
+        state.setStep(Step.CONFIRM_ROLL);
+        return state;
+    }
+
+    private Map<StrategyName, Integer> getStrategy(int expectimax) {
+        Map<StrategyName, Integer> strategy = new EnumMap<>(StrategyName.class);
+        for (StrategyName strategyName : StrategyName.values()) {
+            strategy.put(strategyName, 0);
+        }
+        strategy.put(StrategyName.SAVER, 1);
+        strategy.put(StrategyName.OPTIMIST, 1);
+        strategy.put(StrategyName.ATTACK_FOCUSED, 1);
+        strategy.put(StrategyName.EXPECTIMAX, expectimax);
+        return strategy;
+    }
+}
@@ -0,0 +1,123 @@
+package com.shannontheoret.machikoro.montecarlo;
+
+import com.shannontheoret.machikoro.*;
+import com.shannontheoret.machikoro.entity.Game;
+import com.shannontheoret.machikoro.entity.Player;
+import com.shannontheoret.machikoro.exception.GameMechanicException;
+import com.shannontheoret.machikoro.exception.InvalidMoveException;
+import com.shannontheoret.machikoro.expectimax.ExpectimaxSettings;
+import com.shannontheoret.machikoro.simulation.GameSimulator;
+import com.shannontheoret.machikoro.simulation.RandomDieSource;
+import com.shannontheoret.machikoro.simulation.SimulationResult;
+import com.shannontheoret.machikoro.state.GameState;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MonteCarloTurnDecisionEngineTests {
+
+    @Test
+    public void forCurrentPlayer_monteCarloSetting() throws GameMechanicException {
+        Game game = GameSimulator.newGame(List.of(getStrategy(1), getStrategy(0)));
+        TurnDecisionEngineFactory decisionEngines = TurnDecisionEngineFactory.standalone();
+        assertInstanceOf(MonteCarloTurnDecisionEngine.class, decisionEngines.forCurrentPlayer(game));
+        game.setCurrentPlayerNumber(2);
+        assertInstanceOf(CachingTurnDecisionEngine.class, decisionEngines.forCurrentPlayer(game));
+    }
+
+    @Test
+    public void makeBuyingDecision_buysWinningLandmark() throws GameMechanicException {
+        Game game = getBuyingGame();
+        Player player = game.getCurrentPlayer();
+        player.setCoins(100);
+        player.purchaseLandmark(Landmark.TRAIN_STATION);
+        player.purchaseLandmark(Landmark.SHOPPING_MALL);
+        player.purchaseLandmark(Landmark.AMUSEMENT_PARK);
+        player.setCoins(Landmark.RADIO_TOWER.getCost());
+
+        BuyingDecision decision = getEngine(game, new MonteCarloSettings(500, 5000, 100)).makeBuyingDecision();
+
+        assertTrue(decision.isBuyingLandmark());
+        assertEquals(Landmark.RADIO_TOWER, decision.getLandmarkToPurchase());
+    }
+
+    @Test
+    public void makeBuyingDecision_noCoinsEndsTurn() throws GameMechanicException {
+        Game game = getBuyingGame();
+        game.getCurrentPlayer().setCoins(0);
+
+        assertTrue(getEngine(game, new MonteCarloSettings(500, 5000, 100)).makeBuyingDecision().isEndTurn());
+    }
+
+    @Test
+    public void makeBuyingDecision_affordable() throws GameMechanicException {
+        Game game = getBuyingGame();
+        game.getCurrentPlayer().setCoins(5);
+
+        BuyingDecision decision = getEngine(game, new MonteCarloSettings(400, 5000, 100)).makeBuyingDecision();
+
+        assertTrue(decision.getCost() <= 5, "Decision should be affordable");
+    }
+
+    @Test
+    public void makeBuyingDecision_returnsByDeadline() throws GameMechanicException {
+        Game game = getBuyingGame();
+        game.getCurrentPlayer().setCoins(8);
+        long start = System.nanoTime();
+
+        BuyingDecision decision = getEngine(game, new MonteCarloSettings(Integer.MAX_VALUE, 50, 1000)).makeBuyingDecision();
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        assertNotNull(decision);
+        assertTrue(elapsedMillis < 500, "Decision took " + elapsedMillis + "ms against a 50ms budget");
+    }
+
+    //with more rollouts than fit in the budget, every worker still hands in what it played before the deadline
+    @Test
+    public void playRollouts_keepsRolloutsAtDeadline() throws GameMechanicException {
+        Game game = getBuyingGame();
+        game.getCurrentPlayer().setCoins(8);
+        GameState root = GameState.fromGame(game);
+        List<BuyingDecision> candidates = List.of(BuyingDecision.endTurn(), BuyingDecision.buyCard(Card.WHEAT), BuyingDecision.buyCard(Card.RANCH));
+
+        MonteCarloTurnDecisionEngine.RolloutTally tally = getEngine(game, new MonteCarloSettings(Integer.MAX_VALUE, 50, 1000))
+                .playRollouts(root, candidates, System.nanoTime());
+
+        assertTrue(tally.getRollouts() > 0);
+        assertTrue(tally.best() >= 0);
+    }
+
+    @Test
+    public void play_monteCarloPlayerFinishes() throws GameMechanicException, InvalidMoveException {
+        TurnDecisionEngineFactory decisionEngines = new TurnDecisionEngineFactory(new DecisionCache(DecisionCache.DEFAULT_MAX_ENTRIES),
+                new MonteCarloSettings(60, 1000, 100), ExpectimaxSettings.DEFAULT);
+        SimulationResult result = new GameSimulator(new RandomDieSource(new SplittableRandom(3)), GameSimulator.DEFAULT_MAX_TURNS, decisionEngines)
+                .play(List.of(getStrategy(1), getStrategy(0)));
+        assertTrue(result.isFinished());
+    }
+
+    private MonteCarloTurnDecisionEngine getEngine(Game game, MonteCarloSettings settings) throws GameMechanicException {
+        return new MonteCarloTurnDecisionEngine(game.getCurrentPlayer().getStrategy(), game, settings, 11L);
+    }
+
+    private Game getBuyingGame() throws GameMechanicException {
+        Game game = GameSimulator.newGame(List.of(getStrategy(1), getStrategy(0), getStrategy(0)));
+        game.setStep(Step.BUY);
+        game.setDie1(3);
+        return game;
+    }
+
+    private Map<StrategyName, Integer> getStrategy(int monteCarlo) {
+        Map<StrategyName, Integer> strategy = new EnumMap<>(StrategyName.class);
+        for (StrategyName strategyName : StrategyName.values()) {
+            strategy.put(strategyName, 0);
+        }
+        strategy.put(StrategyName.SAVER, 1);
+        strategy.put(StrategyName.OPTIMIST, 1);
+        strategy.put(StrategyName.ATTACK_FOCUSED, 1);
+        strategy.put(StrategyName.MONTE_CARLO, monteCarlo);
+        return strategy;
+    }
+}
@@ -0,0 +1,181 @@
+package com.shannontheoret.machikoro.service;
+
+import com.shannontheoret.machikoro.GameActions;
+import com.shannontheoret.machikoro.Step;
+import com.shannontheoret.machikoro.TurnDecisionEngineFactory;
+import com.shannontheoret.machikoro.dao.ActiveGameCache;
+import com.shannontheoret.machikoro.dao.Durability;
+import com.shannontheoret.machikoro.dao.GameDao;
+import com.shannontheoret.machikoro.dao.PersistenceMode;
+import com.shannontheoret.machikoro.dto.NpcMovesResultDTO;
+import com.shannontheoret.machikoro.entity.Game;
+import com.shannontheoret.machikoro.entity.GameMove;
+import com.shannontheoret.machikoro.entity.Player;
+import com.shannontheoret.machikoro.event.GameSavedEvent;
+import com.shannontheoret.machikoro.exception.GameException;
+import com.shannontheoret.machikoro.exception.GameMechanicException;
+import com.shannontheoret.machikoro.exception.InvalidMoveException;
+import com.shannontheoret.machikoro.utilities.GameUtilities;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class NpcAutoPlayerTests {
+
+    private EntityManager entityManager;
+    private Session session;
+    private ApplicationEventPublisher eventPublisher;
+    private PlatformTransactionManager transactionManager;
+    private NpcAutoPlayer npcAutoPlayer;
+
+    @BeforeEach
+    public void setUp() {
+        entityManager = mock(EntityManager.class);
+        session = mock(Session.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(entityManager.unwrap(Session.class)).thenReturn(session);
+        when(entityManager.createQuery(anyString(), eq(GameMove.class))).thenReturn(mock(TypedQuery.class, RETURNS_SELF));
+        GameDao gameDao = new GameDao(entityManager, eventPublisher, new ActiveGameCache(100, 60000),
+                transactionManager, Durability.INTERVAL, 20, PersistenceMode.TABLES);
+        npcAutoPlayer = new NpcAutoPlayer(gameDao, new GameUtilities(), TurnDecisionEngineFactory.standalone(), true, 0);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void playAll_playsEveryGameAndWritesThemTogether() throws GameException {
+        Game firstBots = game("AAAA", true, true);
+        Game humanTurn = game("BBBB", false, true);
+        Game secondBots = game("CCCC", true, true, true);
+        TypedQuery<Game> gameQuery = mock(TypedQuery.class, RETURNS_SELF);
+        when(gameQuery.getResultList()).thenReturn(List.of(secondBots, firstBots, humanTurn));
+        when(entityManager.createQuery(anyString(), eq(Game.class))).thenReturn(gameQuery);
+        when(entityManager.merge(any(Game.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<NpcMovesResultDTO> results = npcAutoPlayer.playAll(List.of("AAAA", "BBBB", "ZZZZ", "CCCC"));
+
+        assertEquals(List.of("AAAA", "BBBB", "ZZZZ", "CCCC"), results.stream().map(NpcMovesResultDTO::getCode).toList());
+        assertEquals(Step.WON, results.get(0).getGame().getStep());
+        assertNull(results.get(2).getGame());
+        assertEquals("Invalid game code: ZZZZ", results.get(2).getError());
+        assertEquals(Step.WON, firstBots.getStep());
+        assertEquals(Step.WON, secondBots.getStep());
+        assertEquals(Step.ROLL, humanTurn.getStep());
+        assertEquals(0, humanTurn.getMoveCount());
+        verify(entityManager).merge(firstBots);
+        verify(entityManager).merge(secondBots);
+        verify(entityManager, never()).merge(humanTurn);
+        //one transaction to load the games, one to write them
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    //a game that cannot be played is reported on its own, the others are still returned and written
+    @Test
+    @SuppressWarnings("unchecked")
+    public void playAll_failedGamesReportedAndOthersWritten() throws GameException {
+        Game bots = game("AAAA", true, true);
+        Game refused = game("BBBB", true, true);
+        refused.setStep(Step.STEAL); //without a TV station
+        Game broken = game("CCCC", true, true);
+        broken.setStep(null);
+        TypedQuery<Game> gameQuery = mock(TypedQuery.class, RETURNS_SELF);
+        when(gameQuery.getResultList()).thenReturn(List.of(bots, refused, broken));
+        when(entityManager.createQuery(anyString(), eq(Game.class))).thenReturn(gameQuery);
+        when(entityManager.merge(any(Game.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<NpcMovesResultDTO> results = npcAutoPlayer.playAll(List.of("AAAA", "BBBB", "CCCC"));
+
+        assertEquals(Step.WON, results.get(0).getGame().getStep());
+        assertNull(results.get(0).getError());
+        assertNull(results.get(1).getGame());
+        assertEquals("Cannot steal at this time.", results.get(1).getError());
+        assertNull(results.get(2).getGame());
+        assertEquals("An internal error occurred.", results.get(2).getError());
+        verify(entityManager).merge(bots);
+    }
+
+    @Test
+    public void playAll_tooManyGames() {
+        List<String> codes = Collections.nCopies(NpcAutoPlayer.MAX_GAMES_PER_BATCH + 1, "AAAA");
+
+        assertThrows(InvalidMoveException.class, () -> npcAutoPlayer.playAll(codes));
+    }
+
+    @Test
+    public void play_runsNpcTurnsUntilHumanTurn() throws GameMechanicException {
+        Game game = game(false, true, true);
+        game.setCurrentPlayerNumber(2);
+        when(session.get(Game.class, "AAAA")).thenReturn(game);
+
+        npcAutoPlayer.play("AAAA");
+
+        assertTrue(game.getStep() == Step.WON || (game.getCurrentPlayerNumber() == 1 && game.getStep() == Step.ROLL));
+        ArgumentCaptor<GameSavedEvent> events = ArgumentCaptor.forClass(GameSavedEvent.class);
+        verify(eventPublisher, atLeast(4)).publishEvent(events.capture());
+        List<GameSavedEvent> published = events.getAllValues();
+        //each NPC step is pushed, ending with the saved state
+        assertEquals(game.getCurrentPlayerNumber(), published.get(published.size() - 1).getState().getCurrentPlayerNumber());
+    }
+
+    @Test
+    public void play_allNpcGameFinishes() throws GameMechanicException {
+        Game game = game(true, true, true);
+        when(session.get(Game.class, "AAAA")).thenReturn(game);
+
+        npcAutoPlayer.play("AAAA");
+
+        assertEquals(Step.WON, game.getStep());
+    }
+
+    @Test
+    public void play_humanTurnLeftAlone() throws GameMechanicException {
+        Game game = game(false, true, true);
+        when(session.get(Game.class, "AAAA")).thenReturn(game);
+
+        npcAutoPlayer.play("AAAA");
+
+        assertEquals(1, game.getCurrentPlayerNumber());
+        assertEquals(Step.ROLL, game.getStep());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    public void schedule_disabled() throws GameMechanicException {
+        NpcAutoPlayer disabled = new NpcAutoPlayer(mock(GameDao.class), new GameUtilities(), TurnDecisionEngineFactory.standalone(), false, 0);
+        Game game = game(true, true, true);
+
+        disabled.schedule(game);
+        disabled.shutdown();
+
+        assertEquals(Step.ROLL, game.getStep());
+    }
+
+    private Game game(boolean... npcs) throws GameMechanicException {
+        return game("AAAA", npcs);
+    }
+
+    private Game game(String code, boolean... npcs) throws GameMechanicException {
+        Game game = GameActions.createGame(npcs.length);
+        game.setCode(code);
+        game.setStep(Step.ROLL);
+        for (Player player : game.getPlayers()) {
+            player.setId((long) player.getNumber());
+            player.setNpc(npcs[player.getNumber() - 1]);
+            if (player.isNpc()) {
+                player.setStrategy(GameUtilities.generateReasonableStrategy());
+            }
+        }
+        return game;
+    }
+}
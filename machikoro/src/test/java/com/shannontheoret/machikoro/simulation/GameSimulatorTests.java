@@ -0,0 +1,65 @@
+package com.shannontheoret.machikoro.simulation;
+
+import com.shannontheoret.machikoro.Step;
+import com.shannontheoret.machikoro.StrategyName;
+import com.shannontheoret.machikoro.entity.Game;
+import com.shannontheoret.machikoro.exception.GameMechanicException;
+import com.shannontheoret.machikoro.exception.InvalidMoveException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameSimulatorTests {
+
+    @ParameterizedTest
+    @ValueSource(ints = {2, 3, 4})
+    public void play_reachesWon(Integer numberOfPlayers) throws GameMechanicException, InvalidMoveException {
+        GameSimulator simulator = new GameSimulator(new RandomDieSource(new SplittableRandom(numberOfPlayers)));
+        for (int i = 0; i < 20; i++) {
+            Game game = GameSimulator.newGame(getStrategies(numberOfPlayers));
+            SimulationResult result = simulator.play(game);
+
+            assertTrue(result.isFinished(), "Game should finish before the turn limit");
+            assertEquals(Step.WON, game.getStep(), "Game step should be WON");
+            assertTrue(game.getPlayerByNumber(result.getWinnerNumber()).hasWon(), "Winner should have all landmarks");
+            assertTrue(result.getMoves() > result.getTurns(), "Every turn should take more than one move");
+        }
+    }
+
+    @Test
+    public void play_sameSeedSameGame() throws GameMechanicException, InvalidMoveException {
+        SimulationResult first = new GameSimulator(new RandomDieSource(new SplittableRandom(42))).play(getStrategies(4));
+        SimulationResult second = new GameSimulator(new RandomDieSource(new SplittableRandom(42))).play(getStrategies(4));
+
+        assertEquals(first.getWinnerNumber(), second.getWinnerNumber());
+        assertEquals(first.getTurns(), second.getTurns());
+        assertEquals(first.getMoves(), second.getMoves());
+    }
+
+    @Test
+    public void play_stopsAtTurnLimit() throws GameMechanicException, InvalidMoveException {
+        SimulationResult result = new GameSimulator(new RandomDieSource(new SplittableRandom(7)), 3).play(getStrategies(2));
+
+        assertFalse(result.isFinished(), "Game should not finish in 3 turns");
+        assertEquals(3, result.getTurns());
+    }
+
+    private List<Map<StrategyName, Integer>> getStrategies(int numberOfPlayers) {
+        List<Map<StrategyName, Integer>> strategies = new ArrayList<>();
+        for (int i = 0; i < numberOfPlayers; i++) {
+            Map<StrategyName, Integer> strategy = new EnumMap<>(StrategyName.class);
+            for (StrategyName strategyName : StrategyName.values()) {
+                strategy.put(strategyName, 0);
+            }
+            strategy.put(StrategyName.SAVER, i % 4);
+            strategy.put(StrategyName.OPTIMIST, (i + 1) % 4);
+            strategy.put(StrategyName.ATTACK_FOCUSED, (i + 2) % 4);
+            strategies.add(strategy);
+        }
+        return strategies;
+    }
+}
@@ -0,0 +1,68 @@
+package com.shannontheoret.machikoro.simulation;
+
+import com.shannontheoret.machikoro.StrategyName;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TournamentRunnerTests {
+
+    @Test
+    public void run_everyProfilePlaysItsShare() {
+        List<StrategyProfile> profiles = getProfiles();
+
+        TournamentResult result = new TournamentRunner(ForkJoinPool.commonPool()).run(profiles, 2, 600, 1L);
+
+        assertEquals(600, result.getGamesPlayed());
+        long totalWins = 0;
+        for (ProfileResult profileResult : result.getProfileResults()) {
+            assertEquals(400, profileResult.getGamesPlayed(), "Each of 3 profiles should sit in 2/3 of 2 player games");
+            assertTrue(profileResult.getAverageGameLength() > 0, "Finished games should last at least one turn");
+            assertEquals(3.0, profileResult.getCoinCurve()[0], 10.0, "Coins after the first turn should be near the starting coins");
+            totalWins += profileResult.getWins();
+        }
+        assertEquals(result.getGamesPlayed() - result.getUnfinishedGames(), totalWins, "Every finished game should have one winner");
+        assertTrue(result.getGamesPerSecond() > 0);
+    }
+
+    @Test
+    public void run_sameSeedSameResultRegardlessOfParallelism() {
+        List<StrategyProfile> profiles = getProfiles();
+
+        TournamentResult single = new TournamentRunner(new ForkJoinPool(1)).run(profiles, 3, 300, 99L);
+        TournamentResult parallel = new TournamentRunner(new ForkJoinPool(4)).run(profiles, 3, 300, 99L);
+
+        for (int i = 0; i < profiles.size(); i++) {
+            assertEquals(single.getProfileResults().get(i).getWins(), parallel.getProfileResults().get(i).getWins());
+            assertEquals(single.getProfileResults().get(i).getAverageGameLength(), parallel.getProfileResults().get(i).getAverageGameLength());
+        }
+    }
+
+    @Test
+    public void run_tooFewProfiles_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> new TournamentRunner(ForkJoinPool.commonPool()).run(getProfiles(), 4, 10, 1L));
+    }
+
+    private List<StrategyProfile> getProfiles() {
+        return List.of(
+                new StrategyProfile("saver", getStrategy(3, 1, 1)),
+                new StrategyProfile("optimist", getStrategy(1, 3, 1)),
+                new StrategyProfile("attacker", getStrategy(1, 1, 3)));
+    }
+
+    private Map<StrategyName, Integer> getStrategy(int saver, int optimist, int attack) {
+        Map<StrategyName, Integer> strategy = new EnumMap<>(StrategyName.class);
+        for (StrategyName strategyName : StrategyName.values()) {
+            strategy.put(strategyName, 0);
+        }
+        strategy.put(StrategyName.SAVER, saver);
+        strategy.put(StrategyName.OPTIMIST, optimist);
+        strategy.put(StrategyName.ATTACK_FOCUSED, attack);
+        return strategy;
+    }
+}
@@ -0,0 +1,105 @@
+package com.shannontheoret.machikoro.state;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shannontheoret.machikoro.*;
+import com.shannontheoret.machikoro.entity.Game;
+import com.shannontheoret.machikoro.entity.Player;
+import com.shannontheoret.machikoro.exception.GameMechanicException;
+import com.shannontheoret.machikoro.exception.InvalidMoveException;
+import com.shannontheoret.machikoro.simulation.GameSimulator;
+import com.shannontheoret.machikoro.simulation.RandomDieSource;
+import com.shannontheoret.machikoro.utilities.GameUtilities;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameCodecTests {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    //every position of many played games decodes to what a deep copy of it would show a client
+    @Test
+    public void decode_matchesDeepCopyThroughWholeGames() throws GameMechanicException, InvalidMoveException, JsonProcessingException {
+        SplittableRandom random = new SplittableRandom(19L);
+        TurnDecisionEngineFactory decisionEngines = TurnDecisionEngineFactory.standalone();
+        for (int gameIndex = 0; gameIndex < 10; gameIndex++) {
+            List<Map<StrategyName, Integer>> strategies = new ArrayList<>();
+            for (int i = 0; i < 2 + gameIndex % 3; i++) {
+                strategies.add(GameUtilities.generateReasonableStrategy());
+            }
+            Game game = GameSimulator.newGame(strategies);
+            game.setCode("G" + gameIndex);
+            int playerId = 100;
+            for (Player player : game.getPlayers()) {
+                player.setId((long) playerId++);
+                player.setName("Player " + player.getNumber());
+            }
+            RandomDieSource dieSource = new RandomDieSource(random);
+            for (int moves = 0; moves < 2000 && game.getStep() != Step.WON; moves++) {
+                game.setMoveCount(moves);
+                game.setVersion(moves * 3L);
+                assertEquals(MAPPER.writeValueAsString(game.deepCopy()), MAPPER.writeValueAsString(GameCodec.decode(GameCodec.encode(game))));
+                GameActions.makeNPCMove(game, dieSource, decisionEngines);
+            }
+        }
+    }
+
+    @Test
+    public void encode_fourPlayersUnder128Bytes() throws GameMechanicException {
+        Game game = GameActions.createGame(4);
+        game.setCode("ABCDEFGH");
+        game.setStep(Step.ROLL);
+        game.setMoveCount(300);
+        for (Player player : game.getPlayers()) {
+            player.setCoins(40);
+            player.getLandmarks().add(Landmark.TRAIN_STATION);
+        }
+
+        assertTrue(GameCodec.encode(game).length < 128);
+    }
+
+    @Test
+    public void decode_keepsNullStrategyDegreeAndSoldOutStock() throws GameMechanicException {
+        Game game = GameActions.createGame(2);
+        game.setStep(Step.BUY);
+        game.getGameStock().put(Card.STADIUM, 0);
+        Map<StrategyName, Integer> strategy = new EnumMap<>(StrategyName.class);
+        strategy.put(StrategyName.SAVER, 2);
+        strategy.put(StrategyName.OPTIMIST, null);
+        game.getPlayerByNumber(2).setStrategy(strategy);
+
+        Game decoded = GameCodec.decode(GameCodec.encode(game));
+
+        assertNull(decoded.getCode());
+        assertEquals(0, decoded.getGameStock().get(Card.STADIUM));
+        assertEquals(strategy, decoded.getPlayerByNumber(2).getStrategy());
+        assertNull(decoded.getPlayerByNumber(1).getStrategy());
+        assertFalse(decoded.getPlayerByNumber(1).getStock().containsKey(Card.MINE));
+    }
+
+    @Test
+    public void encode_cardCountTooLarge() throws GameMechanicException {
+        Game game = GameActions.createGame(2);
+        game.getPlayerByNumber(1).getStock().put(Card.WHEAT, 16);
+
+        assertThrows(IllegalArgumentException.class, () -> GameCodec.encode(game));
+    }
+
+    @Test
+    public void decode_unknownFormatOrTruncated() throws GameMechanicException {
+        Game game = GameActions.createGame(2);
+        byte[] bytes = GameCodec.encode(game);
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length - 3);
+        bytes[0] = 9;
+
+        assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(bytes));
+        assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(truncated));
+    }
+}
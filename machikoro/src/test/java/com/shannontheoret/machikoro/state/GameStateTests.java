@@ -0,0 +1,147 @@
+package com.shannontheoret.machikoro.state;
+
+import com.shannontheoret.machikoro.*;
+import com.shannontheoret.machikoro.entity.Game;
+import com.shannontheoret.machikoro.entity.Player;
+import com.shannontheoret.machikoro.exception.GameMechanicException;
+import com.shannontheoret.machikoro.exception.InvalidMoveException;
+import com.shannontheoret.machikoro.simulation.RandomDieSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameStateTests {
+
+    @Test
+    public void fromGame_readsEntities() throws GameMechanicException {
+        Game game = createTestGame();
+
+        GameState state = GameState.fromGame(game);
+
+        assertEquals(3, state.getPlayerCount());
+        assertEquals(7, state.getCoins(2));
+        assertEquals(2, state.getCardCount(2, Card.RANCH));
+        assertEquals(1, state.getCardCount(2, Card.WHEAT));
+        assertEquals(2, state.getCountOfCardsInCategory(2, CardCategory.GRAIN));
+        assertTrue(state.hasLandmark(2, Landmark.TRAIN_STATION));
+        assertFalse(state.hasLandmark(1, Landmark.TRAIN_STATION));
+        assertEquals(5, state.getStock(Card.RANCH));
+        assertEquals(Step.BUY, state.getStep());
+        assertEquals(4, state.getDie1());
+        assertEquals(3, state.getDie2());
+        assertEquals(7, state.getDieTotal());
+        assertEquals(2, state.getCurrentPlayerNumber());
+    }
+
+    @Test
+    public void toGame_roundTrip() throws GameMechanicException {
+        GameState state = GameState.fromGame(createTestGame());
+
+        Game game = state.toGame();
+
+        assertEquals(state, GameState.fromGame(game));
+        assertEquals(Map.of(Card.WHEAT, 1, Card.BAKERY, 1, Card.RANCH, 2, Card.APPLE_ORCHARD, 1), game.getPlayerByNumber(2).getStock());
+    }
+
+    @Test
+    public void copyFrom_equalAndIndependent() throws GameMechanicException {
+        GameState state = GameState.fromGame(createTestGame());
+        GameState copy = new GameState(3);
+
+        copy.copyFrom(state);
+        assertEquals(state, copy);
+        assertEquals(state.hashCode(), copy.hashCode());
+
+        copy.addCard(1, Card.MINE);
+        assertNotEquals(state, copy);
+        assertEquals(0, state.getCardCount(1, Card.MINE));
+    }
+
+    @Test
+    public void getProgress_matchesPlayer() throws GameMechanicException {
+        Game game = createTestGame();
+        game.getPlayerByNumber(2).getLandmarks().add(Landmark.SHOPPING_MALL);
+        GameState state = GameState.fromGame(game);
+
+        for (Player player : game.getPlayers()) {
+            assertEquals(player.getProgress(), state.getProgress(player.getNumber()));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {2, 3, 4})
+    public void stateActions_matchGameActions(Integer numberOfPlayers) throws GameMechanicException, InvalidMoveException {
+        SplittableRandom random = new SplittableRandom(numberOfPlayers);
+        for (int gameNumber = 0; gameNumber < 20; gameNumber++) {
+            long seed = random.nextLong();
+            Game game = GameActions.createGame(numberOfPlayers);
+            game.setStep(Step.ROLL);
+            GameState state = GameState.fromGame(game);
+            DieSource gameDice = new RandomDieSource(new SplittableRandom(seed));
+            DieSource stateDice = new RandomDieSource(new SplittableRandom(seed));
+            for (int move = 0; move < 400 && game.getStep() != Step.WON; move++) {
+                playRandomMove(game, state, random, gameDice, stateDice);
+                assertEquals(GameState.fromGame(game), state, "State should match game after move " + move);
+            }
+        }
+    }
+
+    private void playRandomMove(Game game, GameState state, SplittableRandom random, DieSource gameDice, DieSource stateDice) throws GameMechanicException, InvalidMoveException {
+        Player currentPlayer = game.getCurrentPlayer();
+        switch (game.getStep()) {
+            case ROLL:
+            case CONFIRM_ROLL:
+                if (game.getStep() == Step.CONFIRM_ROLL && random.nextBoolean()) {
+                    GameActions.confirmRoll(game);
+                    StateActions.confirmRoll(state);
+                } else {
+                    boolean rollTwo = currentPlayer.hasTrainStation() && random.nextBoolean();
+                    GameActions.roll(game, rollTwo, gameDice);
+                    StateActions.roll(state, rollTwo, stateDice);
+                }
+                break;
+            case STEAL:
+                int playerNumber = game.getNextPlayer(game.getCurrentPlayerNumber()).getNumber();
+                GameActions.steal(game, playerNumber);
+                StateActions.steal(state, playerNumber);
+                break;
+            case BUY:
+                Landmark landmark = Landmark.values()[random.nextInt(Landmark.values().length)];
+                Card card = Card.values()[random.nextInt(Card.values().length)];
+                if (!currentPlayer.hasLandmark(landmark) && currentPlayer.getCoins() >= landmark.getCost()) {
+                    GameActions.purchaseLandmark(game, landmark);
+                    StateActions.purchaseLandmark(state, landmark);
+                } else if (game.getGameStock().get(card) > 0 && currentPlayer.getCoins() >= card.getCost()
+                        && !(card.getCategory() == CardCategory.PURPLE && currentPlayer.getStock().containsKey(card))) {
+                    GameActions.purchaseCard(game, card);
+                    StateActions.purchaseCard(state, card);
+                } else {
+                    GameActions.completeTurn(game);
+                    StateActions.completeTurn(state);
+                }
+                break;
+            default:
+                fail("Unexpected step " + game.getStep());
+        }
+    }
+
+    private Game createTestGame() throws GameMechanicException {
+        Game game = GameActions.createGame(3);
+        game.setStep(Step.BUY);
+        game.setCurrentPlayerNumber(2);
+        game.setDie1(4);
+        game.setDie2(3);
+        game.getGameStock().put(Card.RANCH, 5);
+        Player player2 = game.getPlayerByNumber(2);
+        player2.setCoins(7);
+        player2.getStock().put(Card.RANCH, 2);
+        player2.getStock().put(Card.APPLE_ORCHARD, 1);
+        player2.getLandmarks().add(Landmark.TRAIN_STATION);
+        return game;
+    }
+}
@@ -0,0 +1,45 @@
+package com.shannontheoret.machikoro.utilities;
+
+import com.shannontheoret.machikoro.Card;
+import com.shannontheoret.machikoro.CardCategory;
+import com.shannontheoret.machikoro.GameRules;
+import com.shannontheoret.machikoro.Landmark;
+import com.shannontheoret.machikoro.entity.Game;
+import com.shannontheoret.machikoro.entity.Player;
+import com.shannontheoret.machikoro.exception.GameMechanicException;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+//games shared by the roll calculation tests
+final class GameFixtures {
+
+    private GameFixtures() {
+    }
+
+    //any number of players, each with random coins, landmarks and cards
+    static Game createRandomGame(SplittableRandom random) throws GameMechanicException {
+        Game game = new Game();
+        Set<Player> players = new LinkedHashSet<>();
+        int numberOfPlayers = random.nextInt(GameRules.MIN_PLAYERS, GameRules.MAX_PLAYERS + 1);
+        for (int playerNumber = 1; playerNumber <= numberOfPlayers; playerNumber++) {
+            Player player = new Player(playerNumber);
+            player.setCoins(random.nextInt(0, 12));
+            for (Landmark landmark : Landmark.values()) {
+                if (random.nextInt(3) == 0) {
+                    player.getLandmarks().add(landmark);
+                }
+            }
+            for (Card card : Card.values()) {
+                if (random.nextInt(3) == 0) {
+                    player.getStock().put(card, card.getCategory() == CardCategory.PURPLE ? 1 : random.nextInt(1, 4));
+                }
+            }
+            players.add(player);
+        }
+        game.setPlayers(players);
+        game.setCurrentPlayerNumber(random.nextInt(1, numberOfPlayers + 1));
+        return game;
+    }
+}
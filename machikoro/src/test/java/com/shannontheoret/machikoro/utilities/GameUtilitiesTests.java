@@ -0,0 +1,81 @@
+package com.shannontheoret.machikoro.utilities;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shannontheoret.machikoro.DieSource;
+import com.shannontheoret.machikoro.GameActions;
+import com.shannontheoret.machikoro.entity.Game;
+import com.shannontheoret.machikoro.exception.GameMechanicException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameUtilitiesTests {
+
+    @Test
+    public void dieRoll_uniform() {
+        int[] counts = new int[7];
+        int rolls = 600000;
+        for (int sequence = 1; sequence <= rolls / 2; sequence++) {
+            counts[GameUtilities.dieRoll(42L, sequence, 0)]++;
+            counts[GameUtilities.dieRoll(42L, sequence, 1)]++;
+        }
+        assertEquals(0, counts[0]);
+        double chiSquared = 0;
+        double expected = rolls / 6.0;
+        for (int face = 1; face <= 6; face++) {
+            chiSquared += (counts[face] - expected) * (counts[face] - expected) / expected;
+        }
+        assertTrue(chiSquared < 20.5, "chi squared " + chiSquared); //p = 0.001 at five degrees of freedom
+    }
+
+    @Test
+    public void generateRandomDieRoll_reproducibleFromSeedAndMoveCount() throws GameMechanicException {
+        GameUtilities gameUtilities = new GameUtilities();
+        Game game = GameActions.createGame(2);
+        game.setSeed(7L);
+        game.setMoveCount(12);
+        Game sameSeed = GameActions.createGame(2);
+        sameSeed.setSeed(7L);
+        sameSeed.setMoveCount(12);
+
+        DieSource dice = GameUtilities.dieSource(gameUtilities, game);
+        DieSource sameDice = GameUtilities.dieSource(gameUtilities, sameSeed);
+
+        assertEquals(GameUtilities.dieRoll(7L, 13, 0), dice.roll());
+        assertEquals(GameUtilities.dieRoll(7L, 13, 1), dice.roll());
+        assertEquals(GameUtilities.dieRoll(7L, 13, 0), sameDice.roll());
+        assertEquals(GameUtilities.dieRoll(7L, 13, 1), sameDice.roll());
+    }
+
+    @Test
+    public void dieRoll_seedsAreIndependentStreams() {
+        int matches = 0;
+        for (int sequence = 1; sequence <= 6000; sequence++) {
+            if (GameUtilities.dieRoll(1L, sequence, 0) == GameUtilities.dieRoll(2L, sequence, 0)) {
+                matches++;
+            }
+        }
+        assertTrue(matches > 850 && matches < 1150, "matches " + matches); //one in six by chance
+    }
+
+    @Test
+    public void generateRandomDieRoll_seedsUnseededGame() throws GameMechanicException {
+        Game game = GameActions.createGame(2);
+
+        int roll = new GameUtilities().generateRandomDieRoll(game, 0);
+
+        assertNotEquals(0L, game.getSeed());
+        assertEquals(GameUtilities.dieRoll(game.getSeed(), 1, 0), roll);
+    }
+
+    @Test
+    public void seed_notSentToClients() throws Exception {
+        Game game = GameActions.createGame(2);
+        game.setSeed(123456789L);
+
+        String json = new ObjectMapper().writeValueAsString(game);
+
+        assertFalse(json.contains("seed"));
+        assertFalse(json.contains("123456789"));
+    }
+}
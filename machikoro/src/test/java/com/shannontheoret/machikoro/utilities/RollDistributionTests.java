@@ -0,0 +1,80 @@
+package com.shannontheoret.machikoro.utilities;
+
+import com.shannontheoret.machikoro.entity.Game;
+import com.shannontheoret.machikoro.exception.GameMechanicException;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class RollDistributionTests {
+
+    @Test
+    public void fromGame_matchesRollBenefitAnalyzerForRandomGames() throws GameMechanicException {
+        SplittableRandom random = new SplittableRandom(8);
+        for (int i = 0; i < 1000; i++) {
+            Game game = GameFixtures.createRandomGame(random);
+            Map<Integer, Map<Integer, Integer>> allRollEffects = RollEffectCalculator.calculateAllPossibleRollEffects(game);
+            RollDistribution distribution = RollDistribution.fromGame(game);
+            for (int playerNumber = 1; playerNumber <= game.getPlayers().size(); playerNumber++) {
+                assertEquals(RollBenefitAnalyzer.calculateAverageGainForOneDieRolled(allRollEffects, playerNumber), distribution.getExpectedGain(false, playerNumber));
+                assertEquals(RollBenefitAnalyzer.calculateAverageGainForTwoDiceRolled(allRollEffects, playerNumber), distribution.getExpectedGain(true, playerNumber));
+                assertEquals(RollBenefitAnalyzer.calculateAverageGainForOtherPlayersForOneDieRolled(allRollEffects, playerNumber), distribution.getOtherPlayersExpectedGain(false, playerNumber));
+                assertEquals(RollBenefitAnalyzer.calculateAverageGainForOtherPlayersForTwoDiceRolled(allRollEffects, playerNumber), distribution.getOtherPlayersExpectedGain(true, playerNumber));
+                assertEquals(RollBenefitAnalyzer.calculateBestCaseScenarioForOneDieRolled(allRollEffects, playerNumber), distribution.getBestCase(false, playerNumber));
+                assertEquals(RollBenefitAnalyzer.calculateBestCaseScenarioForTwoDiceRolled(allRollEffects, playerNumber), distribution.getBestCase(true, playerNumber));
+                assertEquals(RollBenefitAnalyzer.calculateBestCaseScenarioProbabilityForTwoDiceRolled(allRollEffects, playerNumber), distribution.getBestCaseProbability(true, playerNumber));
+                for (int roll = 1; roll <= 12; roll++) {
+                    assertEquals(allRollEffects.get(roll).getOrDefault(playerNumber, 0), distribution.getRollEffect(roll, playerNumber));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void getVariance_singleWheat() {
+        RollDistribution distribution = RollDistribution.fromRollEffects(rollEffects(Map.of(1, 1)), 2);
+
+        //one coin on a 1 in 6: mean 1/6, variance 1/6 - 1/36
+        assertEquals(1.0 / 6, distribution.getExpectedGain(false, 1), 1e-12);
+        assertEquals(5.0 / 36, distribution.getVariance(false, 1), 1e-12);
+        assertEquals(0.0, distribution.getVariance(true, 1), 1e-12);
+        assertEquals(0.0, distribution.getVariance(false, 2), 1e-12);
+    }
+
+    @Test
+    public void getBestCaseProbability_oneDie() {
+        RollDistribution distribution = RollDistribution.fromRollEffects(rollEffects(Map.of(2, 3, 3, 3)), 2);
+
+        assertEquals(3, distribution.getBestCase(false, 1));
+        assertEquals(1.0 / 6, distribution.getBestCaseProbability(false, 1));
+        assertEquals(0, distribution.getBestCase(false, 2));
+        assertEquals(1.0, distribution.getBestCaseProbability(false, 2));
+    }
+
+    @Test
+    public void getOtherPlayersRollEffect() {
+        Map<Integer, Map<Integer, Integer>> allRollEffects = rollEffects(Map.of());
+        allRollEffects.get(3).put(1, -2);
+        allRollEffects.get(3).put(2, 2);
+        allRollEffects.get(3).put(3, 1);
+        RollDistribution distribution = RollDistribution.fromRollEffects(allRollEffects, 3);
+
+        assertEquals(3, distribution.getOtherPlayersRollEffect(3, 1));
+        assertEquals(-1, distribution.getOtherPlayersRollEffect(3, 2));
+    }
+
+    //player 1 gains the given coins per roll
+    private Map<Integer, Map<Integer, Integer>> rollEffects(Map<Integer, Integer> playerOneGains) {
+        Map<Integer, Map<Integer, Integer>> allRollEffects = new HashMap<>();
+        for (int roll = 1; roll <= 12; roll++) {
+            Map<Integer, Integer> effects = new HashMap<>();
+            if (playerOneGains.containsKey(roll)) {
+                effects.put(1, playerOneGains.get(roll));
+            }
+            allRollEffects.put(roll, effects);
+        }
+        return allRollEffects;
+    }
+}
@@ -1,16 +1,17 @@
 package com.shannontheoret.machikoro.utilities;
 
 import com.shannontheoret.machikoro.Card;
+import com.shannontheoret.machikoro.GameRules;
 import com.shannontheoret.machikoro.Landmark;
 import com.shannontheoret.machikoro.entity.Game;
 import com.shannontheoret.machikoro.entity.Player;
 import com.shannontheoret.machikoro.exception.GameMechanicException;
+import com.shannontheoret.machikoro.state.GameState;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -363,6 +364,39 @@ public class RollEffectCalculatorTests {
         assertEquals(sixEffects, RollEffectCalculator.calculateAllPossibleRollEffects(game).get(6));
     }
 
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 4})
+    public void calculateAllPossibleRollEffects_buffer_matchesMaps(Integer currentPlayerNumber) throws GameMechanicException {
+        Game game = createTestGame(currentPlayerNumber);
+        int[][] rollEffects = RollEffectCalculator.newRollEffectsBuffer();
+
+        RollEffectCalculator.calculateAllPossibleRollEffects(GameState.fromGame(game), rollEffects);
+
+        assertRollEffectsEqual(RollEffectCalculator.calculateAllPossibleRollEffects(game), rollEffects, game.getPlayers().size());
+    }
+
+    @Test
+    public void calculateAllPossibleRollEffects_buffer_matchesMapsForRandomGames() throws GameMechanicException {
+        SplittableRandom random = new SplittableRandom(12345);
+        int[][] rollEffects = RollEffectCalculator.newRollEffectsBuffer();
+        for (int i = 0; i < 2000; i++) {
+            Game game = GameFixtures.createRandomGame(random);
+
+            RollEffectCalculator.calculateAllPossibleRollEffects(GameState.fromGame(game), rollEffects);
+
+            assertRollEffectsEqual(RollEffectCalculator.calculateAllPossibleRollEffects(game), rollEffects, game.getPlayers().size());
+        }
+    }
+
+    private void assertRollEffectsEqual(Map<Integer, Map<Integer, Integer>> expected, int[][] rollEffects, int numberOfPlayers) {
+        for (int roll = 1; roll <= 12; roll++) {
+            for (int playerNumber = 1; playerNumber <= GameRules.MAX_PLAYERS; playerNumber++) {
+                int expectedEffect = playerNumber <= numberOfPlayers ? expected.get(roll).getOrDefault(playerNumber, 0) : 0;
+                assertEquals(expectedEffect, rollEffects[roll][playerNumber], "Roll " + roll + ", player " + playerNumber);
+            }
+        }
+    }
+
     private Game createTestGame(Integer currentPlayerNumber) throws GameMechanicException {
         Game game = new Game();
 
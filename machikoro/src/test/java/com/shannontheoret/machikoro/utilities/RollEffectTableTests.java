@@ -0,0 +1,107 @@
+package com.shannontheoret.machikoro.utilities;
+
+import com.shannontheoret.machikoro.Card;
+import com.shannontheoret.machikoro.GameActions;
+import com.shannontheoret.machikoro.GameRules;
+import com.shannontheoret.machikoro.Landmark;
+import com.shannontheoret.machikoro.Step;
+import com.shannontheoret.machikoro.StrategyName;
+import com.shannontheoret.machikoro.TurnDecisionEngineFactory;
+import com.shannontheoret.machikoro.entity.Game;
+import com.shannontheoret.machikoro.exception.GameMechanicException;
+import com.shannontheoret.machikoro.exception.InvalidMoveException;
+import com.shannontheoret.machikoro.simulation.GameSimulator;
+import com.shannontheoret.machikoro.simulation.RandomDieSource;
+import com.shannontheoret.machikoro.state.GameState;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class RollEffectTableTests {
+    private static final Card[] CARDS = Card.values();
+    private static final Landmark[] LANDMARKS = Landmark.values();
+
+    //a few random coin, card, landmark or turn changes between syncs, checked against the full recomputation every time
+    @Test
+    public void sync_matchesFullRecomputationUnderRandomChanges() {
+        SplittableRandom random = new SplittableRandom(23);
+        int[][] expected = RollEffectCalculator.newRollEffectsBuffer();
+        for (int trial = 0; trial < 200; trial++) {
+            GameState state = new GameState(random.nextInt(GameRules.MIN_PLAYERS, GameRules.MAX_PLAYERS + 1));
+            for (int playerNumber = 1; playerNumber <= state.getPlayerCount(); playerNumber++) {
+                state.setCoins(playerNumber, random.nextInt(0, 12));
+                state.addCard(playerNumber, Card.WHEAT);
+                state.addCard(playerNumber, Card.BAKERY);
+            }
+            RollEffectTable table = new RollEffectTable(state.getPlayerCount());
+            for (int step = 0; step < 100; step++) {
+                int changes = random.nextInt(0, 4);
+                for (int change = 0; change < changes; change++) {
+                    changeRandomly(state, random);
+                }
+
+                int[][] actual = table.sync(state);
+
+                RollEffectCalculator.calculateAllPossibleRollEffects(state, expected);
+                for (int roll = 1; roll <= Card.MAX_ROLL; roll++) {
+                    assertArrayEquals(expected[roll], actual[roll], "Trial " + trial + ", step " + step + ", roll " + roll);
+                }
+            }
+        }
+    }
+
+    //the table a game carries through its NPC decisions never drifts from a fresh calculation
+    @Test
+    public void getRollEffectTable_matchesFullRecomputationThroughWholeGames() throws GameMechanicException, InvalidMoveException {
+        SplittableRandom random = new SplittableRandom(29);
+        TurnDecisionEngineFactory decisionEngines = TurnDecisionEngineFactory.standalone();
+        int[][] expected = RollEffectCalculator.newRollEffectsBuffer();
+        for (int gameIndex = 0; gameIndex < 20; gameIndex++) {
+            List<Map<StrategyName, Integer>> strategies = new ArrayList<>();
+            for (int i = 0; i < 2 + gameIndex % 3; i++) {
+                strategies.add(GameUtilities.generateReasonableStrategy());
+            }
+            Game game = GameSimulator.newGame(strategies);
+            RandomDieSource dieSource = new RandomDieSource(random);
+            for (int moves = 0; moves < 2000 && game.getStep() != Step.WON; moves++) {
+                GameActions.makeNPCMove(game, dieSource, decisionEngines);
+                GameState state = GameState.fromGame(game);
+
+                int[][] actual = game.getRollEffectTable().sync(state);
+
+                RollEffectCalculator.calculateAllPossibleRollEffects(state, expected);
+                for (int roll = 1; roll <= Card.MAX_ROLL; roll++) {
+                    assertArrayEquals(expected[roll], actual[roll], "Game " + gameIndex + ", move " + moves + ", roll " + roll);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void sync_otherPlayerCount() {
+        RollEffectTable table = new RollEffectTable(2);
+
+        assertThrows(IllegalArgumentException.class, () -> table.sync(new GameState(3)));
+    }
+
+    private void changeRandomly(GameState state, SplittableRandom random) {
+        int playerNumber = random.nextInt(1, state.getPlayerCount() + 1);
+        switch (random.nextInt(4)) {
+            case 0 -> state.setCoins(playerNumber, random.nextInt(0, 20));
+            case 1 -> {
+                Card card = CARDS[random.nextInt(CARDS.length)];
+                if (state.getCardCount(playerNumber, card) < 6) {
+                    state.addCard(playerNumber, card);
+                }
+            }
+            case 2 -> state.addLandmark(playerNumber, LANDMARKS[random.nextInt(LANDMARKS.length)]);
+            default -> state.setCurrentPlayerNumber(playerNumber);
+        }
+    }
+}